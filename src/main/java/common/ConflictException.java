@@ -0,0 +1,40 @@
+package common;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Thrown by the services when an update was rejected because the entity was changed or
+ * deleted by another application instance since it was loaded.
+ * <p>
+ * By the time this is thrown, the service has already replaced its cached copy with the
+ * current state from the database (or removed it if it was deleted), so callers only need
+ * to redraw and let the user redo the edit.
+ *
+ * @see UpdateResult#CONFLICT
+ */
+public class ConflictException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    /** An ArrayList rather than a List so the exception stays serializable. */
+    private final ArrayList<Integer> ids;
+
+    /**
+     * Creates an exception for the given entities.
+     *
+     * @param message The detail message
+     * @param ids The IDs of the entities whose update was rejected
+     */
+    public ConflictException(String message, List<Integer> ids) {
+        super(message);
+        this.ids = new ArrayList<>(ids);
+    }
+
+    /**
+     * @return the IDs of the entities whose update was rejected, never null
+     */
+    public List<Integer> getIds() {
+        return Collections.unmodifiableList(ids);
+    }
+}
@@ -0,0 +1,70 @@
+package common;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The changes made to a table since a watermark, as returned by
+ * {@link common.interfaces.DatabaseManagement#refreshSince(Instant)}.
+ * <p>
+ * A delta lists the rows that were inserted or updated and the IDs of the rows that were
+ * deleted. Its {@link #getWatermark() watermark} is the database time at which it was read;
+ * passing it to the next {@code refreshSince} call returns the changes made after this delta.
+ * <p>
+ * Applying a delta is idempotent: a row may appear again in the following delta, so callers
+ * should compare entity versions and skip rows they already have. Deletions should be
+ * applied before the changed rows.
+ *
+ * @param <T> The type of entity
+ */
+public final class Delta<T> {
+    private final List<T> changed;
+    private final List<Integer> deletedIds;
+    private final Instant watermark;
+
+    /**
+     * Creates a delta.
+     *
+     * @param changed The rows inserted or updated since the previous watermark
+     * @param deletedIds The IDs of the rows deleted since the previous watermark
+     * @param watermark The database time at which the delta was read
+     */
+    public Delta(List<T> changed, List<Integer> deletedIds, Instant watermark) {
+        this.changed = List.copyOf(changed);
+        this.deletedIds = List.copyOf(deletedIds);
+        this.watermark = watermark;
+    }
+
+    /**
+     * @return the rows inserted or updated since the previous watermark, never null
+     */
+    public List<T> getChanged() {
+        return changed;
+    }
+
+    /**
+     * @return the IDs of the rows deleted since the previous watermark, never null
+     */
+    public List<Integer> getDeletedIds() {
+        return deletedIds;
+    }
+
+    /**
+     * @return the watermark to pass to the next {@code refreshSince} call
+     */
+    public Instant getWatermark() {
+        return watermark;
+    }
+
+    /**
+     * @return true if nothing changed since the previous watermark
+     */
+    public boolean isEmpty() {
+        return changed.isEmpty() && deletedIds.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "Delta[changed=" + changed.size() + ", deleted=" + deletedIds.size() + ", watermark=" + watermark + "]";
+    }
+}
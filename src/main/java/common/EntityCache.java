@@ -0,0 +1,284 @@
+package common;
+
+import common.interfaces.DatabaseManagement;
+import database.DatabaseConfig;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Bounded read-through cache of entities keyed by their database ID.
+ * <p>
+ * The services look single entities up through this cache instead of querying the repository
+ * every time: a miss loads the entity with the loader, usually
+ * {@link DatabaseManagement#findById(int)}, and keeps it for the next lookup. The cache is
+ * bounded both by the number of entries and by their total weight, e.g. the length of their
+ * text, and evicts with a segmented LRU policy:
+ * <ul>
+ *     <li>a loaded entity enters the probationary segment</li>
+ *     <li>a second hit promotes it to the protected segment, which holds up to 80% of the entries</li>
+ *     <li>entities pushed out of the protected segment go back to probation instead of being dropped</li>
+ *     <li>eviction takes the least recently used probationary entity first</li>
+ * </ul>
+ * so a burst of entities read once, such as a scroll through a long list, cannot push out
+ * the entities that are read repeatedly.
+ * <p>
+ * Writes go through the cache: the services call {@link #put(int, Object)} after saving or
+ * updating an entity, and {@link #invalidate(int)} or {@link #invalidateAll()} when it is deleted
+ * or may have been changed elsewhere. A load that overlaps such a write is returned to its
+ * caller but not cached, so a stale row read before the write cannot replace it.
+ *
+ * @param <T> The type of entity cached
+ *
+ * @see EntityCacheStats
+ * @see DatabaseConfig#getEntityCacheMaxEntries()
+ */
+public final class EntityCache<T> {
+    /** Share of the entries reserved for entities that were hit at least twice. */
+    private static final double PROTECTED_SHARE = 0.8;
+
+    private final IntFunction<T> loader;
+    private final ToIntFunction<T> weigher;
+    private final int maxEntries;
+    private final long maxWeight;
+    private final int maxProtected;
+
+    /** Guards the segments, {@link #weight} and {@link #generation}. */
+    private final ReentrantLock lock = new ReentrantLock();
+    /** Entities hit once since they were loaded, least recently used first. */
+    private final LinkedHashMap<Integer, Entry<T>> probation = new LinkedHashMap<>(16, 0.75f, true);
+    /** Entities hit more than once, least recently used first. */
+    private final LinkedHashMap<Integer, Entry<T>> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+    /** Incremented by every write, so loads can tell whether one overlapped them. */
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder totalLoadNanos = new LongAdder();
+    private volatile long maxLoadNanos;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param loader Loads an entity by ID on a miss; returns null if there is no such entity
+     * @param weigher Returns the weight of an entity, e.g. the length of its text; at least 1 is counted
+     * @param maxEntries Maximum number of cached entities, 0 to disable caching
+     * @param maxWeight Maximum total weight of the cached entities
+     */
+    public EntityCache(IntFunction<T> loader, ToIntFunction<T> weigher, int maxEntries, long maxWeight) {
+        this.loader = loader;
+        this.weigher = weigher;
+        this.maxEntries = Math.max(0, maxEntries);
+        this.maxWeight = Math.max(0, maxWeight);
+        this.maxProtected = (int) (this.maxEntries * PROTECTED_SHARE);
+    }
+
+    /**
+     * Creates a cache using the limits from {@link DatabaseConfig}.
+     *
+     * @param loader Loads an entity by ID on a miss
+     * @param weigher Returns the weight of an entity
+     * @param <T> The type of entity cached
+     * @return A new, empty cache
+     */
+    public static <T> EntityCache<T> fromConfig(IntFunction<T> loader, ToIntFunction<T> weigher) {
+        return new EntityCache<>(loader, weigher,
+                DatabaseConfig.getEntityCacheMaxEntries(), DatabaseConfig.getEntityCacheMaxWeight());
+    }
+
+    /**
+     * Returns the entity with the given ID, loading and caching it on a miss.
+     * The loader runs without holding the cache's lock, so concurrent misses for the same
+     * ID may each load it.
+     *
+     * @param id The entity ID
+     * @return The cached or loaded entity, or null if the loader found none
+     * @throws RuntimeException if the loader fails; nothing is cached
+     */
+    public T get(int id) {
+        long loadGeneration;
+        lock.lock();
+        try {
+            Entry<T> entry = lookup(id);
+            if (entry != null) {
+                hits.increment();
+                return entry.item;
+            }
+            loadGeneration = generation;
+        } finally {
+            lock.unlock();
+        }
+        misses.increment();
+        long start = System.nanoTime();
+        T item;
+        try {
+            item = loader.apply(id);
+        } catch (RuntimeException e) {
+            loadFailures.increment();
+            throw e;
+        }
+        long elapsed = System.nanoTime() - start;
+        totalLoadNanos.add(elapsed);
+        maxLoadNanos = Math.max(maxLoadNanos, elapsed);
+        if (item == null) {
+            return null;
+        }
+        lock.lock();
+        try {
+            if (generation == loadGeneration && !probation.containsKey(id) && !protectedSegment.containsKey(id)) {
+                insert(id, item, probation);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return item;
+    }
+
+    /**
+     * Stores the current state of an entity after it was saved or updated, keeping its
+     * segment if it was already cached.
+     *
+     * @param id The entity ID
+     * @param item The entity as written to the repository
+     */
+    public void put(int id, T item) {
+        lock.lock();
+        try {
+            generation++;
+            Map<Integer, Entry<T>> segment = protectedSegment.containsKey(id) ? protectedSegment : probation;
+            remove(id);
+            insert(id, item, segment);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes an entity, e.g. after it was deleted or changed elsewhere.
+     *
+     * @param id The entity ID
+     */
+    public void invalidate(int id) {
+        lock.lock();
+        try {
+            generation++;
+            remove(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes every entity, e.g. after the table was cleared or reloaded.
+     */
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            generation++;
+            probation.clear();
+            protectedSegment.clear();
+            weight = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a snapshot of the cache's counters for monitoring.
+     *
+     * @return The current statistics
+     */
+    public EntityCacheStats stats() {
+        int size;
+        long currentWeight;
+        lock.lock();
+        try {
+            size = probation.size() + protectedSegment.size();
+            currentWeight = weight;
+        } finally {
+            lock.unlock();
+        }
+        return new EntityCacheStats(size, currentWeight, hits.sum(), misses.sum(), loadFailures.sum(),
+                evictions.sum(), totalLoadNanos.sum(), maxLoadNanos);
+    }
+
+    /**
+     * Finds a cached entry and records the access, promoting a probationary entry to the
+     * protected segment. Must be called with the lock held.
+     */
+    private Entry<T> lookup(int id) {
+        Entry<T> entry = protectedSegment.get(id);
+        if (entry != null) {
+            return entry;
+        }
+        entry = probation.remove(id);
+        if (entry == null) {
+            return null;
+        }
+        protectedSegment.put(id, entry);
+        if (protectedSegment.size() > maxProtected) {
+            Iterator<Map.Entry<Integer, Entry<T>>> eldest = protectedSegment.entrySet().iterator();
+            Map.Entry<Integer, Entry<T>> demoted = eldest.next();
+            eldest.remove();
+            probation.put(demoted.getKey(), demoted.getValue());
+        }
+        return entry;
+    }
+
+    /**
+     * Adds an entry to a segment and evicts until the cache is within its bounds.
+     * An entity heavier than the whole cache is not added, so it cannot evict everything else.
+     * Must be called with the lock held.
+     */
+    private void insert(int id, T item, Map<Integer, Entry<T>> segment) {
+        if (maxEntries == 0) {
+            return;
+        }
+        Entry<T> entry = new Entry<>(item, Math.max(1, weigher.applyAsInt(item)));
+        if (entry.weight > maxWeight) {
+            return;
+        }
+        segment.put(id, entry);
+        weight += entry.weight;
+        while (probation.size() + protectedSegment.size() > maxEntries || weight > maxWeight) {
+            LinkedHashMap<Integer, Entry<T>> victims = probation.isEmpty() ? protectedSegment : probation;
+            Iterator<Entry<T>> eldest = victims.values().iterator();
+            weight -= eldest.next().weight;
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Removes an entry from whichever segment holds it. Must be called with the lock held.
+     */
+    private void remove(int id) {
+        Entry<T> entry = probation.remove(id);
+        if (entry == null) {
+            entry = protectedSegment.remove(id);
+        }
+        if (entry != null) {
+            weight -= entry.weight;
+        }
+    }
+
+    /**
+     * A cached entity and the weight it was counted with.
+     */
+    private static final class Entry<T> {
+        final T item;
+        final int weight;
+
+        Entry(T item, int weight) {
+            this.item = item;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package common;
+
+/**
+ * Immutable snapshot of an {@link EntityCache}'s state, intended for monitoring and logging.
+ * <p>
+ * Counters are cumulative since the cache was created, while the size and weight reflect
+ * the moment the snapshot was taken. Load latency is the time the loader took to read an
+ * entity from the repository on a miss.
+ *
+ * @see EntityCache#stats()
+ */
+public final class EntityCacheStats {
+    private final int size;
+    private final long weight;
+    private final long hitCount;
+    private final long missCount;
+    private final long loadFailureCount;
+    private final long evictionCount;
+    private final long totalLoadNanos;
+    private final long maxLoadNanos;
+
+    EntityCacheStats(int size, long weight, long hitCount, long missCount, long loadFailureCount,
+                     long evictionCount, long totalLoadNanos, long maxLoadNanos) {
+        this.size = size;
+        this.weight = weight;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.loadFailureCount = loadFailureCount;
+        this.evictionCount = evictionCount;
+        this.totalLoadNanos = totalLoadNanos;
+        this.maxLoadNanos = maxLoadNanos;
+    }
+
+    /**
+     * @return the number of entities currently cached
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return the total weight of the entities currently cached
+     */
+    public long getWeight() {
+        return weight;
+    }
+
+    /**
+     * @return the number of lookups served from the cache
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return the number of lookups that went to the repository
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return the share of lookups served from the cache, between 0 and 1
+     */
+    public double getHitRatio() {
+        long lookups = hitCount + missCount;
+        return lookups == 0 ? 0.0 : (double) hitCount / lookups;
+    }
+
+    /**
+     * @return the number of misses whose load failed
+     */
+    public long getLoadFailureCount() {
+        return loadFailureCount;
+    }
+
+    /**
+     * @return the number of entities dropped to keep the cache within its bounds
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return the average time a miss spent loading, in milliseconds
+     */
+    public double getAverageLoadMillis() {
+        long loads = missCount - loadFailureCount;
+        return loads == 0 ? 0.0 : totalLoadNanos / 1_000_000.0 / loads;
+    }
+
+    /**
+     * @return the longest time a single miss spent loading, in milliseconds
+     */
+    public double getMaxLoadMillis() {
+        return maxLoadNanos / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "EntityCacheStats[size=%d, weight=%d, hits=%d, misses=%d, hitRatio=%.3f, loadFailures=%d, "
+                        + "evictions=%d, avgLoad=%.3fms, maxLoad=%.3fms]",
+                size, weight, hitCount, missCount, getHitRatio(), loadFailureCount,
+                evictionCount, getAverageLoadMillis(), getMaxLoadMillis());
+    }
+}
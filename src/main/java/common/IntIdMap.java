@@ -0,0 +1,213 @@
+package common;
+
+import java.util.Arrays;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Map from primitive {@code int} entity IDs to entities, used by the services to find
+ * cached entities without scanning their lists.
+ * <p>
+ * Keys are stored in an {@code int[]} and looked up by open addressing with linear probing,
+ * so lookups, inserts and removals take constant time on average and do not box the ID.
+ * Removal shifts the following entries of the probe run back instead of leaving tombstones,
+ * so the table never degrades and nothing is allocated except when the table grows.
+ * <p>
+ * Values must not be null; a null value marks an empty slot. The map is not thread-safe.
+ *
+ * @param <V> The type of entity stored
+ */
+public final class IntIdMap<V> {
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] keys;
+    private Object[] values;
+    /** Table length minus one; the table length is a power of two. */
+    private int mask;
+    private int size;
+    /** Number of entries at which the table is doubled, keeping it at most half full. */
+    private int growAt;
+
+    /**
+     * Creates an empty map.
+     */
+    public IntIdMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Creates an empty map that holds {@code expectedSize} entries without growing.
+     *
+     * @param expectedSize The number of entries expected
+     */
+    public IntIdMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    /**
+     * Returns the value stored for an ID.
+     *
+     * @param id The entity ID
+     * @return The value, or null if the ID is not in the map
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int id) {
+        for (int slot = slotOf(id); values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == id) {
+                return (V) values[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param id The entity ID
+     * @return true if a value is stored for the ID
+     */
+    public boolean containsKey(int id) {
+        return get(id) != null;
+    }
+
+    /**
+     * Stores a value for an ID, replacing any previous value.
+     *
+     * @param id The entity ID
+     * @param value The value, must not be null
+     * @return The previous value, or null if there was none
+     * @throws NullPointerException if value is null
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int id, V value) {
+        if (value == null) {
+            throw new NullPointerException("value");
+        }
+        int slot = slotOf(id);
+        for (; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == id) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+        }
+        keys[slot] = id;
+        values[slot] = value;
+        if (++size >= growAt) {
+            resize(keys.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * Removes the value stored for an ID.
+     *
+     * @param id The entity ID
+     * @return The removed value, or null if the ID was not in the map
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int id) {
+        for (int slot = slotOf(id); values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == id) {
+                V previous = (V) values[slot];
+                shiftBack(slot);
+                size--;
+                return previous;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The number of IDs in the map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if the map holds no IDs
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes every entry, keeping the table's capacity.
+     */
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(values, null);
+            size = 0;
+        }
+    }
+
+    /**
+     * Calls {@code action} with every value and its ID, in no particular order.
+     *
+     * @param action Receives each value and its ID; must not change the map
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(ObjIntConsumer<? super V> action) {
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null) {
+                action.accept((V) values[slot], keys[slot]);
+            }
+        }
+    }
+
+    /**
+     * Empties {@code slot} and moves later entries of its probe run into the gap when their
+     * home slot allows it, so every remaining entry is still reachable from its home slot.
+     */
+    private void shiftBack(int slot) {
+        int gap = slot;
+        for (int next = (gap + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+            int home = slotOf(keys[next]);
+            // The entry may fill the gap unless its home lies cyclically in (gap, next].
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        values[gap] = null;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int slot = 0; slot < oldValues.length; slot++) {
+            if (oldValues[slot] != null) {
+                int target = slotOf(oldKeys[slot]);
+                while (values[target] != null) {
+                    target = (target + 1) & mask;
+                }
+                keys[target] = oldKeys[slot];
+                values[target] = oldValues[slot];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        growAt = capacity / 2;
+    }
+
+    /**
+     * Spreads sequential IDs over the table (Fibonacci hashing), so runs of consecutive
+     * IDs do not form long probe sequences.
+     */
+    private int slotOf(int id) {
+        int hash = id * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity / 2 <= expectedSize && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,184 @@
+package common;
+
+import java.util.Arrays;
+
+/**
+ * Compressed, append-only list of document ordinals, the building block of the in-memory
+ * search indexes.
+ * <p>
+ * Ordinals must be appended in increasing order. Each entry is stored as the gap to the
+ * previous ordinal, optionally followed by a frequency, both as variable-length integers
+ * (7 bits per byte), so dense lists take about one byte per entry. Entries are read back
+ * in order with a {@link Cursor}. Removing documents is left to the index: it skips the
+ * ordinals of removed documents while reading and periodically rewrites the lists with
+ * {@link #compact(int[])}.
+ * <p>
+ * A posting list is not thread-safe.
+ */
+public final class PostingList {
+    private final boolean withFrequencies;
+    private byte[] data = new byte[8];
+    private int length;
+    private int size;
+    private int last = -1;
+
+    /**
+     * Creates an empty list.
+     *
+     * @param withFrequencies true to store a frequency with every ordinal
+     */
+    public PostingList(boolean withFrequencies) {
+        this.withFrequencies = withFrequencies;
+    }
+
+    /**
+     * Appends an ordinal with a frequency of 1.
+     *
+     * @param ordinal The document ordinal, greater than the last one appended
+     * @throws IllegalArgumentException if the ordinal is not greater than the last one
+     */
+    public void add(int ordinal) {
+        add(ordinal, 1);
+    }
+
+    /**
+     * Appends an ordinal and its frequency.
+     *
+     * @param ordinal The document ordinal, greater than the last one appended
+     * @param frequency The number of occurrences in the document, at least 1; ignored if
+     *                  the list does not store frequencies
+     * @throws IllegalArgumentException if the ordinal is not greater than the last one
+     */
+    public void add(int ordinal, int frequency) {
+        if (ordinal <= last) {
+            throw new IllegalArgumentException("Ordinal " + ordinal + " does not follow " + last);
+        }
+        writeVarInt(ordinal - last);
+        if (withFrequencies) {
+            writeVarInt(frequency);
+        }
+        last = ordinal;
+        size++;
+    }
+
+    /**
+     * @return The number of entries, including those of removed documents
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The number of bytes used by the encoded entries
+     */
+    public int byteSize() {
+        return length;
+    }
+
+    /**
+     * Returns a cursor positioned before the first entry.
+     *
+     * @return A new cursor
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Rewrites the list with renumbered ordinals, dropping entries whose document was removed.
+     *
+     * @param remap The new ordinal of each old ordinal, or -1 to drop it; must preserve the order
+     * @return A new list; empty if every entry was dropped
+     */
+    public PostingList compact(int[] remap) {
+        PostingList compacted = new PostingList(withFrequencies);
+        Cursor cursor = cursor();
+        while (cursor.next()) {
+            int ordinal = remap[cursor.ordinal()];
+            if (ordinal >= 0) {
+                compacted.add(ordinal, cursor.frequency());
+            }
+        }
+        return compacted;
+    }
+
+    private void writeVarInt(int value) {
+        if (length + 5 > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, length + 5));
+        }
+        while ((value & ~0x7F) != 0) {
+            data[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[length++] = (byte) value;
+    }
+
+    /**
+     * Reads the entries of the list in order. Entries appended after the cursor was created
+     * are also returned.
+     */
+    public final class Cursor {
+        private int position;
+        private int ordinal = -1;
+        private int frequency;
+        private boolean exhausted;
+
+        private Cursor() {
+        }
+
+        /**
+         * Moves to the next entry.
+         *
+         * @return false if there are no more entries
+         */
+        public boolean next() {
+            if (position >= length) {
+                exhausted = true;
+                return false;
+            }
+            exhausted = false;
+            ordinal += readVarInt();
+            frequency = withFrequencies ? readVarInt() : 1;
+            return true;
+        }
+
+        /**
+         * Moves to the first entry whose ordinal is at least {@code target}.
+         *
+         * @param target The smallest ordinal wanted
+         * @return false if there is no such entry
+         */
+        public boolean advance(int target) {
+            while (!exhausted && ordinal < target) {
+                next();
+            }
+            return !exhausted;
+        }
+
+        /**
+         * @return The ordinal of the current entry
+         */
+        public int ordinal() {
+            return ordinal;
+        }
+
+        /**
+         * @return The frequency of the current entry, 1 if the list does not store frequencies
+         */
+        public int frequency() {
+            return frequency;
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package common;
+
+/**
+ * Outcome of a version-checked update, as returned by
+ * {@link common.interfaces.DatabaseManagement#update(Object)}.
+ * <p>
+ * An update only succeeds if the row still has the version the entity was read with.
+ * Otherwise another writer got there first, and the entity must be reloaded before it
+ * can be changed again.
+ */
+public enum UpdateResult {
+    /** The row had the expected version and was updated; the entity's version was incremented. */
+    UPDATED,
+    /** The row was changed by another writer since the entity was read; nothing was written. */
+    CONFLICT,
+    /** The row no longer exists; nothing was written. */
+    NOT_FOUND
+}
@@ -0,0 +1,616 @@
+package common;
+
+import common.interfaces.DatabaseManagement;
+import common.interfaces.VersionedEntity;
+import database.DBHelper;
+import database.DatabaseConfig;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLNonTransientException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Queue that defers updates and deletes of existing entities and writes them to the
+ * repository in batches.
+ * <p>
+ * The services apply a change to their in-memory cache right away and hand it to this queue
+ * instead of writing it to the database. Pending writes are keyed by entity ID, so repeated
+ * updates of the same entity are merged into one, and a delete replaces any pending update.
+ * The queue is flushed with {@link DatabaseManagement#updateAll(List)} and
+ * {@link DatabaseManagement#deleteAll(List)}:
+ * <ul>
+ *     <li>periodically, every {@code flushIntervalMs}</li>
+ *     <li>as soon as {@code maxBatchSize} entities are pending</li>
+ *     <li>on demand through {@link #flush()}, e.g. before the cache is reloaded</li>
+ *     <li>when the application shuts down, through {@link DBHelper#addShutdownTask(Runnable)}</li>
+ * </ul>
+ * New entities are not queued, since they need their generated ID before they can be
+ * referenced.
+ *
+ * <p>Implementation Details:</p>
+ * <ul>
+ * <li>The queue holds a {@link VersionedEntity#copy()} of each entity taken when it was queued,
+ * so the UI can keep editing the cached instance while the flush thread writes the copy</li>
+ * <li>After a successful update the copy carries the new row version. Pending copies of the
+ * same entity are moved to that version, and the {@link Listener} is told so the service can
+ * apply it to its cached instance</li>
+ * <li>If a batch fails, its rows are retried one at a time. A row that fails with a
+ * non-transient error, e.g. a constraint violation or a value too long for its column, is
+ * dropped and counted instead of blocking the queue; a transient error, e.g. a lost
+ * connection, puts the remaining rows back unless a newer write for the same entity arrived
+ * in the meantime, and the next flush retries them</li>
+ * <li>Updates rejected by the repository's version check are not retried either; they are
+ * counted as conflicts. The IDs of conflicting and dropped rows are reported to the
+ * {@link Listener}, which reloads the stored state</li>
+ * <li>The listener is called on the flush thread after the flush lock is released, so it may
+ * take the service's locks without risking a deadlock with a thread that flushes while
+ * holding them</li>
+ * </ul>
+ *
+ * @param <T> The type of entity being written
+ *
+ * @see WriteBehindStats
+ * @see DatabaseConfig#isWriteBehindEnabled()
+ */
+public final class WriteBehindQueue<T extends VersionedEntity<T>> implements AutoCloseable {
+    /** How long {@link #close()} waits for the flush thread to finish pending notifications. */
+    private static final long CLOSE_TIMEOUT_MS = 5000;
+
+    private final String name;
+    private final DatabaseManagement<T> repository;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService flusher;
+
+    /** Guards {@link #pending}, {@link #writtenVersions} and {@link #closed}. */
+    private final ReentrantLock lock = new ReentrantLock();
+    /** Serializes flushes, so writes reach the database in the order they were queued. */
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final LinkedHashMap<Integer, Write<T>> pending = new LinkedHashMap<>();
+    /**
+     * Versions written by this queue that the listener has not applied yet. An entity queued in
+     * that window still carries its old version and is moved to the written one.
+     */
+    private final IntIdMap<Integer> writtenVersions = new IntIdMap<>();
+    private boolean closed;
+    private volatile Listener<T> listener;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder totalFlushNanos = new LongAdder();
+    private volatile long maxFlushNanos;
+    private volatile long maxQueueDelayNanos;
+    private volatile int peakDepth;
+
+    /**
+     * Creates a queue and starts its flush timer.
+     *
+     * @param name Name used for the flush thread and in log messages, e.g. "notes"
+     * @param repository The repository the writes are flushed to
+     * @param maxBatchSize Number of pending entities that triggers an early flush, at least 1
+     * @param flushIntervalMs Time between periodic flushes, in milliseconds
+     */
+    public WriteBehindQueue(String name, DatabaseManagement<T> repository, int maxBatchSize,
+                            long flushIntervalMs) {
+        this.name = name;
+        this.repository = repository;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "write-behind-" + name);
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = Math.max(1, flushIntervalMs);
+        flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        DBHelper.addShutdownTask(this::close);
+    }
+
+    /**
+     * Creates a queue using the write-behind settings from {@link DatabaseConfig}.
+     *
+     * @param name Name used for the flush thread and in log messages
+     * @param repository The repository the writes are flushed to
+     * @param <T> The type of entity being written
+     * @return A new, running queue
+     */
+    public static <T extends VersionedEntity<T>> WriteBehindQueue<T> fromConfig(String name,
+                                                                               DatabaseManagement<T> repository) {
+        return new WriteBehindQueue<>(name, repository,
+                DatabaseConfig.getWriteBehindMaxBatchSize(), DatabaseConfig.getWriteBehindFlushIntervalMs());
+    }
+
+    /**
+     * Sets the listener told about written and dropped rows, replacing any previous one.
+     *
+     * @param listener The listener, or null to stop notifications
+     */
+    public void setListener(Listener<T> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Queues an update of an existing entity, replacing any pending update of the same entity.
+     * The queue writes a copy taken now, so later changes to {@code item} need another call.
+     *
+     * @param item The entity in its new state
+     * @throws IllegalStateException if the queue has been closed
+     */
+    public void update(T item) {
+        enqueue(item, false);
+    }
+
+    /**
+     * Queues the deletion of an existing entity, replacing any pending update of the same entity.
+     *
+     * @param item The entity to delete
+     * @throws IllegalStateException if the queue has been closed
+     */
+    public void delete(T item) {
+        enqueue(item, true);
+    }
+
+    /**
+     * Drops all pending writes without executing them, e.g. after every row has been deleted.
+     */
+    public void discardPending() {
+        lock.lock();
+        try {
+            pending.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes all pending changes to the repository and waits until they are done.
+     * Rows that fail with a non-transient error are dropped and reported to the listener
+     * instead of failing the flush.
+     *
+     * @throws RuntimeException if the repository fails with a transient error; the unwritten rows
+     *                          stay queued for the next flush
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<Write<T>> batch;
+            lock.lock();
+            try {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = new ArrayList<>(pending.values());
+                pending.clear();
+            } finally {
+                lock.unlock();
+            }
+            write(batch);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Stops the flush timer, writes everything that is still pending and waits for the
+     * listener to be told about it. Later updates and deletes are rejected.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            lock.unlock();
+        }
+        flusher.shutdown();
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            System.err.println("Error draining write-behind queue " + name + ": " + e.getMessage());
+        }
+        try {
+            flusher.awaitTermination(CLOSE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return The number of entities with a pending write
+     */
+    public int getDepth() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a snapshot of the queue's counters for monitoring.
+     *
+     * @return The current statistics
+     */
+    public WriteBehindStats stats() {
+        return new WriteBehindStats(getDepth(), peakDepth, enqueued.sum(), coalesced.sum(), written.sum(),
+                flushes.sum(), failedFlushes.sum(), conflicts.sum(), dropped.sum(), totalFlushNanos.sum(),
+                maxFlushNanos, maxQueueDelayNanos);
+    }
+
+    private void enqueue(T item, boolean delete) {
+        int depth;
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Write-behind queue " + name + " is closed");
+            }
+            T copy = item.copy();
+            int id = copy.getId();
+            Integer written = writtenVersions.get(id);
+            if (written != null && copy.getVersion() < written) {
+                copy.setVersion(written);
+            }
+            Write<T> previous = pending.get(id);
+            if (previous != null) {
+                coalesced.increment();
+                // Keep the original enqueue time so the queue delay covers the whole wait.
+                pending.put(id, new Write<>(copy, delete || previous.delete, previous.enqueuedAt));
+            } else {
+                pending.put(id, new Write<>(copy, delete, System.nanoTime()));
+            }
+            depth = pending.size();
+            if (depth > peakDepth) {
+                peakDepth = depth;
+            }
+        } finally {
+            lock.unlock();
+        }
+        enqueued.increment();
+        if (depth >= maxBatchSize) {
+            try {
+                flusher.execute(this::flushQuietly);
+            } catch (RejectedExecutionException e) {
+                // Closing; the final drain writes this entry.
+            }
+        }
+    }
+
+    /**
+     * Writes one batch and records its metrics.
+     * <p>
+     * The batch is written with one {@code updateAll} and one {@code deleteAll} call. If either
+     * fails, the rows not yet written are retried one at a time, so a single bad row neither
+     * blocks nor discards the others. The listener is told about the outcome even if a
+     * transient error ends the flush early.
+     *
+     * @throws RuntimeException if the repository fails with a transient error; the rows not
+     *                          yet written are put back in the queue
+     */
+    private void write(List<Write<T>> batch) {
+        List<Write<T>> updates = new ArrayList<>();
+        List<Write<T>> deletes = new ArrayList<>();
+        long oldest = Long.MAX_VALUE;
+        for (Write<T> w : batch) {
+            (w.delete ? deletes : updates).add(w);
+            oldest = Math.min(oldest, w.enqueuedAt);
+        }
+        List<T> stored = new ArrayList<>();
+        List<Integer> droppedIds = new ArrayList<>();
+        long start = System.nanoTime();
+        try {
+            boolean batched;
+            try {
+                batched = writeBatch(updates, false, stored, droppedIds)
+                        && writeBatch(deletes, true, stored, droppedIds);
+            } catch (RuntimeException e) {
+                failedFlushes.increment();
+                requeue(unwritten(updates, deletes));
+                throw e;
+            }
+            if (!batched) {
+                writeEach(unwritten(updates, deletes), stored, droppedIds);
+            }
+        } finally {
+            recordWritten(stored);
+            notifyListener(stored, droppedIds);
+        }
+        long end = System.nanoTime();
+        long elapsed = end - start;
+        flushes.increment();
+        totalFlushNanos.add(elapsed);
+        maxFlushNanos = Math.max(maxFlushNanos, elapsed);
+        maxQueueDelayNanos = Math.max(maxQueueDelayNanos, end - oldest);
+    }
+
+    /**
+     * Writes several updates or deletes with one repository call.
+     * Written rows are removed from {@code writes}; on failure {@code writes} is left unchanged.
+     *
+     * @return true if the rows were written, false if the call failed with a non-transient error
+     * @throws RuntimeException if the call failed with a transient error
+     */
+    private boolean writeBatch(List<Write<T>> writes, boolean delete, List<T> stored, List<Integer> droppedIds) {
+        if (writes.isEmpty()) {
+            return true;
+        }
+        try {
+            apply(writes, delete, stored, droppedIds);
+        } catch (RuntimeException e) {
+            if (!isPermanent(e)) {
+                throw e;
+            }
+            System.err.println("Write-behind queue " + name + " retrying " + writes.size()
+                    + " row(s) one at a time: " + e.getMessage());
+            return false;
+        }
+        writes.clear();
+        return true;
+    }
+
+    /**
+     * Returns the updates followed by the deletes that are still to be written.
+     */
+    private static <T> List<Write<T>> unwritten(List<Write<T>> updates, List<Write<T>> deletes) {
+        List<Write<T>> rest = new ArrayList<>(updates);
+        rest.addAll(deletes);
+        return rest;
+    }
+
+    /**
+     * Writes rows one at a time, dropping those that fail with a non-transient error.
+     *
+     * @throws RuntimeException if a row fails with a transient error; it and the rows after it
+     *                          are put back in the queue
+     */
+    private void writeEach(List<Write<T>> writes, List<T> stored, List<Integer> droppedIds) {
+        for (int i = 0; i < writes.size(); i++) {
+            Write<T> w = writes.get(i);
+            try {
+                apply(List.of(w), w.delete, stored, droppedIds);
+            } catch (RuntimeException e) {
+                if (!isPermanent(e)) {
+                    failedFlushes.increment();
+                    requeue(writes.subList(i, writes.size()));
+                    throw e;
+                }
+                dropped.increment();
+                droppedIds.add(w.item.getId());
+                System.err.println("Write-behind queue " + name + " dropped the " + (w.delete ? "delete" : "update")
+                        + " of entity " + w.item.getId() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Sends updates or deletes to the repository and sorts the updates into written and conflicting.
+     */
+    private void apply(List<Write<T>> writes, boolean delete, List<T> stored, List<Integer> droppedIds) {
+        List<T> items = new ArrayList<>(writes.size());
+        writes.forEach(w -> items.add(w.item));
+        if (delete) {
+            repository.deleteAll(items);
+            written.add(items.size());
+            return;
+        }
+        List<T> rejected = repository.updateAll(items);
+        written.add(items.size() - rejected.size());
+        if (!rejected.isEmpty()) {
+            conflicts.add(rejected.size());
+            System.err.println("Write-behind queue " + name + " skipped " + rejected.size()
+                    + " update(s) changed elsewhere since they were read");
+        }
+        for (T item : items) {
+            if (rejected.contains(item)) {
+                droppedIds.add(item.getId());
+            } else {
+                stored.add(item);
+            }
+        }
+    }
+
+    /**
+     * Records the versions of written updates and moves pending copies of the same entities
+     * to them, so that the next flush of those entities does not conflict with this one.
+     */
+    private void recordWritten(List<T> stored) {
+        if (stored.isEmpty()) {
+            return;
+        }
+        lock.lock();
+        try {
+            for (T item : stored) {
+                int version = item.getVersion();
+                writtenVersions.put(item.getId(), version);
+                Write<T> next = pending.get(item.getId());
+                if (next != null && next.item.getVersion() < version) {
+                    next.item.setVersion(version);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hands the outcome of a flush to the listener on the flush thread, or on this thread
+     * once the flush thread has stopped.
+     */
+    private void notifyListener(List<T> stored, List<Integer> droppedIds) {
+        if (stored.isEmpty() && droppedIds.isEmpty()) {
+            return;
+        }
+        List<Integer> reload = withoutPending(droppedIds);
+        Runnable task = () -> {
+            try {
+                Listener<T> target = listener;
+                if (target != null && !stored.isEmpty()) {
+                    target.written(stored);
+                }
+                if (target != null && !reload.isEmpty()) {
+                    target.dropped(reload);
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Error notifying write-behind listener " + name + ": " + e.getMessage());
+            } finally {
+                forgetWritten(stored);
+            }
+        };
+        try {
+            flusher.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.run();
+        }
+    }
+
+    /**
+     * Returns the IDs that have no newer pending write.
+     */
+    private List<Integer> withoutPending(List<Integer> ids) {
+        List<Integer> result = new ArrayList<>(ids.size());
+        lock.lock();
+        try {
+            for (int id : ids) {
+                if (!pending.containsKey(id)) {
+                    result.add(id);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Forgets written versions once the listener has applied them, unless a later flush
+     * recorded a newer version in the meantime.
+     */
+    private void forgetWritten(List<T> stored) {
+        lock.lock();
+        try {
+            for (T item : stored) {
+                Integer version = writtenVersions.get(item.getId());
+                if (version != null && version == item.getVersion()) {
+                    writtenVersions.remove(item.getId());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Puts unwritten rows back in front of the queue, keeping any newer write for the same entity.
+     */
+    private void requeue(List<Write<T>> writes) {
+        lock.lock();
+        try {
+            Map<Integer, Write<T>> newer = new LinkedHashMap<>(pending);
+            pending.clear();
+            for (Write<T> w : writes) {
+                pending.put(w.item.getId(), w);
+            }
+            pending.putAll(newer);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Flush used by the timer, which must not throw or the schedule would stop.
+     */
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            System.err.println("Error flushing write-behind queue " + name + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns whether a failed write would fail again if retried: a data or constraint error,
+     * a syntax error, or a failure that did not come from the database at all. Connection
+     * errors, timeouts and deadlocks are transient.
+     *
+     * @param failure The exception thrown by the repository, usually wrapping an {@link SQLException}
+     * @return true if the write should be dropped rather than retried
+     */
+    static boolean isPermanent(Throwable failure) {
+        boolean fromDatabase = false;
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof SQLTransientException || t instanceof SQLRecoverableException
+                    || t instanceof SQLNonTransientConnectionException) {
+                return false;
+            }
+            if (t instanceof SQLException e) {
+                fromDatabase = true;
+                String state = e.getSQLState();
+                if (state != null && state.startsWith("08")) {
+                    return false;
+                }
+                // Class 22 is a data exception, class 23 an integrity constraint violation.
+                if (e instanceof SQLNonTransientException
+                        || state != null && (state.startsWith("22") || state.startsWith("23"))) {
+                    return true;
+                }
+            }
+        }
+        return !fromDatabase;
+    }
+
+    /**
+     * Receives the outcome of flushed writes, on the flush thread.
+     *
+     * @param <T> The type of entity being written
+     */
+    public interface Listener<T> {
+        /**
+         * Called with the copies of updated entities, which carry their new row version.
+         *
+         * @param updated The entities that were written, in the order they were written
+         */
+        void written(List<T> updated);
+
+        /**
+         * Called with the IDs of entities whose update or delete was dropped, because it
+         * conflicted with another change or failed with a non-transient error. The cached
+         * state of these entities no longer matches the database and should be reloaded.
+         * IDs with a newer pending write are left out, since that write supersedes them.
+         *
+         * @param ids The IDs of the dropped writes
+         */
+        void dropped(List<Integer> ids);
+    }
+
+    /**
+     * A pending write: a copy of the entity's latest state and whether it is to be deleted.
+     */
+    private static final class Write<T> {
+        final T item;
+        final boolean delete;
+        final long enqueuedAt;
+
+        Write(T item, boolean delete, long enqueuedAt) {
+            this.item = item;
+            this.delete = delete;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
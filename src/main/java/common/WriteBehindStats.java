@@ -0,0 +1,136 @@
+package common;
+
+/**
+ * Immutable snapshot of a {@link WriteBehindQueue}'s state, intended for monitoring and logging.
+ * <p>
+ * Counters are cumulative since the queue was created, while the depth reflects the moment
+ * the snapshot was taken. Flush latency is the time the repository took to write a batch;
+ * queue delay is the time from an entity's first queued change until it was written.
+ *
+ * @see WriteBehindQueue#stats()
+ */
+public final class WriteBehindStats {
+    private final int depth;
+    private final int peakDepth;
+    private final long enqueuedCount;
+    private final long coalescedCount;
+    private final long writtenCount;
+    private final long flushCount;
+    private final long failedFlushCount;
+    private final long conflictCount;
+    private final long droppedCount;
+    private final long totalFlushNanos;
+    private final long maxFlushNanos;
+    private final long maxQueueDelayNanos;
+
+    WriteBehindStats(int depth, int peakDepth, long enqueuedCount, long coalescedCount, long writtenCount,
+                     long flushCount, long failedFlushCount, long conflictCount, long droppedCount,
+                     long totalFlushNanos, long maxFlushNanos, long maxQueueDelayNanos) {
+        this.depth = depth;
+        this.peakDepth = peakDepth;
+        this.enqueuedCount = enqueuedCount;
+        this.coalescedCount = coalescedCount;
+        this.writtenCount = writtenCount;
+        this.flushCount = flushCount;
+        this.failedFlushCount = failedFlushCount;
+        this.conflictCount = conflictCount;
+        this.droppedCount = droppedCount;
+        this.totalFlushNanos = totalFlushNanos;
+        this.maxFlushNanos = maxFlushNanos;
+        this.maxQueueDelayNanos = maxQueueDelayNanos;
+    }
+
+    /**
+     * @return the number of entities currently waiting to be written
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @return the largest number of entities that were waiting at the same time
+     */
+    public int getPeakDepth() {
+        return peakDepth;
+    }
+
+    /**
+     * @return the number of updates and deletes handed to the queue
+     */
+    public long getEnqueuedCount() {
+        return enqueuedCount;
+    }
+
+    /**
+     * @return the number of queued changes merged into an already pending write of the same entity
+     */
+    public long getCoalescedCount() {
+        return coalescedCount;
+    }
+
+    /**
+     * @return the number of entity writes that reached the database
+     */
+    public long getWrittenCount() {
+        return writtenCount;
+    }
+
+    /**
+     * @return the number of successful flushes
+     */
+    public long getFlushCount() {
+        return flushCount;
+    }
+
+    /**
+     * @return the number of flushes that failed with a transient error and were re-queued
+     */
+    public long getFailedFlushCount() {
+        return failedFlushCount;
+    }
+
+    /**
+     * @return the number of queued updates dropped because the entity was changed elsewhere
+     */
+    public long getConflictCount() {
+        return conflictCount;
+    }
+
+    /**
+     * @return the number of queued writes dropped because they failed with a non-transient error
+     */
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * @return the average time a successful flush spent writing, in milliseconds
+     */
+    public double getAverageFlushMillis() {
+        return flushCount == 0 ? 0.0 : totalFlushNanos / 1_000_000.0 / flushCount;
+    }
+
+    /**
+     * @return the longest time a single flush spent writing, in milliseconds
+     */
+    public double getMaxFlushMillis() {
+        return maxFlushNanos / 1_000_000.0;
+    }
+
+    /**
+     * @return the longest time a change waited in the queue before it was written, in milliseconds
+     */
+    public double getMaxQueueDelayMillis() {
+        return maxQueueDelayNanos / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "WriteBehindStats[depth=%d, peakDepth=%d, enqueued=%d, coalesced=%d, written=%d, flushes=%d, "
+                        + "failedFlushes=%d, conflicts=%d, dropped=%d, avgFlush=%.3fms, maxFlush=%.3fms, "
+                        + "maxQueueDelay=%.3fms]",
+                depth, peakDepth, enqueuedCount, coalescedCount, writtenCount, flushCount,
+                failedFlushCount, conflictCount, droppedCount, getAverageFlushMillis(), getMaxFlushMillis(), getMaxQueueDelayMillis());
+    }
+}
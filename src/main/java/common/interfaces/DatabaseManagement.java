@@ -1,6 +1,13 @@
 package common.interfaces;
 
+import common.Delta;
+import common.UpdateResult;
+import database.ChangeTracking;
+import database.DatabaseExecutor;
+import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 /**
  * Generic interface defining core database operations for managing entities.
@@ -10,9 +17,17 @@ import java.util.List;
  * <p>Features:</p>
  * <ul>
  * <li>Basic CRUD operations (Create, Read, Update, Delete)</li>
+ * <li>Lookup of a single entity by primary key</li>
  * <li>Bulk operations (clear all)</li>
+ * <li>Batch writes (save, update and delete many entities in one transaction)</li>
+ * <li>Optimistic concurrency: updates only apply to the row version the entity was read with</li>
  * <li>Data refresh capabilities</li>
  * <li>Sorted data retrieval</li>
+ * <li>Keyset-paginated retrieval for each supported sort order</li>
+ * <li>Streaming retrieval of all entities with constant memory use</li>
+ * <li>Ranked full-text search with a result limit</li>
+ * <li>Delta refreshes returning only the rows changed or deleted since a watermark</li>
+ * <li>Asynchronous variants of the common operations, run on virtual threads</li>
  * </ul>
  *
  * <p>This interface serves as the data access layer within the application architecture,
@@ -47,14 +62,54 @@ public interface DatabaseManagement<T> {
     void delete(T item);
 
     /**
-     * Updates an existing entity in the database.
-     * If the entity doesn't exist, implementations may throw an exception
-     * or create a new entity depending on implementation.
+     * Updates an existing entity in the database if its row still has the entity's version.
+     * <p>
+     * The row's version is incremented with every update. When another writer has updated
+     * or deleted the row since the entity was read, nothing is written and the result says
+     * why; the entity must then be reloaded before it can be changed again.
      *
      * @param item The entity with updated values, must not be null
+     * @return {@link UpdateResult#UPDATED} on success, in which case the entity's version was
+     *         incremented, otherwise {@link UpdateResult#CONFLICT} or {@link UpdateResult#NOT_FOUND}
      * @throws IllegalArgumentException if item is null
+     * @throws RuntimeException if a database error occurs
      */
-    void update(T item);
+    UpdateResult update(T item);
+
+    /**
+     * Saves several new entities in a single transaction using JDBC batching.
+     * Generated IDs are assigned to the entities in list order once the transaction commits,
+     * exactly as {@link #save(Object)} does for a single entity.
+     * Either all entities are saved or, on failure, none are.
+     *
+     * @param items The entities to be saved, must not be null; may be empty
+     * @throws RuntimeException if a database error occurs; the transaction is rolled back
+     */
+    void saveAll(List<T> items);
+
+    /**
+     * Updates several existing entities in a single transaction using JDBC batching,
+     * with the same version check as {@link #update(Object)}.
+     * <p>
+     * Entities whose row was changed or deleted by another writer are skipped and returned;
+     * the others are updated and have their version incremented. On a database error none
+     * of the updates are applied.
+     *
+     * @param items The entities with updated values, must not be null; may be empty
+     * @return The entities that were not updated because of a conflict, in list order; empty if
+     *         every update was applied, never null
+     * @throws RuntimeException if a database error occurs; the transaction is rolled back
+     */
+    List<T> updateAll(List<T> items);
+
+    /**
+     * Removes several existing entities in a single transaction using JDBC batching.
+     * Entities that don't exist are ignored, as with {@link #delete(Object)}.
+     *
+     * @param items The entities to be deleted, must not be null; may be empty
+     * @throws RuntimeException if a database error occurs; the transaction is rolled back
+     */
+    void deleteAll(List<T> items);
 
     /**
      * Removes all entities from the database.
@@ -62,6 +117,16 @@ public interface DatabaseManagement<T> {
      */
     void clear();
 
+    /**
+     * Retrieves a single entity with all its fields by primary key.
+     *
+     * @param id The ID of the entity
+     * @return The entity, or null if no entity has that ID
+     * @throws RuntimeException if a database error occurs during retrieval
+     * @see common.EntityCache
+     */
+    T findById(int id);
+
     /**
      * Retrieves a fresh copy of all entities from the database.
      * This method ensures the returned data reflects the current state of the database.
@@ -79,4 +144,137 @@ public interface DatabaseManagement<T> {
      * @throws IllegalArgumentException if options contains invalid sorting criteria
      */
     List<T> sortedGet(String options);
+
+    /**
+     * Retrieves one page of entities in the given sort order using keyset pagination.
+     * <p>
+     * Instead of an offset, the page starts right after {@code after}, the last entity of the
+     * previous page: the query filters on that entity's sort key and id (used as a tie-break),
+     * so each page costs an index range scan regardless of how deep into the table it is.
+     *
+     * @param sortOption The sort order, using the same option names as {@link Services#sort(String)};
+     *                   null or an unknown option selects the default order
+     * @param after The last entity of the previous page, or null for the first page
+     * @param limit The maximum number of entities to return, must be positive
+     * @return Up to {@code limit} entities following {@code after}, may be empty but never null
+     * @throws RuntimeException if a database error occurs during retrieval
+     */
+    List<T> page(String sortOption, T after, int limit);
+
+    /**
+     * Streams every entity without materializing them in a list, using the configured fetch size.
+     * <p>
+     * The stream holds a database connection and an open cursor until it is closed, so it must
+     * be consumed inside a try-with-resources block. Entities are read in the default order.
+     *
+     * @return A lazily populated stream of all entities; closing it releases the connection
+     * @throws RuntimeException if a database error occurs while opening or reading the cursor
+     */
+    Stream<T> stream();
+
+    /**
+     * Streams every entity without materializing them in a list, using the given fetch size.
+     *
+     * @param fetchSize The fetch size hint for the driver; {@link Integer#MIN_VALUE} selects
+     *                  MySQL's row-by-row streaming mode, 0 leaves the driver default
+     * @return A lazily populated stream of all entities; closing it releases the connection
+     * @throws RuntimeException if a database error occurs while opening or reading the cursor
+     * @see #stream()
+     */
+    Stream<T> stream(int fetchSize);
+
+    /**
+     * Searches the entities' text columns and returns the best matches first.
+     * <p>
+     * On MySQL and MariaDB the search uses FULLTEXT indexes: every word of the query must
+     * appear (as a word prefix) and results are ordered by relevance. On the embedded H2
+     * backend the whole query is matched as a case-insensitive substring instead.
+     *
+     * @param query The text entered by the user; a blank query matches nothing
+     * @param limit The maximum number of entities to return, must be positive
+     * @return Up to {@code limit} matching entities, most relevant first, may be empty but never null
+     * @throws RuntimeException if a database error occurs during the search
+     * @see database.FullTextSearch
+     */
+    List<T> search(String query, int limit);
+
+    /**
+     * Retrieves the entities inserted, updated or deleted after a watermark.
+     * <p>
+     * Callers take a watermark with {@link #currentWatermark()} before a full load and
+     * afterwards pass the watermark of the previous delta, so the cost of each call grows
+     * with the number of changes rather than with the size of the table. Changes close to
+     * the watermark may be returned twice; entity versions tell which ones are new.
+     *
+     * @param watermark The watermark of the previous load or delta, must not be null
+     * @return The changed entities, the deleted IDs and the next watermark, never null
+     * @throws RuntimeException if a database error occurs during retrieval
+     * @see database.ChangeTracking
+     */
+    Delta<T> refreshSince(Instant watermark);
+
+    /**
+     * Reads the database's current time, to be used as the watermark of a full load.
+     * Take it before the load so that no change made during the load is missed.
+     *
+     * @return The current watermark
+     * @throws RuntimeException if a database error occurs
+     */
+    default Instant currentWatermark() {
+        return ChangeTracking.currentTime();
+    }
+
+    /**
+     * Saves a new entity asynchronously.
+     *
+     * @param item The entity to be saved, must not be null
+     * @return A future completed once the entity is saved
+     * @see #save(Object)
+     * @see DatabaseExecutor
+     */
+    default CompletableFuture<Void> saveAsync(T item) {
+        return DatabaseExecutor.runAsync(() -> save(item));
+    }
+
+    /**
+     * Updates an existing entity asynchronously.
+     *
+     * @param item The entity with updated values, must not be null
+     * @return A future completed with the outcome of the update
+     * @see #update(Object)
+     */
+    default CompletableFuture<UpdateResult> updateAsync(T item) {
+        return DatabaseExecutor.supplyAsync(() -> update(item));
+    }
+
+    /**
+     * Deletes an existing entity asynchronously.
+     *
+     * @param item The entity to be deleted, must not be null
+     * @return A future completed once the entity is deleted
+     * @see #delete(Object)
+     */
+    default CompletableFuture<Void> deleteAsync(T item) {
+        return DatabaseExecutor.runAsync(() -> delete(item));
+    }
+
+    /**
+     * Retrieves all entities asynchronously.
+     *
+     * @return A future completed with the entities returned by {@link #refresh()}
+     */
+    default CompletableFuture<List<T>> refreshAsync() {
+        return DatabaseExecutor.supplyAsync(this::refresh);
+    }
+
+    /**
+     * Searches the entities asynchronously.
+     *
+     * @param query The text entered by the user; a blank query matches nothing
+     * @param limit The maximum number of entities to return, must be positive
+     * @return A future completed with the results of {@link #search(String, int)}
+     */
+    default CompletableFuture<List<T>> searchAsync(String query, int limit) {
+        return DatabaseExecutor.supplyAsync(() -> search(query, limit));
+    }
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package common.interfaces;
 
+import database.DatabaseExecutor;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Generic interface defining core service operations for managing entities.
@@ -10,9 +12,14 @@ import java.util.List;
  * <p>Features:</p>
  * <ul>
  * <li>Basic CRUD operations (Create, Read, Update, Delete)</li>
+ * <li>Cached lookup of a single entity by ID</li>
+ * <li>Batch operations for adding, updating and deleting many entities at once</li>
  * <li>Data refresh and clear capabilities</li>
  * <li>Sorting functionality</li>
+ * <li>Incremental, page-by-page loading for large data sets</li>
  * <li>Summary data retrieval</li>
+ * <li>Ranked search over the whole data source</li>
+ * <li>Asynchronous variants of the common operations, run on virtual threads</li>
  * <li>Complete data access</li>
  * </ul>
  *
@@ -58,9 +65,38 @@ public interface Services<T> {
      * @param item The entity with updated values, must not be null
      * @throws IllegalArgumentException if item is null or invalid
      * @throws IllegalStateException if the entity doesn't exist in the system
+     * @throws common.ConflictException if the entity was changed or deleted elsewhere since it was
+     *         loaded; the working data then holds the stored state and nothing was written
      */
     void update(T item);
 
+    /**
+     * Adds several new entities to the system in one batch.
+     * The entities are persisted in a single transaction and receive their IDs in list order.
+     *
+     * @param items The entities to be added, must not be null; may be empty
+     * @throws RuntimeException if the batch cannot be persisted; no entity is added in that case
+     */
+    void addAll(List<T> items);
+
+    /**
+     * Updates several existing entities in one batch.
+     *
+     * @param items The entities with updated values, must not be null; may be empty
+     * @throws common.ConflictException if some entities were changed or deleted elsewhere; the
+     *         others were updated
+     * @throws RuntimeException if the batch cannot be persisted; no entity is updated in that case
+     */
+    void updateAll(List<T> items);
+
+    /**
+     * Removes several existing entities in one batch.
+     *
+     * @param items The entities to be deleted, must not be null; may be empty
+     * @throws RuntimeException if the batch cannot be persisted; no entity is deleted in that case
+     */
+    void deleteAll(List<T> items);
+
     /**
      * Refreshes the service's data from the underlying data source.
      * This ensures that any changes made directly to the data source
@@ -68,6 +104,47 @@ public interface Services<T> {
      */
     void refresh();
 
+    /**
+     * Brings the working data up to date by applying only the changes made in the data source
+     * since the last load or delta refresh, instead of reloading everything.
+     * <p>
+     * Deleted entities are removed, and changed or new entities replace their cached copy at their
+     * position in the current sort order. Entities whose cached version is current are left alone.
+     * If nothing has been loaded yet, this performs a full {@link #refresh()}.
+     *
+     * @return The number of entities added, replaced or removed in the working data
+     * @throws RuntimeException if a database error occurs
+     * @see DatabaseManagement#refreshSince(java.time.Instant)
+     */
+    int refreshChanges();
+
+    /**
+     * Replaces the working data with the first page of entities in the current sort order
+     * and switches the service to paged loading.
+     * <p>
+     * While paged, {@link #refresh()} and {@link #sort(String)} reload the rows that are already
+     * loaded instead of the whole data source, and further rows are fetched with {@link #loadNextPage()}.
+     *
+     * @param pageSize The number of entities to load per page, must be positive
+     * @throws IllegalArgumentException if pageSize is not positive
+     */
+    void loadFirstPage(int pageSize);
+
+    /**
+     * Appends the next page of entities, in the current sort order, to the working data.
+     *
+     * @return true if any entities were added, false if the end of the data was reached
+     *         or the service is not in paged mode
+     */
+    boolean loadNextPage();
+
+    /**
+     * Indicates whether more entities may be available beyond the loaded pages.
+     *
+     * @return true if {@link #loadNextPage()} may add entities
+     */
+    boolean hasMorePages();
+
     /**
      * Removes all entities managed by this service.
      * This operation is typically irreversible and should be used with caution.
@@ -92,6 +169,96 @@ public interface Services<T> {
      */
     List<String> getSummary();
 
+    /**
+     * Searches all entities in the data source, not only the loaded ones, and returns
+     * the best matches first. The working data returned by {@link #getAll()} is not changed.
+     *
+     * @param query The text to search for; a blank query matches nothing
+     * @param limit The maximum number of results, must be positive
+     * @return Up to {@code limit} matching entities, most relevant first, may be empty but never null
+     * @throws IllegalArgumentException if limit is not positive
+     * @see DatabaseManagement#search(String, int)
+     */
+    List<T> search(String query, int limit);
+
+    /**
+     * Retrieves a single entity by ID, whether or not it is part of the working data.
+     * Implementations may serve it from a cache that is kept up to date by their own writes.
+     *
+     * @param id The ID of the entity
+     * @return The entity, or null if it does not exist
+     * @throws RuntimeException if a database error occurs while loading it
+     * @see DatabaseManagement#findById(int)
+     */
+    T findById(int id);
+
+    /**
+     * Adds a new entity asynchronously.
+     * Implementations must guard their working data so that asynchronous calls may overlap.
+     *
+     * @param item The entity to be added, must not be null
+     * @return A future completed once the entity is persisted and added to the working data
+     * @see #add(Object)
+     * @see DatabaseExecutor
+     */
+    default CompletableFuture<Void> addAsync(T item) {
+        return DatabaseExecutor.runAsync(() -> add(item));
+    }
+
+    /**
+     * Updates an existing entity asynchronously.
+     *
+     * @param item The entity with updated values, must not be null
+     * @return A future completed once the entity is persisted and the working data is updated
+     * @see #update(Object)
+     */
+    default CompletableFuture<Void> updateAsync(T item) {
+        return DatabaseExecutor.runAsync(() -> update(item));
+    }
+
+    /**
+     * Removes an existing entity asynchronously.
+     *
+     * @param item The entity to be deleted, must not be null
+     * @return A future completed once the entity is deleted and removed from the working data
+     * @see #delete(Object)
+     */
+    default CompletableFuture<Void> deleteAsync(T item) {
+        return DatabaseExecutor.runAsync(() -> delete(item));
+    }
+
+    /**
+     * Refreshes the working data asynchronously.
+     *
+     * @return A future completed once the working data has been reloaded
+     * @see #refresh()
+     */
+    default CompletableFuture<Void> refreshAsync() {
+        return DatabaseExecutor.runAsync(this::refresh);
+    }
+
+    /**
+     * Loads the first page of the working data asynchronously.
+     *
+     * @param pageSize The number of entities to load per page, must be positive
+     * @return A future completed once the first page has been loaded
+     * @see #loadFirstPage(int)
+     */
+    default CompletableFuture<Void> loadFirstPageAsync(int pageSize) {
+        return DatabaseExecutor.runAsync(() -> loadFirstPage(pageSize));
+    }
+
+    /**
+     * Searches the data source asynchronously.
+     *
+     * @param query The text to search for; a blank query matches nothing
+     * @param limit The maximum number of results, must be positive
+     * @return A future completed with the results of {@link #search(String, int)}
+     */
+    default CompletableFuture<List<T>> searchAsync(String query, int limit) {
+        return DatabaseExecutor.supplyAsync(() -> search(query, limit));
+    }
+
     /**
      * Retrieves all entities managed by this service.
      * This provides complete access to all entity data in their current state.
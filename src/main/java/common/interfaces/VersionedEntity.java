@@ -0,0 +1,42 @@
+package common.interfaces;
+
+/**
+ * An entity stored in a table with a row version, which optimistic updates check and increment.
+ *
+ * <p>Implementation Details:</p>
+ * <ul>
+ * <li>The version is set by the persistence layer when the entity is loaded or updated</li>
+ * <li>{@link #copy()} takes a snapshot that can be written on another thread while the
+ * original stays editable by the UI</li>
+ * </ul>
+ *
+ * @param <T> The implementing entity type
+ *
+ * @see common.WriteBehindQueue
+ */
+public interface VersionedEntity<T> {
+
+    /**
+     * @return The entity's database ID, 0 if it has not been saved
+     */
+    int getId();
+
+    /**
+     * @return The row version as last read or written by this application
+     */
+    int getVersion();
+
+    /**
+     * Sets the row version, e.g. after the entity was written.
+     *
+     * @param version The version stored in the database
+     */
+    void setVersion(int version);
+
+    /**
+     * Returns an independent copy of the entity with the same ID, fields and version.
+     *
+     * @return A new instance that shares no mutable state with this one
+     */
+    T copy();
+}
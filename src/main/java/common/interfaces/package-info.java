@@ -9,6 +9,8 @@
  * <ul>
  *   <li>{@link common.interfaces.Services} - Generic service interface for data operations
  *       that defines standard CRUD methods implemented by domain-specific services</li>
+ *   <li>{@link common.interfaces.VersionedEntity} - Entities with a row version that can be
+ *       copied, as written by the write-behind queue</li>
  * </ul>
  *
  * <p>Architectural role:</p>
@@ -9,6 +9,16 @@
  * <ul>
  *   <li>Interfaces - Common service contracts in the {@link common.interfaces} subpackage
  *       that define consistent interaction patterns across application components</li>
+ *   <li>{@link common.WriteBehindQueue} - Deferred, coalesced and batched updates and deletes
+ *       used by the services in write-behind mode, with {@link common.WriteBehindStats} metrics</li>
+ *   <li>{@link common.EntityCache} - Bounded, segmented LRU read-through cache of entities by ID,
+ *       with {@link common.EntityCacheStats} metrics</li>
+ *   <li>{@link common.IntIdMap} - Primitive int-keyed open-addressing map indexing the services' caches by ID</li>
+ *   <li>{@link common.PostingList} - Delta and variable-length encoded posting list for in-memory search indexes</li>
+ *   <li>{@link common.Delta} - The rows changed and deleted since a watermark, merged by the
+ *       services' delta refreshes</li>
+ *   <li>{@link common.UpdateResult} and {@link common.ConflictException} - Outcome of version-checked
+ *       updates, and the error the services report when another instance changed an entity first</li>
  * </ul>
  *
  * <p>Architectural role:</p>
@@ -0,0 +1,216 @@
+package database;
+
+import common.UpdateResult;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utility class with the queries shared by the DAOs' delta refreshes.
+ * <p>
+ * Every tracked table has a {@code version} column, incremented by each update, and an
+ * {@code updated_at} column stamped with the database time of the last insert or update.
+ * Deleting a row records a tombstone in {@code row_tombstones} with the table name, the
+ * row's ID and the deletion time. A delta refresh reads the rows and tombstones stamped
+ * after a watermark and hands back the current database time as the next watermark.
+ * <p>
+ * Updates are version-checked: they only apply to a row whose version still matches the one
+ * the entity was read with. {@link #missedUpdate(Connection, String, int)} tells a conflicting
+ * writer apart from a deleted row when such an update matched nothing.
+ * <p>
+ * Watermarks always come from the database clock, never from the client's, so clients with
+ * skewed clocks still see every change. Reads start {@link DatabaseConfig#getDeltaOverlapMs()}
+ * before the watermark to catch rows committed late by slow transactions.
+ * <p>
+ * Tombstones are pruned once they are older than {@link DatabaseConfig#getTombstoneRetentionMs()}.
+ * A client whose watermark reaches further back than that cannot tell which rows were deleted,
+ * so {@link #isBeyondRetention(Instant, Instant)} tells it to reload everything instead.
+ * <p>
+ * Delta refreshes and watermarks always use the primary, even when a read replica is
+ * configured. A full load served by the replica may miss the primary's latest changes, but
+ * the following delta refresh reads them back as long as the overlap exceeds the replica lag.
+ *
+ * @see common.Delta
+ */
+public final class ChangeTracking {
+    /** Name of the table holding the IDs of deleted rows. */
+    public static final String TOMBSTONE_TABLE = "row_tombstones";
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     *
+     * @throws IllegalStateException if an attempt is made to instantiate this class
+     */
+    private ChangeTracking() { throw new IllegalStateException("Utility class"); }
+
+    /**
+     * Reads the current database time, to be used as a watermark.
+     *
+     * @return The database's current timestamp
+     * @throws RuntimeException if a database error occurs
+     */
+    public static Instant currentTime() {
+        try (Connection conn = DBHelper.getConnection()) {
+            return currentTime(conn);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error reading the database time: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads the current database time on an open connection.
+     *
+     * @param conn The connection to use
+     * @return The database's current timestamp
+     * @throws SQLException if the query fails
+     */
+    public static Instant currentTime(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT CURRENT_TIMESTAMP(3)");
+             ResultSet rs = stmt.executeQuery()) {
+            if (!rs.next()) {
+                throw new SQLException("The database returned no current timestamp");
+            }
+            return rs.getTimestamp(1).toInstant();
+        }
+    }
+
+    /**
+     * Returns the timestamp after which a delta refresh reads changes, which is the
+     * watermark minus the configured overlap.
+     *
+     * @param watermark The watermark of the previous refresh
+     * @return The lower bound to bind to the {@code updated_at > ?} and {@code deleted_at > ?} filters
+     */
+    public static Timestamp lowerBound(Instant watermark) {
+        return Timestamp.from(watermark.minusMillis(DatabaseConfig.getDeltaOverlapMs()));
+    }
+
+    /**
+     * Builds the statement that records a tombstone for one deleted row.
+     * The row's ID is its only parameter.
+     *
+     * @param table The name of the table the row is deleted from
+     * @return The INSERT statement
+     */
+    public static String tombstoneSql(String table) {
+        return "INSERT INTO " + TOMBSTONE_TABLE + " (table_name, row_id) VALUES ('" + table + "', ?)";
+    }
+
+    /**
+     * Builds the statement that records a tombstone for every row of a table,
+     * to be run before the table is emptied.
+     *
+     * @param table The name of the table being emptied
+     * @return The INSERT ... SELECT statement
+     */
+    public static String tombstoneAllSql(String table) {
+        return "INSERT INTO " + TOMBSTONE_TABLE + " (table_name, row_id) SELECT '" + table + "', id FROM " + table;
+    }
+
+    /**
+     * Deletes the tombstones older than the configured retention, measured on the database clock.
+     *
+     * @return The number of tombstones deleted, 0 if tombstones are kept forever
+     * @throws RuntimeException if a database error occurs
+     */
+    public static int pruneTombstones() {
+        long retention = DatabaseConfig.getTombstoneRetentionMs();
+        if (retention == 0) {
+            return 0;
+        }
+        try (Connection conn = DBHelper.getConnection()) {
+            return pruneTombstones(conn, currentTime(conn).minusMillis(retention));
+        } catch (SQLException e) {
+            throw new RuntimeException("Error pruning tombstones: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Deletes the tombstones recorded before a point in time.
+     *
+     * @param conn The connection to use
+     * @param before Tombstones with an earlier {@code deleted_at} are deleted
+     * @return The number of tombstones deleted
+     * @throws SQLException if the statement fails
+     */
+    public static int pruneTombstones(Connection conn, Instant before) throws SQLException {
+        String sql = "DELETE FROM " + TOMBSTONE_TABLE + " WHERE deleted_at < ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setTimestamp(1, Timestamp.from(before));
+            return stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Returns whether a delta refresh from {@code watermark} may have missed deletions because
+     * their tombstones were already pruned. The caller should then reload everything.
+     *
+     * @param watermark The watermark the delta was read from
+     * @param now The database time of the delta, e.g. {@link common.Delta#getWatermark()}
+     * @return true if the delta's lower bound is older than the tombstone retention
+     */
+    public static boolean isBeyondRetention(Instant watermark, Instant now) {
+        long retention = DatabaseConfig.getTombstoneRetentionMs();
+        return retention > 0 && lowerBound(watermark).toInstant().isBefore(now.minusMillis(retention));
+    }
+
+    /**
+     * Classifies a version-checked update that matched no row.
+     *
+     * @param conn The connection the update ran on
+     * @param table The name of the table
+     * @param id The ID of the row that was to be updated
+     * @return {@link UpdateResult#CONFLICT} if the row exists with another version,
+     *         {@link UpdateResult#NOT_FOUND} if it no longer exists
+     * @throws SQLException if the query fails
+     */
+    public static UpdateResult missedUpdate(Connection conn, String table, int id) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT 1 FROM " + table + " WHERE id = ?")) {
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? UpdateResult.CONFLICT : UpdateResult.NOT_FOUND;
+            }
+        }
+    }
+
+    /**
+     * Returns whether a batched statement changed its row, given its JDBC update count.
+     * Drivers that report {@link Statement#SUCCESS_NO_INFO} are trusted to have applied it.
+     *
+     * @param updateCount One entry of the array returned by {@code executeBatch()}
+     * @return true unless the statement matched no row
+     */
+    public static boolean isApplied(int updateCount) {
+        return updateCount > 0 || updateCount == Statement.SUCCESS_NO_INFO;
+    }
+
+    /**
+     * Reads the IDs of the rows of a table deleted after a point in time.
+     *
+     * @param conn The connection to use
+     * @param table The name of the table
+     * @param since The lower bound from {@link #lowerBound(Instant)}
+     * @return The deleted IDs, empty list if none, never null
+     * @throws SQLException if the query fails
+     */
+    public static List<Integer> findDeletedIds(Connection conn, String table, Timestamp since) throws SQLException {
+        String sql = "SELECT row_id FROM " + TOMBSTONE_TABLE + " WHERE table_name = ? AND deleted_at > ?";
+        List<Integer> ids = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, table);
+            stmt.setTimestamp(2, since);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,528 @@
+package database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded pool of physical JDBC connections backing {@link DBHelper#getConnection()}, and a
+ * second instance for the optional read replica behind {@link DBHelper#getReadConnection()}.
+ * <p>
+ * Connections handed out by {@link #borrow()} are lightweight proxies: calling
+ * {@link Connection#close()} on them returns the physical connection to the pool instead of
+ * closing it, so the existing try-with-resources blocks in the DAOs keep working unchanged.
+ * <p>
+ * Pool behavior:
+ * <ul>
+ *     <li>At most {@code maxSize} physical connections are open at any time</li>
+ *     <li>Callers block for up to {@code borrowTimeout} when the pool is exhausted</li>
+ *     <li>Idle connections are validated on borrow unless they were used very recently</li>
+ *     <li>A background sweep closes surplus idle connections and tops the pool up to {@code minSize}</li>
+ *     <li>Connections older than {@code maxLifetime} are retired instead of being reused</li>
+ *     <li>Each physical connection keeps a {@link StatementCache} of its prepared statements</li>
+ * </ul>
+ *
+ * @see DBHelper
+ * @see PoolStats
+ * @see StatementCache
+ */
+final class ConnectionPool implements AutoCloseable {
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowTimeoutNanos;
+    private final long idleTimeoutNanos;
+    private final long maxLifetimeNanos;
+    private final long validationIntervalNanos;
+    private final int validationTimeoutSeconds;
+    private final int statementCacheSize;
+
+    /** Guards {@link #idle}, {@link #total}, {@link #active} and {@link #closed}. */
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    /** Idle connections, most recently returned first so hot connections are reused. */
+    private final ArrayDeque<PooledConnection> idle = new ArrayDeque<>();
+    private int total;
+    private int active;
+    private boolean closed;
+
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder waitCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+    private final LongAdder statementCacheEvictions = new LongAdder();
+
+    private final ScheduledExecutorService housekeeper;
+
+    /**
+     * Creates a pool for the given database and starts its housekeeping sweep.
+     * No connection is opened until the first sweep or the first borrow.
+     */
+    ConnectionPool(String name, String url, String username, String password, int minSize, int maxSize,
+                   long borrowTimeoutMs, long idleTimeoutMs, long maxLifetimeMs,
+                   long validationIntervalMs, int validationTimeoutSeconds, long evictionIntervalMs,
+                   int statementCacheSize) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.borrowTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMs);
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs);
+        this.maxLifetimeNanos = TimeUnit.MILLISECONDS.toNanos(maxLifetimeMs);
+        this.validationIntervalNanos = TimeUnit.MILLISECONDS.toNanos(validationIntervalMs);
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.statementCacheSize = statementCacheSize;
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, name + "-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 0, Math.max(1, evictionIntervalMs), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Creates a pool configured from {@link DatabaseConfig}.
+     *
+     * @return a new pool for the configured primary database
+     */
+    static ConnectionPool fromConfig() {
+        return fromConfig("db-pool", DatabaseConfig.getUrl(), DatabaseConfig.getUsername(),
+                DatabaseConfig.getPassword());
+    }
+
+    /**
+     * Creates a pool for the read replica configured by {@link DatabaseConfig#getReplicaUrl()},
+     * sized and tuned like the primary pool.
+     *
+     * @return a new pool connected to the replica
+     */
+    static ConnectionPool replicaFromConfig() {
+        return fromConfig("db-replica-pool", DatabaseConfig.getReplicaUrl(), DatabaseConfig.getReplicaUsername(),
+                DatabaseConfig.getReplicaPassword());
+    }
+
+    /**
+     * Creates a pool for the given database using the pool settings from {@link DatabaseConfig}.
+     */
+    private static ConnectionPool fromConfig(String name, String url, String username, String password) {
+        return new ConnectionPool(
+                name,
+                url,
+                username,
+                password,
+                DatabaseConfig.getPoolMinSize(),
+                DatabaseConfig.getPoolMaxSize(),
+                DatabaseConfig.getPoolBorrowTimeoutMs(),
+                DatabaseConfig.getPoolIdleTimeoutMs(),
+                DatabaseConfig.getPoolMaxLifetimeMs(),
+                DatabaseConfig.getPoolValidationIntervalMs(),
+                DatabaseConfig.getPoolValidationTimeoutSeconds(),
+                DatabaseConfig.getPoolEvictionIntervalMs(),
+                DatabaseConfig.getStatementCacheSize()
+        );
+    }
+
+    /**
+     * Borrows a connection, opening a new one if the pool has spare capacity and
+     * otherwise waiting until one is returned.
+     *
+     * @return a pooled connection; closing it returns it to the pool
+     * @throws SQLTimeoutException if no connection became available within the borrow timeout
+     * @throws SQLException if the pool is closed or a new connection cannot be opened
+     */
+    Connection borrow() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + borrowTimeoutNanos;
+        boolean waited = false;
+        PooledConnection pooled = null;
+        while (pooled == null) {
+            boolean create = false;
+            lock.lock();
+            try {
+                if (closed) {
+                    throw new SQLException("Connection pool is closed");
+                }
+                pooled = idle.pollFirst();
+                if (pooled == null) {
+                    if (total < maxSize) {
+                        total++;
+                        create = true;
+                    } else {
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            timeoutCount.increment();
+                            throw new SQLTimeoutException("Timed out after "
+                                    + TimeUnit.NANOSECONDS.toMillis(borrowTimeoutNanos)
+                                    + " ms waiting for a database connection");
+                        }
+                        waited = true;
+                        available.awaitNanos(remaining);
+                        continue;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a database connection", e);
+            } finally {
+                lock.unlock();
+            }
+
+            if (create) {
+                pooled = open();
+            } else if (!isUsable(pooled)) {
+                discard(pooled);
+                pooled = null;
+            }
+        }
+
+        lock.lock();
+        try {
+            active++;
+        } finally {
+            lock.unlock();
+        }
+        long waitNanos = System.nanoTime() - start;
+        borrowCount.increment();
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        if (waited) {
+            waitCount.increment();
+        }
+        return pooled.lease();
+    }
+
+    /**
+     * Takes a snapshot of the pool's gauges and counters.
+     *
+     * @return the current pool statistics
+     */
+    PoolStats stats() {
+        lock.lock();
+        try {
+            return new PoolStats(total, active, idle.size(), lock.getWaitQueueLength(available),
+                    borrowCount.sum(), waitCount.sum(), timeoutCount.sum(),
+                    totalWaitNanos.sum(), maxWaitNanos.get(),
+                    statementCacheHits.sum(), statementCacheMisses.sum(), statementCacheEvictions.sum());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes all idle connections and stops the housekeeping sweep.
+     * Connections still borrowed are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        List<PooledConnection> toClose;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            toClose = new ArrayList<>(idle);
+            total -= idle.size();
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        housekeeper.shutdownNow();
+        toClose.forEach(PooledConnection::closePhysical);
+    }
+
+    /**
+     * Opens a new physical connection for a slot already reserved in {@link #total}.
+     * Releases the reservation if the connection cannot be opened.
+     */
+    private PooledConnection open() throws SQLException {
+        try {
+            return new PooledConnection(DriverManager.getConnection(url, username, password));
+        } catch (SQLException | RuntimeException e) {
+            lock.lock();
+            try {
+                total--;
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Checks whether an idle connection can be handed out again.
+     * Connections past their lifetime are rejected; others are validated with
+     * {@link Connection#isValid(int)} unless they were returned very recently.
+     */
+    private boolean isUsable(PooledConnection pooled) {
+        long now = System.nanoTime();
+        if (now - pooled.createdAt >= maxLifetimeNanos) {
+            return false;
+        }
+        if (now - pooled.lastReturnedAt < validationIntervalNanos) {
+            return true;
+        }
+        try {
+            return pooled.physical.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Closes a physical connection and frees its slot for another caller.
+     */
+    private void discard(PooledConnection pooled) {
+        pooled.closePhysical();
+        lock.lock();
+        try {
+            total--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes back a connection whose proxy was closed by the caller.
+     * The connection is reset to auto-commit mode; if that fails, or the pool is closed,
+     * or the connection is past its lifetime, it is discarded instead.
+     */
+    private void release(PooledConnection pooled) {
+        boolean reusable = pooled.reset();
+        lock.lock();
+        try {
+            active--;
+            if (reusable && !closed && System.nanoTime() - pooled.createdAt < maxLifetimeNanos) {
+                pooled.lastReturnedAt = System.nanoTime();
+                idle.addFirst(pooled);
+                available.signal();
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        discard(pooled);
+    }
+
+    /**
+     * Periodic sweep: retires idle connections that exceeded the idle timeout (while keeping
+     * at least {@code minSize} open) or the maximum lifetime, then opens connections until the
+     * pool holds {@code minSize} again.
+     */
+    private void housekeep() {
+        List<PooledConnection> expired = new ArrayList<>();
+        int toCreate;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            long now = System.nanoTime();
+            // Oldest returned connections sit at the tail of the deque.
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext()) {
+                PooledConnection pooled = it.next();
+                boolean tooOld = now - pooled.createdAt >= maxLifetimeNanos;
+                boolean idleTooLong = now - pooled.lastReturnedAt >= idleTimeoutNanos && total > minSize;
+                if (tooOld || idleTooLong) {
+                    it.remove();
+                    total--;
+                    expired.add(pooled);
+                }
+            }
+            toCreate = Math.max(0, minSize - total);
+            total += toCreate;
+        } finally {
+            lock.unlock();
+        }
+        expired.forEach(PooledConnection::closePhysical);
+
+        for (int i = 0; i < toCreate; i++) {
+            PooledConnection pooled;
+            try {
+                pooled = open();
+            } catch (SQLException | RuntimeException e) {
+                // open() already released this slot; release the remaining reservations too.
+                lock.lock();
+                try {
+                    total -= toCreate - i - 1;
+                    available.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                System.err.println("Error opening pooled connection: " + e.getMessage());
+                return;
+            }
+            lock.lock();
+            try {
+                if (closed) {
+                    total--;
+                } else {
+                    idle.addLast(pooled);
+                    available.signal();
+                    pooled = null;
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (pooled != null) {
+                pooled.closePhysical();
+            }
+        }
+    }
+
+    /**
+     * A physical connection owned by the pool, together with the bookkeeping needed
+     * for lifetime and validation decisions.
+     */
+    private final class PooledConnection {
+        final Connection physical;
+        /** Cached prepared statements, or null when statement caching is disabled. */
+        final StatementCache statements;
+        final long createdAt = System.nanoTime();
+        volatile long lastReturnedAt = createdAt;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statements = statementCacheSize > 0
+                    ? new StatementCache(physical, statementCacheSize,
+                            statementCacheHits, statementCacheMisses, statementCacheEvictions)
+                    : null;
+        }
+
+        /**
+         * Wraps the physical connection in a fresh proxy for one borrower.
+         */
+        Connection lease() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class },
+                    new Lease(this));
+        }
+
+        /**
+         * Restores the default connection state before the connection is reused.
+         *
+         * @return true if the connection can be returned to the pool
+         */
+        boolean reset() {
+            try {
+                if (physical.isClosed()) {
+                    return false;
+                }
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                physical.clearWarnings();
+                if (statements != null) {
+                    statements.releaseAll();
+                }
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Closes the cached statements and then the physical connection. Called when the
+         * connection is retired, fails validation or the pool is closed.
+         */
+        void closePhysical() {
+            if (statements != null) {
+                statements.clear();
+            }
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                System.err.println("Error closing pooled connection: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Invocation handler behind the borrowed connection proxy. It forwards every call to the
+     * physical connection until the borrower closes the proxy, after which the connection
+     * belongs to the pool again and further calls fail. Plain {@code prepareStatement(sql)} and
+     * {@code prepareStatement(sql, autoGeneratedKeys)} calls are served from the statement cache.
+     */
+    private final class Lease implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean returned;
+
+        Lease(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!returned) {
+                        returned = true;
+                        release(pooled);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return returned || pooled.physical.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "PooledConnection[" + pooled.physical + (returned ? ", returned]" : "]");
+                }
+                default -> {
+                    if (returned) {
+                        throw new SQLException("Connection has already been returned to the pool");
+                    }
+                    if (pooled.statements != null && "prepareStatement".equals(method.getName())) {
+                        Class<?>[] types = method.getParameterTypes();
+                        if (types.length == 1) {
+                            return pooled.statements.prepare((Connection) proxy, (String) args[0],
+                                    Statement.NO_GENERATED_KEYS);
+                        }
+                        if (types.length == 2 && types[1] == int.class) {
+                            return pooled.statements.prepare((Connection) proxy, (String) args[0], (Integer) args[1]);
+                        }
+                    }
+                    try {
+                        return method.invoke(pooled.physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }
+            }
+        }
+    }
+}
@@ -1,8 +1,9 @@
 package database;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Database connection helper utility class that provides simplified access to database connections.
@@ -11,6 +12,16 @@ import java.sql.SQLException;
  * retrieved from the {@link DatabaseConfig} class. It follows the utility class pattern
  * with a private constructor to prevent instantiation.
  * <p>
+ * Connections are served from a bounded {@link ConnectionPool} that is created on first use.
+ * Closing a connection obtained here returns it to the pool rather than tearing down the
+ * physical connection, so callers should keep closing connections as soon as they are done.
+ * <p>
+ * When {@link DatabaseConfig#getReplicaUrl()} is set, read-only queries can borrow from a
+ * second pool connected to the replica through {@link #getReadConnection()}. Writes always
+ * use {@link #getConnection()}. After a write recorded with {@link #recordWrite()}, reads go
+ * to the primary for {@link DatabaseConfig#getReadYourWritesWindowMs()}, so that this
+ * application never reads data older than its own last change while the replica catches up.
+ * <p>
  * Usage example:
  * <pre>
  * try (Connection conn = DBHelper.getConnection()) {
@@ -21,8 +32,49 @@ import java.sql.SQLException;
  * </pre>
  *
  * @see DatabaseConfig
+ * @see PoolStats
  */
 public class DBHelper {
+    /**
+     * Tasks run by {@link #shutdown()} before the pool closes, in registration order.
+     */
+    private static final List<Runnable> SHUTDOWN_TASKS = new ArrayList<>();
+
+    /**
+     * {@link System#nanoTime()} of the last recorded write; only meaningful once {@link #written} is set.
+     */
+    private static volatile long lastWriteNanos;
+    private static volatile boolean written;
+
+    /**
+     * Set once the replica pool has been created, so that {@link #shutdown()} only closes it if it exists.
+     */
+    private static volatile boolean replicaStarted;
+
+    /**
+     * Lazily initialized holder for the connection pool, so that loading this class
+     * does not read the configuration or start the pool's housekeeping thread.
+     */
+    private static final class PoolHolder {
+        private static final ConnectionPool POOL = ConnectionPool.fromConfig();
+
+        static {
+            Runtime.getRuntime().addShutdownHook(new Thread(DBHelper::shutdown, "db-pool-shutdown"));
+        }
+    }
+
+    /**
+     * Lazily initialized holder for the replica pool, created by the first read that is routed
+     * to the replica.
+     */
+    private static final class ReplicaHolder {
+        private static final ConnectionPool POOL = ConnectionPool.replicaFromConfig();
+
+        static {
+            replicaStarted = true;
+        }
+    }
+
     /**
      * Private constructor to prevent instantiation of this utility class.
      *
@@ -31,22 +83,125 @@ public class DBHelper {
     private DBHelper() { throw new IllegalStateException("Utility class"); }
 
     /**
-     * Establishes and returns a database connection using configuration from {@link DatabaseConfig}.
+     * Borrows a database connection from the pool configured by {@link DatabaseConfig}.
      * <p>
-     * This method uses connection parameters (URL, username, password) from the DatabaseConfig
-     * utility to create a new database connection.
+     * A new physical connection is only opened when the pool has no idle connection and is
+     * below its maximum size; otherwise the call waits up to the configured borrow timeout.
+     * The returned connection must be closed to give it back to the pool.
+     * <p>
+     * Inside a {@link UnitOfWork}, the unit's connection is returned instead, so the caller's
+     * statements join its transaction; closing it then has no effect.
      *
-     * @return a Connection object representing the connection to the database
-     * @throws SQLException if a database access error occurs or the URL is null
+     * @return a pooled Connection to the database
+     * @throws SQLException if a database access error occurs or no connection became available in time
      * @see DatabaseConfig#getUrl()
-     * @see DatabaseConfig#getUsername()
-     * @see DatabaseConfig#getPassword()
+     * @see DatabaseConfig#getPoolMaxSize()
+     * @see DatabaseConfig#getPoolBorrowTimeoutMs()
      */
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(
-                DatabaseConfig.getUrl(),
-                DatabaseConfig.getUsername(),
-                DatabaseConfig.getPassword()
-        );
+        Connection shared = UnitOfWork.currentConnection();
+        if (shared != null) {
+            return shared;
+        }
+        return PoolHolder.POOL.borrow();
+    }
+
+    /**
+     * Borrows a connection for read-only queries.
+     * <p>
+     * The connection comes from the replica pool if a replica is configured and this application
+     * has not written within the read-your-writes window; otherwise, or if the replica cannot
+     * be reached, it comes from the primary pool like {@link #getConnection()}. Inside a
+     * {@link UnitOfWork} it is the unit's connection, so reads see the unit's uncommitted changes. It must not be
+     * used for writes, and must be closed to give it back to its pool.
+     *
+     * @return a pooled Connection to the replica or the primary
+     * @throws SQLException if no connection could be obtained from the primary
+     * @see DatabaseConfig#getReplicaUrl()
+     * @see DatabaseConfig#getReadYourWritesWindowMs()
+     */
+    public static Connection getReadConnection() throws SQLException {
+        if (UnitOfWork.isActive() || !DatabaseConfig.hasReplica() || isWithinReadYourWritesWindow()) {
+            return getConnection();
+        }
+        try {
+            return ReplicaHolder.POOL.borrow();
+        } catch (SQLException e) {
+            System.err.println("Replica unavailable, reading from the primary: " + e.getMessage());
+            return getConnection();
+        }
+    }
+
+    /**
+     * Records that this application has just written to the primary, which keeps the following
+     * reads on the primary for the read-your-writes window. The DAOs call this after every
+     * committed write.
+     */
+    public static void recordWrite() {
+        lastWriteNanos = System.nanoTime();
+        written = true;
+    }
+
+    /**
+     * Checks whether the last recorded write is recent enough that reads must stay on the primary.
+     */
+    private static boolean isWithinReadYourWritesWindow() {
+        return written && System.nanoTime() - lastWriteNanos
+                < DatabaseConfig.getReadYourWritesWindowMs() * 1_000_000L;
+    }
+
+    /**
+     * Returns a snapshot of the connection pool's current state for monitoring.
+     *
+     * @return the pool statistics, including active, idle and waiting counts and wait times
+     */
+    public static PoolStats getPoolStats() {
+        return PoolHolder.POOL.stats();
+    }
+
+    /**
+     * Returns a snapshot of the replica pool's current state for monitoring.
+     *
+     * @return the replica pool statistics, or null if no read has used the replica yet
+     */
+    public static PoolStats getReplicaPoolStats() {
+        return replicaStarted ? ReplicaHolder.POOL.stats() : null;
+    }
+
+    /**
+     * Registers a task that must still reach the database when the application shuts down,
+     * such as draining queued writes. Tasks run once, before the pool is closed.
+     *
+     * @param task the task to run during {@link #shutdown()}
+     */
+    public static void addShutdownTask(Runnable task) {
+        synchronized (SHUTDOWN_TASKS) {
+            SHUTDOWN_TASKS.add(task);
+        }
+    }
+
+    /**
+     * Runs the registered shutdown tasks, then closes the connection pools and all idle connections.
+     * <p>
+     * This is also done by a shutdown hook when the JVM exits; calling it explicitly is only
+     * needed when the pool must be released earlier. No connection can be obtained afterwards.
+     */
+    public static void shutdown() {
+        List<Runnable> tasks;
+        synchronized (SHUTDOWN_TASKS) {
+            tasks = new ArrayList<>(SHUTDOWN_TASKS);
+            SHUTDOWN_TASKS.clear();
+        }
+        for (Runnable task : tasks) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                System.err.println("Error running database shutdown task: " + e.getMessage());
+            }
+        }
+        if (replicaStarted) {
+            ReplicaHolder.POOL.close();
+        }
+        PoolHolder.POOL.close();
     }
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.List;
 
 /**
  * Database initialization utility class for creating the required database schema.
@@ -13,14 +14,21 @@ import java.sql.Statement;
  * exist and initializes the table structure for the Notes and ToDo application.
  * <p>
  * The class follows the utility pattern with a private constructor to prevent instantiation.
- * It creates two essential tables:
+ * The schema itself is maintained by versioned migration scripts applied through
+ * {@link SchemaMigrator}; the first of them creates the two essential tables:
  * <ul>
  *     <li>notes - Stores note entries with title and content</li>
  *     <li>todos - Stores task entries with description, end date and completion status</li>
  * </ul>
+ * <p>
+ * Warm starts take a fast path: a single query compares the schema fingerprint stored by the
+ * last successful initialization with the fingerprint of the scripts shipped with the
+ * application, and no DDL runs when they match. The full initialization only runs on first
+ * install or when a release adds a migration.
  *
  * @see DBHelper
  * @see DatabaseConfig
+ * @see SchemaMigrator
  */
 public class DBInitializer {
     /**
@@ -31,40 +39,56 @@ public class DBInitializer {
     private DBInitializer() { throw new IllegalStateException("Utility class"); }
 
     /**
-     * Initializes the database by creating required tables if they don't exist.
+     * Initializes the database and brings its schema up to date.
      * <p>
-     * This method ensures the database exists by calling {@link #createDatabaseIfNotExists()},
-     * then creates the following tables:
+     * The migration scripts are read from the classpath and fingerprinted first. If the database
+     * already records the same fingerprint, the method returns after that one query. Otherwise,
+     * including when the database or the fingerprint table does not exist yet, it runs the full
+     * initialization: for server-based databases it ensures the database exists by calling
+     * {@link #createDatabaseIfNotExists()}; the embedded database is created on first connection.
+     * It then applies every pending migration script for the configured {@link Dialect}
+     * in version order. The migrations create
+     * the following tables and their indexes:
      * <ul>
      *     <li>notes - For storing note entries</li>
      *     <li>todos - For storing task entries</li>
+     *     <li>schema_version - For recording which migrations have been applied</li>
+     *     <li>schema_fingerprint - For recognizing warm starts that need no DDL</li>
      * </ul>
      *
-     * @throws SQLException if any database access errors occur during initialization
+     * @throws SQLException if any database access errors occur during initialization,
+     *                      or if an applied migration script no longer matches its checksum
      */
     public static void initializeDatabase() throws SQLException {
-        createDatabaseIfNotExists();
-        String createNotesTable =  """
-            CREATE TABLE IF NOT EXISTS notes (
-                id INT PRIMARY KEY AUTO_INCREMENT,
-                title VARCHAR(255) NOT NULL,
-                content TEXT
-            );
-        """;
-        String createTasksTable = """
-            CREATE TABLE IF NOT EXISTS todos (
-                id INT PRIMARY KEY AUTO_INCREMENT,
-                description VARCHAR(255) NOT NULL,
-                end_date VARCHAR(255),
-                completed BOOLEAN NOT NULL DEFAULT 0
-            );
-        """;
-        try (Connection conn = DBHelper.getConnection();
-             Statement stmt = conn.createStatement()) {
-            stmt.execute(createNotesTable);
-            stmt.execute(createTasksTable);
+        Dialect dialect = DatabaseConfig.getDialect();
+        List<SchemaMigrator.Migration> migrations = SchemaMigrator.loadMigrations(dialect);
+        long fingerprint = SchemaMigrator.fingerprint(migrations);
+        if (isUpToDate(fingerprint)) {
+            return;
+        }
+        if (dialect.isServerBased()) {
+            createDatabaseIfNotExists();
+        }
+        try (Connection conn = DBHelper.getConnection()) {
+            SchemaMigrator.migrate(conn, migrations);
+        } catch (SQLException e) {
+            throw new SQLException("Issue with migrating the schema and accessing the database", e);
+        }
+    }
+
+    /**
+     * Checks whether the schema was already initialized from the current scripts.
+     * Any failure, such as a database that does not exist yet, means the full
+     * initialization has to run.
+     *
+     * @param fingerprint The fingerprint of the migration scripts on the classpath
+     * @return true if the stored fingerprint matches
+     */
+    private static boolean isUpToDate(long fingerprint) {
+        try (Connection conn = DBHelper.getConnection()) {
+            return SchemaMigrator.isUpToDate(conn, fingerprint);
         } catch (SQLException e) {
-            throw new SQLException("Issue with creating the tables and accessing the database", e);
+            return false;
         }
     }
 
@@ -18,6 +18,57 @@ import java.util.Properties;
  *     <li>jdbc.username - Database username</li>
  *     <li>jdbc.password - Database password</li>
  * </ul>
+ * <p>
+ * Setting db.backend=embedded selects the in-process H2 backend instead of a MySQL/MariaDB
+ * server. In that mode jdbc.url, jdbc.username and jdbc.password are optional and default to
+ * a database file under {@code ~/.notes-todo}. A jdbc.url starting with {@code jdbc:h2:} also
+ * selects the embedded backend.
+ * <p>
+ * The optional key jdbc.batchSize (default 1000) sets how many rows batch writes send to the
+ * server per round trip, and jdbc.streamFetchSize sets the fetch size used by streaming reads
+ * (default {@link Dialect#getStreamingFetchSize()}: {@link Integer#MIN_VALUE} for MySQL, which
+ * enables row-by-row streaming, and 1000 for other drivers).
+ * <p>
+ * The following optional keys tune the connection pool used by {@link DBHelper}.
+ * Missing keys fall back to the defaults shown:
+ * <ul>
+ *     <li>pool.minSize - Connections kept open while idle (default 2)</li>
+ *     <li>pool.maxSize - Upper bound on open connections (default 10)</li>
+ *     <li>pool.borrowTimeoutMs - Maximum wait for a free connection (default 30000)</li>
+ *     <li>pool.idleTimeoutMs - Idle time after which surplus connections are closed (default 600000)</li>
+ *     <li>pool.maxLifetimeMs - Age after which a connection is retired (default 1800000)</li>
+ *     <li>pool.validationTimeoutSeconds - Timeout for the validation check on borrow (default 5)</li>
+ *     <li>pool.validationIntervalMs - Connections used more recently than this skip validation (default 500)</li>
+ *     <li>pool.evictionIntervalMs - Period of the idle eviction sweep (default 30000)</li>
+ *     <li>pool.statementCacheSize - Prepared statements cached per connection, 0 to disable (default 32)</li>
+ * </ul>
+ * <p>
+ * The optional key async.maxConcurrency limits how many asynchronous database operations
+ * run at once (default pool.maxSize); see {@link DatabaseExecutor}.
+ * <p>
+ * Write-behind mode for updates and deletes in the services is configured with:
+ * <ul>
+ *     <li>writeBehind.enabled - Queue updates and deletes instead of writing them immediately (default false)</li>
+ *     <li>writeBehind.flushIntervalMs - Time between periodic flushes (default 1000)</li>
+ *     <li>writeBehind.maxBatchSize - Pending entities that trigger an early flush (default 100)</li>
+ * </ul>
+ * <p>
+ * The services' read-through cache of single entities (see {@link common.EntityCache}) is bounded by:
+ * <ul>
+ *     <li>cache.maxEntries - Maximum number of cached entities per service, 0 to disable (default 1000)</li>
+ *     <li>cache.maxWeight - Maximum total length of the cached entities' text, in characters (default 5000000)</li>
+ * </ul>
+ * <p>
+ * The optional key search.index.enabled (default true) selects the in-memory indexes: BM25 for
+ * note searches and trigrams for ToDo description substring searches; when false, both searches
+ * query the database.
+ * <p>
+ * An optional read-only replica takes the list, sort and search queries off the primary:
+ * <ul>
+ *     <li>replica.url - JDBC URL of the replica; reads use the primary when it is not set</li>
+ *     <li>replica.username, replica.password - Replica credentials (default jdbc.username, jdbc.password)</li>
+ *     <li>replica.readYourWritesMs - Time after a local write during which reads stay on the primary (default 5000)</li>
+ * </ul>
  */
 public class DatabaseConfig {
     /**
@@ -26,6 +77,13 @@ public class DatabaseConfig {
      */
     private static final Properties props = new Properties();
 
+    /**
+     * JDBC URL of the embedded database used when db.backend=embedded and no jdbc.url is set.
+     * MySQL mode keeps the DAOs' SQL and NULL ordering identical across backends.
+     */
+    private static final String DEFAULT_EMBEDDED_URL =
+            "jdbc:h2:file:~/.notes-todo/notes-todo;MODE=MySQL;DATABASE_TO_LOWER=TRUE";
+
     /**
      * Static initializer that loads the database properties when the class is loaded.
      * Throws ExceptionInInitializerError if the properties file cannot be loaded,
@@ -48,7 +106,11 @@ public class DatabaseConfig {
      * @return the JDBC URL string for database connection
      */
     public static String getUrl() {
-        return props.getProperty("jdbc.url");
+        String url = props.getProperty("jdbc.url");
+        if ((url == null || url.isBlank()) && isEmbeddedBackendSelected()) {
+            return DEFAULT_EMBEDDED_URL;
+        }
+        return url;
     }
 
     /**
@@ -57,7 +119,7 @@ public class DatabaseConfig {
      * @return the username for database authentication
      */
     public static String getUsername() {
-        return props.getProperty("jdbc.username");
+        return props.getProperty("jdbc.username", isEmbeddedBackendSelected() ? "sa" : null);
     }
 
     /**
@@ -66,6 +128,309 @@ public class DatabaseConfig {
      * @return the password for database authentication
      */
     public static String getPassword() {
-        return props.getProperty("jdbc.password");
+        return props.getProperty("jdbc.password", isEmbeddedBackendSelected() ? "" : null);
+    }
+
+    /**
+     * Determines which database product the configured URL points to.
+     *
+     * @return the dialect of the configured database
+     * @throws IllegalArgumentException if the URL is missing or belongs to an unsupported database
+     */
+    public static Dialect getDialect() {
+        return Dialect.fromUrl(getUrl());
+    }
+
+    /**
+     * Checks whether db.backend selects the embedded, in-process database.
+     *
+     * @return true if db.backend is set to "embedded"
+     */
+    private static boolean isEmbeddedBackendSelected() {
+        return "embedded".equalsIgnoreCase(props.getProperty("db.backend", "").trim());
+    }
+
+    /**
+     * Retrieves the number of rows sent to the server per {@code executeBatch()} call
+     * by the DAOs' batch write methods.
+     *
+     * @return the batch size, at least 1
+     */
+    public static int getBatchSize() {
+        return Math.max(1, getInt("jdbc.batchSize", 1000));
+    }
+
+    /**
+     * Retrieves the fetch size used by the DAOs' streaming reads.
+     * <p>
+     * MySQL Connector/J only streams rows when the fetch size is {@link Integer#MIN_VALUE}
+     * (unless {@code useCursorFetch=true} is set on the URL), so that is the default for
+     * {@code jdbc:mysql:} URLs. MariaDB and other drivers stream with a positive fetch size.
+     *
+     * @return the configured fetch size, or the driver-appropriate default
+     * @see Dialect#getStreamingFetchSize()
+     */
+    public static int getStreamFetchSize() {
+        return getInt("jdbc.streamFetchSize", getDialect().getStreamingFetchSize());
+    }
+
+    /**
+     * Retrieves the minimum number of idle connections the pool keeps open.
+     *
+     * @return the minimum pool size, never negative
+     */
+    public static int getPoolMinSize() {
+        return Math.max(0, getInt("pool.minSize", 2));
+    }
+
+    /**
+     * Retrieves the maximum number of connections the pool may open at once.
+     *
+     * @return the maximum pool size, at least 1 and never below the minimum size
+     */
+    public static int getPoolMaxSize() {
+        return Math.max(Math.max(1, getPoolMinSize()), getInt("pool.maxSize", 10));
+    }
+
+    /**
+     * Retrieves how long a caller may wait for a free pooled connection.
+     *
+     * @return the borrow timeout in milliseconds
+     */
+    public static long getPoolBorrowTimeoutMs() {
+        return getLong("pool.borrowTimeoutMs", 30_000L);
+    }
+
+    /**
+     * Retrieves how long a surplus connection may stay idle before it is closed.
+     *
+     * @return the idle timeout in milliseconds
+     */
+    public static long getPoolIdleTimeoutMs() {
+        return getLong("pool.idleTimeoutMs", 600_000L);
+    }
+
+    /**
+     * Retrieves the maximum age of a pooled connection before it is retired.
+     *
+     * @return the maximum connection lifetime in milliseconds
+     */
+    public static long getPoolMaxLifetimeMs() {
+        return getLong("pool.maxLifetimeMs", 1_800_000L);
+    }
+
+    /**
+     * Retrieves the timeout passed to {@link java.sql.Connection#isValid(int)} when
+     * a connection is validated on borrow.
+     *
+     * @return the validation timeout in seconds
+     */
+    public static int getPoolValidationTimeoutSeconds() {
+        return getInt("pool.validationTimeoutSeconds", 5);
+    }
+
+    /**
+     * Retrieves the window during which a recently returned connection is trusted
+     * without validation.
+     *
+     * @return the validation skip interval in milliseconds
+     */
+    public static long getPoolValidationIntervalMs() {
+        return getLong("pool.validationIntervalMs", 500L);
+    }
+
+    /**
+     * Retrieves the period of the pool's idle eviction sweep.
+     *
+     * @return the eviction interval in milliseconds
+     */
+    public static long getPoolEvictionIntervalMs() {
+        return getLong("pool.evictionIntervalMs", 30_000L);
+    }
+
+    /**
+     * Retrieves how many prepared statements each pooled connection keeps cached.
+     *
+     * @return the per-connection statement cache size, 0 when caching is disabled
+     */
+    public static int getStatementCacheSize() {
+        return Math.max(0, getInt("pool.statementCacheSize", 32));
+    }
+
+    /**
+     * Retrieves the maximum number of asynchronous database operations that run at once.
+     * Defaults to the pool's maximum size, so queued operations wait for a permit instead
+     * of timing out while waiting for a connection.
+     *
+     * @return the concurrency limit for {@link DatabaseExecutor}, at least 1
+     */
+    public static int getAsyncMaxConcurrency() {
+        return Math.max(1, getInt("async.maxConcurrency", getPoolMaxSize()));
+    }
+
+    /**
+     * Checks whether the services should queue updates and deletes in a write-behind queue.
+     *
+     * @return true if writeBehind.enabled is set to "true"
+     */
+    public static boolean isWriteBehindEnabled() {
+        return Boolean.parseBoolean(props.getProperty("writeBehind.enabled", "false").trim());
+    }
+
+    /**
+     * Retrieves the time between periodic flushes of the write-behind queues.
+     *
+     * @return the flush interval in milliseconds, at least 1
+     */
+    public static long getWriteBehindFlushIntervalMs() {
+        return Math.max(1, getLong("writeBehind.flushIntervalMs", 1000));
+    }
+
+    /**
+     * Retrieves the number of pending entities that makes a write-behind queue flush early.
+     *
+     * @return the flush threshold, at least 1
+     */
+    public static int getWriteBehindMaxBatchSize() {
+        return Math.max(1, getInt("writeBehind.maxBatchSize", 100));
+    }
+
+    /**
+     * Retrieves the maximum number of entities each service keeps in its entity cache.
+     *
+     * @return the entry limit, 0 if the cache is disabled
+     */
+    public static int getEntityCacheMaxEntries() {
+        return Math.max(0, getInt("cache.maxEntries", 1000));
+    }
+
+    /**
+     * Retrieves the maximum total weight of the entities in each service's entity cache,
+     * measured in characters of text.
+     *
+     * @return the weight limit, never negative
+     */
+    public static long getEntityCacheMaxWeight() {
+        return Math.max(0, getLong("cache.maxWeight", 5_000_000));
+    }
+
+    /**
+     * Checks whether note searches and ToDo description searches use the in-memory indexes
+     * instead of the database.
+     *
+     * @return false only if search.index.enabled is set to "false"
+     */
+    public static boolean isSearchIndexEnabled() {
+        return Boolean.parseBoolean(props.getProperty("search.index.enabled", "true").trim());
+    }
+
+    /**
+     * Retrieves the JDBC URL of the read-only replica.
+     *
+     * @return the replica URL, or null if no replica is configured
+     */
+    public static String getReplicaUrl() {
+        String url = props.getProperty("replica.url");
+        return url == null || url.isBlank() ? null : url.trim();
+    }
+
+    /**
+     * Checks whether a read-only replica is configured.
+     *
+     * @return true if replica.url is set
+     */
+    public static boolean hasReplica() {
+        return getReplicaUrl() != null;
+    }
+
+    /**
+     * Retrieves the username for the read-only replica.
+     *
+     * @return replica.username, or the primary's username if it is not set
+     */
+    public static String getReplicaUsername() {
+        return props.getProperty("replica.username", getUsername());
+    }
+
+    /**
+     * Retrieves the password for the read-only replica.
+     *
+     * @return replica.password, or the primary's password if it is not set
+     */
+    public static String getReplicaPassword() {
+        return props.getProperty("replica.password", getPassword());
+    }
+
+    /**
+     * Retrieves how long reads keep going to the primary after this application wrote to it,
+     * so that users see their own changes even while the replica is catching up.
+     *
+     * @return the read-your-writes window in milliseconds, never negative
+     */
+    public static long getReadYourWritesWindowMs() {
+        return Math.max(0, getLong("replica.readYourWritesMs", 5000));
+    }
+
+    /**
+     * Retrieves how far before its watermark a delta refresh starts reading changes.
+     * Rows are stamped when their transaction writes them, not when it commits, so a slow
+     * transaction can commit rows stamped before a watermark that was already handed out;
+     * the overlap re-reads that window to pick them up.
+     *
+     * @return the overlap in milliseconds, never negative
+     */
+    public static long getDeltaOverlapMs() {
+        return Math.max(0, getLong("delta.overlapMs", 5000));
+    }
+
+    /**
+     * Retrieves how long the tombstones of deleted rows are kept before they are pruned.
+     * A client whose last delta refresh is older than this reloads its list instead,
+     * since the tombstones it would need may be gone.
+     *
+     * @return the retention in milliseconds, 0 to keep tombstones forever (default 7 days)
+     */
+    public static long getTombstoneRetentionMs() {
+        return Math.max(0, getLong("delta.tombstoneRetentionMs", 7L * 24 * 60 * 60 * 1000));
+    }
+
+    /**
+     * Reads an integer property, falling back to a default when the key is missing or malformed.
+     *
+     * @param key the property key
+     * @param defaultValue the value to use when the key is absent or not a number
+     * @return the configured value or the default
+     */
+    private static int getInt(String key, int defaultValue) {
+        String value = props.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Reads a long property, falling back to a default when the key is missing or malformed.
+     *
+     * @param key the property key
+     * @param defaultValue the value to use when the key is absent or not a number
+     * @return the configured value or the default
+     */
+    private static long getLong(String key, long defaultValue) {
+        String value = props.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ": " + value);
+            return defaultValue;
+        }
     }
 }
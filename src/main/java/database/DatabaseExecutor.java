@@ -0,0 +1,88 @@
+package database;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Utility class that runs blocking database work asynchronously on virtual threads.
+ * <p>
+ * Every task gets its own virtual thread, so callers can start many independent operations
+ * without sizing a thread pool. Concurrency toward the database is bounded separately by a
+ * fair semaphore with {@link DatabaseConfig#getAsyncMaxConcurrency()} permits (by default the
+ * connection pool's maximum size): excess tasks park cheaply on the semaphore in submission
+ * order instead of piling up on the pool and failing with a borrow timeout.
+ * <p>
+ * The asynchronous methods of {@link common.interfaces.DatabaseManagement} and
+ * {@link common.interfaces.Services} are built on this class. Results complete on the
+ * virtual thread that ran the task; Swing callers should hop back to the event dispatch
+ * thread before touching components:
+ * <pre>
+ * service.refreshAsync().thenRunAsync(this::updateListModel, SwingUtilities::invokeLater);
+ * </pre>
+ *
+ * @see DatabaseConfig#getAsyncMaxConcurrency()
+ */
+public final class DatabaseExecutor {
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     *
+     * @throws IllegalStateException if an attempt is made to instantiate this class
+     */
+    private DatabaseExecutor() { throw new IllegalStateException("Utility class"); }
+
+    /**
+     * Lazily created executor and permits, so that loading this class does not read the configuration.
+     */
+    private static final class Holder {
+        static final ExecutorService EXECUTOR =
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("db-async-", 0).factory());
+        static final Semaphore PERMITS = new Semaphore(DatabaseConfig.getAsyncMaxConcurrency(), true);
+    }
+
+    /**
+     * Runs a task that produces a result on a virtual thread.
+     *
+     * @param task The blocking database work
+     * @param <T> The result type
+     * @return A future completed with the task's result, or exceptionally with what it threw
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                Holder.PERMITS.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+            try {
+                return task.get();
+            } finally {
+                Holder.PERMITS.release();
+            }
+        }, Holder.EXECUTOR);
+    }
+
+    /**
+     * Runs a task without a result on a virtual thread.
+     *
+     * @param task The blocking database work
+     * @return A future completed when the task finishes, or exceptionally with what it threw
+     */
+    public static CompletableFuture<Void> runAsync(Runnable task) {
+        return supplyAsync(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * @return The number of asynchronous tasks currently waiting for a permit
+     */
+    public static int getQueuedTaskCount() {
+        return Holder.PERMITS.getQueueLength();
+    }
+}
@@ -0,0 +1,88 @@
+package database;
+
+/**
+ * The database products the application can run against, derived from the JDBC URL.
+ * <p>
+ * The DAOs use SQL that is common to all supported products (H2 runs in MySQL compatibility
+ * mode), so the dialect only decides the few things that genuinely differ: where the
+ * migration scripts live, whether the database has to be created on a server first,
+ * which fetch size makes the driver stream rows, and whether FULLTEXT search is available.
+ *
+ * @see DatabaseConfig#getDialect()
+ */
+public enum Dialect {
+    /** MySQL server accessed through MySQL Connector/J. */
+    MYSQL("mysql", true, Integer.MIN_VALUE, true),
+
+    /** MariaDB server accessed through MariaDB Connector/J; shares the MySQL scripts. */
+    MARIADB("mysql", true, 1000, true),
+
+    /** Embedded, in-process H2 database; no server or network round trips involved. */
+    H2("h2", false, 1000, false);
+
+    private final String scriptDirectory;
+    private final boolean serverBased;
+    private final int streamingFetchSize;
+    private final boolean fullTextSearch;
+
+    Dialect(String scriptDirectory, boolean serverBased, int streamingFetchSize, boolean fullTextSearch) {
+        this.scriptDirectory = scriptDirectory;
+        this.serverBased = serverBased;
+        this.streamingFetchSize = streamingFetchSize;
+        this.fullTextSearch = fullTextSearch;
+    }
+
+    /**
+     * Determines the dialect of a JDBC URL.
+     *
+     * @param url The JDBC URL, e.g. {@code jdbc:mysql://host/db} or {@code jdbc:h2:file:~/notes}
+     * @return The matching dialect
+     * @throws IllegalArgumentException if the URL is null or belongs to an unsupported database
+     */
+    public static Dialect fromUrl(String url) {
+        if (url != null) {
+            if (url.startsWith("jdbc:mysql:")) {
+                return MYSQL;
+            }
+            if (url.startsWith("jdbc:mariadb:")) {
+                return MARIADB;
+            }
+            if (url.startsWith("jdbc:h2:")) {
+                return H2;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported JDBC URL: " + url);
+    }
+
+    /**
+     * @return The name of the subdirectory of {@code db/migration} holding this dialect's scripts
+     */
+    public String getScriptDirectory() {
+        return scriptDirectory;
+    }
+
+    /**
+     * @return true if the database lives on a server where it may have to be created first,
+     *         false for embedded databases that are created on first connection
+     */
+    public boolean isServerBased() {
+        return serverBased;
+    }
+
+    /**
+     * @return The fetch size that makes this dialect's driver stream rows instead of
+     *         buffering the whole result
+     */
+    public int getStreamingFetchSize() {
+        return streamingFetchSize;
+    }
+
+    /**
+     * @return true if the schema has FULLTEXT indexes and searches can use
+     *         {@code MATCH ... AGAINST}, false if they fall back to {@code LIKE}
+     * @see FullTextSearch
+     */
+    public boolean supportsFullTextSearch() {
+        return fullTextSearch;
+    }
+}
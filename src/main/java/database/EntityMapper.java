@@ -0,0 +1,155 @@
+package database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Precompiled mapping from the rows of a query to one type of entity, shared by every DAO
+ * method that reads that type.
+ * <p>
+ * A mapper is created once per entity shape, usually as a constant of the DAO, from the names
+ * of the columns it reads and a {@link Builder} that reads them by position. For each result set,
+ * {@link #bind(ResultSet)} looks the columns up in the result's metadata once and returns a
+ * {@link RowMapper} that reads every row by index, so rows are mapped without per-row column
+ * name lookups. A column missing from the result fails when the result set is bound, before
+ * any row is read, instead of on the first row.
+ * <pre>
+ * static final EntityMapper&lt;Notes&gt; SUMMARY = EntityMapper.of(
+ *         (rs, col) -&gt; Notes.summary(rs.getInt(col[0]), rs.getString(col[1])),
+ *         "id", "title");
+ *
+ * List&lt;Notes&gt; notes = SUMMARY.query("SELECT id, title FROM notes", stmt -&gt; { });
+ * </pre>
+ *
+ * @param <T> The type of entity produced for each row
+ *
+ * @see RowMapper
+ * @see ResultSetStreams#stream(String, int, EntityMapper)
+ */
+public final class EntityMapper<T> {
+    private final String[] columns;
+    private final Builder<T> builder;
+
+    /**
+     * Builds an entity from the current row, reading the mapper's columns by position.
+     *
+     * @param <T> The type of entity built
+     */
+    @FunctionalInterface
+    public interface Builder<T> {
+        /**
+         * @param rs The result set, positioned on a valid row
+         * @param columns The 1-based index of each of the mapper's columns, in declaration order
+         * @return The mapped entity, never null
+         * @throws SQLException if a column cannot be read
+         */
+        T build(ResultSet rs, int[] columns) throws SQLException;
+    }
+
+    /**
+     * Binds the parameters of a prepared query.
+     */
+    @FunctionalInterface
+    public interface ParameterBinder {
+        void bind(PreparedStatement stmt) throws SQLException;
+    }
+
+    private EntityMapper(Builder<T> builder, String[] columns) {
+        this.builder = builder;
+        this.columns = columns.clone();
+    }
+
+    /**
+     * Creates a mapper reading the given columns.
+     *
+     * @param builder Builds an entity; entry {@code i} of the index array it receives is the position of {@code columns[i]}
+     * @param columns The names or labels of the columns the builder reads, case-insensitive
+     * @param <T> The type of entity produced for each row
+     * @return The mapper
+     */
+    public static <T> EntityMapper<T> of(Builder<T> builder, String... columns) {
+        return new EntityMapper<>(builder, columns);
+    }
+
+    /**
+     * Resolves the mapper's columns in a result set and returns a row mapper for that result set.
+     *
+     * @param rs The result set about to be read
+     * @return A row mapper that reads the columns by index; only valid for {@code rs}
+     * @throws SQLException if a column is missing from the result set
+     */
+    public RowMapper<T> bind(ResultSet rs) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        int count = metaData.getColumnCount();
+        int[] positions = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            positions[i] = indexOf(metaData, count, columns[i]);
+        }
+        return row -> builder.build(row, positions);
+    }
+
+    /**
+     * Maps every remaining row of a result set.
+     *
+     * @param rs The result set, positioned before its first row to be read
+     * @return The entities in result order, empty list if none, never null
+     * @throws SQLException if a column is missing or cannot be read
+     */
+    public List<T> mapAll(ResultSet rs) throws SQLException {
+        RowMapper<T> mapper = bind(rs);
+        List<T> items = new ArrayList<>();
+        while (rs.next()) {
+            items.add(mapper.map(rs));
+        }
+        return items;
+    }
+
+    /**
+     * Runs a query on the given connection and maps every row.
+     *
+     * @param conn The connection to use; it is not closed
+     * @param sql The query to execute
+     * @param binder Binds the query's parameters
+     * @return The entities in result order, never null
+     * @throws SQLException if the query fails or a column is missing
+     */
+    public List<T> query(Connection conn, String sql, ParameterBinder binder) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            binder.bind(stmt);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return mapAll(rs);
+            }
+        }
+    }
+
+    /**
+     * Runs a read-only query on a connection from {@link DBHelper#getReadConnection()} and maps every row.
+     *
+     * @param sql The query to execute
+     * @param binder Binds the query's parameters
+     * @return The entities in result order, never null
+     * @throws SQLException if the query fails or a column is missing
+     */
+    public List<T> query(String sql, ParameterBinder binder) throws SQLException {
+        try (Connection conn = DBHelper.getReadConnection()) {
+            return query(conn, sql, binder);
+        }
+    }
+
+    /**
+     * Finds the 1-based index of a column by label, ignoring case.
+     */
+    private static int indexOf(ResultSetMetaData metaData, int count, String column) throws SQLException {
+        for (int i = 1; i <= count; i++) {
+            if (column.equalsIgnoreCase(metaData.getColumnLabel(i))) {
+                return i;
+            }
+        }
+        throw new SQLException("Column " + column + " is not in the result set");
+    }
+}
@@ -0,0 +1,76 @@
+package database;
+
+import java.util.Locale;
+
+/**
+ * Utility class that turns user-entered search text into query parameters for the DAOs'
+ * ranked search.
+ * <p>
+ * On MySQL and MariaDB, search runs against FULLTEXT indexes with
+ * {@code MATCH ... AGAINST (? IN BOOLEAN MODE)}. {@link #toBooleanQuery(String)} builds the
+ * boolean-mode expression: every word is required and matched as a prefix, so the results
+ * narrow as the user types. Boolean operators typed by the user are stripped rather than
+ * interpreted.
+ * <p>
+ * The embedded H2 backend has no FULLTEXT index, so the DAOs fall back to a case-insensitive
+ * {@code LIKE} scan using {@link #toLikePattern(String)}. Embedded databases are local and
+ * small, so the scan stays fast enough there.
+ *
+ * @see Dialect#supportsFullTextSearch()
+ */
+public final class FullTextSearch {
+    /** Characters with a special meaning in MySQL boolean-mode full-text queries. */
+    private static final String BOOLEAN_OPERATORS = "+-<>()~*\"@";
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     *
+     * @throws IllegalStateException if an attempt is made to instantiate this class
+     */
+    private FullTextSearch() { throw new IllegalStateException("Utility class"); }
+
+    /**
+     * Builds a MySQL boolean-mode query requiring every word of the text as a prefix,
+     * e.g. {@code "meeting notes"} becomes {@code "+meeting* +notes*"}.
+     *
+     * @param text The text entered by the user, may be null
+     * @return The boolean-mode query, or an empty string if the text contains no words
+     */
+    public static String toBooleanQuery(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder cleaned = new StringBuilder(text.length());
+        for (char c : text.toCharArray()) {
+            cleaned.append(BOOLEAN_OPERATORS.indexOf(c) >= 0 ? ' ' : c);
+        }
+        StringBuilder query = new StringBuilder();
+        for (String word : cleaned.toString().trim().split("\\s+")) {
+            if (!word.isEmpty()) {
+                if (!query.isEmpty()) {
+                    query.append(' ');
+                }
+                query.append('+').append(word).append('*');
+            }
+        }
+        return query.toString();
+    }
+
+    /**
+     * Builds a lower-case {@code LIKE} pattern matching the whole text anywhere in a column,
+     * escaping the wildcard characters {@code %} and {@code _}.
+     *
+     * @param text The text entered by the user, may be null
+     * @return The pattern, or an empty string if the text is blank
+     */
+    public static String toLikePattern(String text) {
+        if (text == null || text.isBlank()) {
+            return "";
+        }
+        String escaped = text.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+}
@@ -0,0 +1,145 @@
+package database;
+
+/**
+ * Immutable snapshot of the connection pool's state, intended for monitoring and logging.
+ * <p>
+ * A snapshot is taken by {@link DBHelper#getPoolStats()}. Counters are cumulative since the
+ * pool was created, while the gauges (total, active, idle, waiting) reflect the moment the
+ * snapshot was taken.
+ *
+ * @see DBHelper#getPoolStats()
+ * @see ConnectionPool
+ */
+public final class PoolStats {
+    private final int totalConnections;
+    private final int activeConnections;
+    private final int idleConnections;
+    private final int waitingThreads;
+    private final long borrowCount;
+    private final long waitCount;
+    private final long timeoutCount;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+    private final long statementCacheHits;
+    private final long statementCacheMisses;
+    private final long statementCacheEvictions;
+
+    PoolStats(int totalConnections, int activeConnections, int idleConnections, int waitingThreads,
+              long borrowCount, long waitCount, long timeoutCount, long totalWaitNanos, long maxWaitNanos,
+              long statementCacheHits, long statementCacheMisses, long statementCacheEvictions) {
+        this.totalConnections = totalConnections;
+        this.activeConnections = activeConnections;
+        this.idleConnections = idleConnections;
+        this.waitingThreads = waitingThreads;
+        this.borrowCount = borrowCount;
+        this.waitCount = waitCount;
+        this.timeoutCount = timeoutCount;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+        this.statementCacheHits = statementCacheHits;
+        this.statementCacheMisses = statementCacheMisses;
+        this.statementCacheEvictions = statementCacheEvictions;
+    }
+
+    /**
+     * @return the number of physical connections currently open, including ones being created
+     */
+    public int getTotalConnections() {
+        return totalConnections;
+    }
+
+    /**
+     * @return the number of connections currently borrowed by callers
+     */
+    public int getActiveConnections() {
+        return activeConnections;
+    }
+
+    /**
+     * @return the number of open connections waiting in the pool
+     */
+    public int getIdleConnections() {
+        return idleConnections;
+    }
+
+    /**
+     * @return the number of threads currently blocked waiting for a connection
+     */
+    public int getWaitingThreads() {
+        return waitingThreads;
+    }
+
+    /**
+     * @return the number of successful borrows since the pool was created
+     */
+    public long getBorrowCount() {
+        return borrowCount;
+    }
+
+    /**
+     * @return the number of borrows that had to wait because the pool was exhausted
+     */
+    public long getWaitCount() {
+        return waitCount;
+    }
+
+    /**
+     * @return the number of borrows that failed because the borrow timeout elapsed
+     */
+    public long getTimeoutCount() {
+        return timeoutCount;
+    }
+
+    /**
+     * @return the average time a borrow spent waiting for a connection, in milliseconds
+     */
+    public double getAverageWaitMillis() {
+        return borrowCount == 0 ? 0.0 : totalWaitNanos / 1_000_000.0 / borrowCount;
+    }
+
+    /**
+     * @return the longest time a single borrow spent waiting for a connection, in milliseconds
+     */
+    public double getMaxWaitMillis() {
+        return maxWaitNanos / 1_000_000.0;
+    }
+
+    /**
+     * @return the number of prepared statements served from a connection's statement cache
+     */
+    public long getStatementCacheHits() {
+        return statementCacheHits;
+    }
+
+    /**
+     * @return the number of prepared statements that had to be prepared on the server
+     */
+    public long getStatementCacheMisses() {
+        return statementCacheMisses;
+    }
+
+    /**
+     * @return the number of cached statements closed to make room for others
+     */
+    public long getStatementCacheEvictions() {
+        return statementCacheEvictions;
+    }
+
+    /**
+     * @return the fraction of prepared statements served from the cache, between 0 and 1
+     */
+    public double getStatementCacheHitRatio() {
+        long requests = statementCacheHits + statementCacheMisses;
+        return requests == 0 ? 0.0 : (double) statementCacheHits / requests;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "PoolStats[total=%d, active=%d, idle=%d, waiting=%d, borrows=%d, waits=%d, timeouts=%d, avgWait=%.3fms, maxWait=%.3fms, "
+                        + "stmtHits=%d, stmtMisses=%d, stmtEvictions=%d]",
+                totalConnections, activeConnections, idleConnections, waitingThreads,
+                borrowCount, waitCount, timeoutCount, getAverageWaitMillis(), getMaxWaitMillis(),
+                statementCacheHits, statementCacheMisses, statementCacheEvictions);
+    }
+}
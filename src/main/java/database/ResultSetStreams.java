@@ -0,0 +1,132 @@
+package database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Utility class that exposes a query's result set as a lazily evaluated {@link Stream}.
+ * <p>
+ * Rows are mapped one at a time as the stream is consumed, so only the driver's fetch
+ * buffer is held in memory, no matter how many rows the query returns. The statement is
+ * created forward-only and read-only with the requested fetch size, which lets MySQL
+ * (fetch size {@link Integer#MIN_VALUE}) and MariaDB (any positive fetch size) stream rows
+ * from the server instead of buffering the whole result.
+ * <p>
+ * The returned stream owns a pooled connection until it is closed, so it must always be
+ * used in a try-with-resources block:
+ * <pre>
+ * try (Stream&lt;Notes&gt; notes = repository.stream()) {
+ *     notes.forEach(exporter::write);
+ * }
+ * </pre>
+ *
+ * @see RowMapper
+ * @see DatabaseConfig#getStreamFetchSize()
+ */
+public class ResultSetStreams {
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     *
+     * @throws IllegalStateException if an attempt is made to instantiate this class
+     */
+    private ResultSetStreams() { throw new IllegalStateException("Utility class"); }
+
+    /**
+     * Runs a query and returns its rows as a sequential stream.
+     *
+     * @param sql The query to run, without parameters
+     * @param fetchSize The fetch size hint passed to the driver; 0 leaves the driver default
+     * @param mapper Maps each row to an entity
+     * @param <T> The entity type
+     * @return A stream of mapped rows that releases the connection when closed
+     * @throws SQLException if the query cannot be started; nothing is left open in that case
+     */
+    public static <T> Stream<T> stream(String sql, int fetchSize, RowMapper<T> mapper) throws SQLException {
+        return open(sql, fetchSize, rs -> mapper);
+    }
+
+    /**
+     * Runs a query and returns its rows as a sequential stream, mapped by an {@link EntityMapper}
+     * whose columns are resolved once, before the first row is read.
+     *
+     * @param sql The query to run, without parameters
+     * @param fetchSize The fetch size hint passed to the driver; 0 leaves the driver default
+     * @param mapper Maps each row to an entity
+     * @param <T> The entity type
+     * @return A stream of mapped rows that releases the connection when closed
+     * @throws SQLException if the query cannot be started or a mapped column is missing;
+     *                      nothing is left open in that case
+     */
+    public static <T> Stream<T> stream(String sql, int fetchSize, EntityMapper<T> mapper) throws SQLException {
+        return open(sql, fetchSize, mapper::bind);
+    }
+
+    /**
+     * Starts the query and wraps its result set in a stream using the row mapper bound to it.
+     */
+    private static <T> Stream<T> open(String sql, int fetchSize, MapperBinding<T> binding) throws SQLException {
+        Connection conn = DBHelper.getReadConnection();
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        RowMapper<T> mapper;
+        try {
+            stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(fetchSize);
+            rs = stmt.executeQuery();
+            mapper = binding.bind(rs);
+        } catch (SQLException | RuntimeException e) {
+            closeAll(rs, stmt, conn);
+            throw e;
+        }
+        ResultSet results = rs;
+        PreparedStatement statement = stmt;
+        Spliterator<T> rows = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    if (!results.next()) {
+                        return false;
+                    }
+                    action.accept(mapper.map(results));
+                    return true;
+                } catch (SQLException e) {
+                    throw new RuntimeException("Error reading streamed rows: " + e.getMessage(), e);
+                }
+            }
+        };
+        return StreamSupport.stream(rows, false).onClose(() -> closeAll(results, statement, conn));
+    }
+
+    /**
+     * Returns the row mapper to use for a result set.
+     */
+    @FunctionalInterface
+    private interface MapperBinding<T> {
+        RowMapper<T> bind(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Closes the result set, statement and connection, in that order, ignoring nulls and
+     * reporting (but not propagating) failures so that every resource gets closed.
+     */
+    private static void closeAll(AutoCloseable... resources) {
+        for (AutoCloseable resource : resources) {
+            if (resource == null) {
+                continue;
+            }
+            try {
+                resource.close();
+            } catch (Exception e) {
+                System.err.println("Error closing streamed query resource: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a {@link ResultSet} to an entity.
+ * <p>
+ * Implementations must only read the current row and must not move the cursor.
+ *
+ * @param <T> The type of entity produced for each row
+ *
+ * @see ResultSetStreams
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    /**
+     * Creates an entity from the row the result set is currently positioned on.
+     *
+     * @param rs The result set, positioned on a valid row
+     * @return The mapped entity, never null
+     * @throws SQLException if a column cannot be read
+     */
+    T map(ResultSet rs) throws SQLException;
+}
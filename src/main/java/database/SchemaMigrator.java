@@ -0,0 +1,300 @@
+package database;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Applies versioned schema migration scripts and records them in a {@code schema_version} table.
+ * <p>
+ * Migrations are SQL scripts on the classpath under {@value #MIGRATION_DIRECTORY}, in one
+ * subdirectory per {@link Dialect} (see {@link Dialect#getScriptDirectory()}), since DDL differs
+ * between MySQL and the embedded H2 backend. The file {@code index.txt} in that directory lists
+ * them in the order they must run; each script is named {@code V<version>__<description>.sql}.
+ * Statements inside a script are separated by a semicolon at the end of a line, and lines
+ * starting with {@code --} are comments.
+ * <p>
+ * For every migration the migrator stores the version, description, a CRC32 checksum of the
+ * script and the time it took to apply. On each run:
+ * <ul>
+ *     <li>Already applied migrations are verified against their stored checksum; a mismatch
+ *         means a released script was edited and stops the migration</li>
+ *     <li>Pending migrations are applied in version order and recorded one at a time, so a
+ *         failed run resumes at the failed script</li>
+ * </ul>
+ * Most DDL statements commit implicitly in MySQL, so a migration is not atomic; scripts should
+ * be written so that they can be re-run after a partial failure where possible.
+ * <p>
+ * After a successful run the migrator stores a {@link #fingerprint(List) fingerprint} of all
+ * scripts in the single-row {@value #FINGERPRINT_TABLE} table. On later starts
+ * {@link #isUpToDate(Connection, long)} compares it with the fingerprint of the scripts on the
+ * classpath in one query, so a warm start with unchanged scripts skips all DDL and the
+ * per-migration checks. Adding or editing a script changes the fingerprint and triggers a full run.
+ *
+ * @see DBInitializer
+ */
+final class SchemaMigrator {
+    /** Classpath directory containing one directory of migration scripts per dialect. */
+    static final String MIGRATION_DIRECTORY = "db/migration";
+
+    /** Table holding the fingerprint of the scripts applied by the last successful run. */
+    static final String FINGERPRINT_TABLE = "schema_fingerprint";
+
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final Pattern STATEMENT_END = Pattern.compile(";\\s*$", Pattern.MULTILINE);
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     *
+     * @throws IllegalStateException if an attempt is made to instantiate this class
+     */
+    private SchemaMigrator() { throw new IllegalStateException("Utility class"); }
+
+    /**
+     * Brings the schema up to date by applying every pending migration.
+     *
+     * @param conn A connection to the application database
+     * @param dialect The dialect whose scripts should be applied
+     * @return The number of migrations that were applied
+     * @throws SQLException if a script fails, a checksum does not match, or the scripts cannot be read
+     */
+    static int migrate(Connection conn, Dialect dialect) throws SQLException {
+        return migrate(conn, loadMigrations(dialect));
+    }
+
+    /**
+     * Brings the schema up to date by applying every pending migration of an already loaded list,
+     * then records the list's fingerprint.
+     *
+     * @param conn A connection to the application database
+     * @param migrations The migrations from {@link #loadMigrations(Dialect)}
+     * @return The number of migrations that were applied
+     * @throws SQLException if a script fails or a checksum does not match
+     */
+    static int migrate(Connection conn, List<Migration> migrations) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS schema_version (
+                    version INT PRIMARY KEY,
+                    description VARCHAR(200) NOT NULL,
+                    checksum BIGINT NOT NULL,
+                    installed_on TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                    execution_ms INT NOT NULL
+                )
+            """);
+        }
+
+        Map<Integer, Long> applied = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM schema_version")) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getLong("checksum"));
+            }
+        }
+
+        int count = 0;
+        for (Migration migration : migrations) {
+            Long checksum = applied.get(migration.version);
+            if (checksum != null) {
+                if (checksum != migration.checksum) {
+                    throw new SQLException("Checksum mismatch for migration V" + migration.version
+                            + " (" + migration.description + "): the script was changed after it was applied");
+                }
+                continue;
+            }
+            apply(conn, migration);
+            count++;
+        }
+        recordFingerprint(conn, fingerprint(migrations));
+        return count;
+    }
+
+    /**
+     * Computes a fingerprint of a list of migrations from their versions and checksums.
+     * It changes whenever a script is added, removed, reordered or edited.
+     *
+     * @param migrations The migrations from {@link #loadMigrations(Dialect)}
+     * @return The CRC32 of every migration's version and checksum, in order
+     */
+    static long fingerprint(List<Migration> migrations) {
+        CRC32 crc = new CRC32();
+        for (Migration migration : migrations) {
+            crc.update((migration.version + ":" + migration.checksum + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Checks in a single query whether the last successful run applied exactly the given scripts.
+     * A missing fingerprint table, e.g. on a first install, counts as out of date.
+     *
+     * @param conn A connection to the application database
+     * @param fingerprint The fingerprint of the scripts on the classpath
+     * @return true if the stored fingerprint matches and no DDL needs to run
+     */
+    static boolean isUpToDate(Connection conn, long fingerprint) {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT fingerprint FROM " + FINGERPRINT_TABLE + " WHERE id = 1")) {
+            return rs.next() && rs.getLong(1) == fingerprint;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Stores the fingerprint of a successful run, creating the table on first use.
+     */
+    private static void recordFingerprint(Connection conn, long fingerprint) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS " + FINGERPRINT_TABLE + " ("
+                    + "id INT PRIMARY KEY, "
+                    + "fingerprint BIGINT NOT NULL, "
+                    + "updated_on TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+        }
+        try (PreparedStatement update = conn.prepareStatement(
+                "UPDATE " + FINGERPRINT_TABLE + " SET fingerprint = ?, updated_on = CURRENT_TIMESTAMP WHERE id = 1")) {
+            update.setLong(1, fingerprint);
+            if (update.executeUpdate() > 0) {
+                return;
+            }
+        }
+        try (PreparedStatement insert = conn.prepareStatement(
+                "INSERT INTO " + FINGERPRINT_TABLE + " (id, fingerprint) VALUES (1, ?)")) {
+            insert.setLong(1, fingerprint);
+            insert.executeUpdate();
+        }
+    }
+
+    /**
+     * Reads a dialect's migration index and every script it lists.
+     *
+     * @param dialect The dialect whose scripts should be read
+     * @return The migrations in the order they must be applied
+     * @throws SQLException if a script is missing, misnamed, or out of order
+     */
+    static List<Migration> loadMigrations(Dialect dialect) throws SQLException {
+        String directory = MIGRATION_DIRECTORY + "/" + dialect.getScriptDirectory();
+        List<Migration> migrations = new ArrayList<>();
+        int previousVersion = 0;
+        for (String line : readResource(directory + "/index.txt").split("\n")) {
+            String name = line.trim();
+            if (name.isEmpty() || name.startsWith("#")) {
+                continue;
+            }
+            Matcher matcher = SCRIPT_NAME.matcher(name);
+            if (!matcher.matches()) {
+                throw new SQLException("Invalid migration script name: " + name);
+            }
+            int version = Integer.parseInt(matcher.group(1));
+            if (version <= previousVersion) {
+                throw new SQLException("Migration " + name + " is listed out of version order");
+            }
+            previousVersion = version;
+            String script = readResource(directory + "/" + name);
+            migrations.add(new Migration(version, matcher.group(2).replace('_', ' '), script));
+        }
+        return migrations;
+    }
+
+    /**
+     * Runs one migration's statements and records it in {@code schema_version}.
+     */
+    private static void apply(Connection conn, Migration migration) throws SQLException {
+        long start = System.nanoTime();
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : migration.statements()) {
+                stmt.execute(sql);
+            }
+        } catch (SQLException e) {
+            throw new SQLException("Migration V" + migration.version + " (" + migration.description
+                    + ") failed: " + e.getMessage(), e);
+        }
+        int elapsedMs = (int) ((System.nanoTime() - start) / 1_000_000);
+        String sql = "INSERT INTO schema_version (version, description, checksum, execution_ms) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, migration.version);
+            stmt.setString(2, migration.description);
+            stmt.setLong(3, migration.checksum);
+            stmt.setInt(4, elapsedMs);
+            stmt.executeUpdate();
+        }
+        System.out.println("Applied schema migration V" + migration.version + " (" + migration.description
+                + ") in " + elapsedMs + " ms");
+    }
+
+    /**
+     * Reads a UTF-8 classpath resource with line endings normalized to {@code \n},
+     * so that checksums do not depend on how the scripts were checked out.
+     */
+    private static String readResource(String path) throws SQLException {
+        try (InputStream in = SchemaMigrator.class.getClassLoader().getResourceAsStream(path)) {
+            if (in == null) {
+                throw new SQLException("Migration resource not found in classpath: " + path);
+            }
+            StringBuilder sb = new StringBuilder();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    sb.append(line).append('\n');
+                }
+            }
+            return sb.toString();
+        } catch (IOException e) {
+            throw new SQLException("Couldn't read migration resource " + path, e);
+        }
+    }
+
+    /**
+     * A single versioned migration script.
+     */
+    static final class Migration {
+        final int version;
+        final String description;
+        final String script;
+        final long checksum;
+
+        Migration(int version, String description, String script) {
+            this.version = version;
+            this.description = description;
+            this.script = script;
+            CRC32 crc = new CRC32();
+            crc.update(script.getBytes(StandardCharsets.UTF_8));
+            this.checksum = crc.getValue();
+        }
+
+        /**
+         * Splits the script into executable statements, dropping comment lines.
+         *
+         * @return The statements in script order, without their terminating semicolons
+         */
+        List<String> statements() {
+            StringBuilder withoutComments = new StringBuilder();
+            for (String line : script.split("\n")) {
+                if (!line.trim().startsWith("--")) {
+                    withoutComments.append(line).append('\n');
+                }
+            }
+            List<String> statements = new ArrayList<>();
+            for (String sql : STATEMENT_END.split(withoutComments)) {
+                if (!sql.isBlank()) {
+                    statements.add(sql.trim());
+                }
+            }
+            return statements;
+        }
+    }
+}
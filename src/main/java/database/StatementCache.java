@@ -0,0 +1,262 @@
+package database;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Least-recently-used cache of prepared statements belonging to one pooled connection.
+ * <p>
+ * The DAOs prepare the same constant SQL strings over and over. Once a physical connection
+ * is reused through the {@link ConnectionPool}, its prepared statements can be reused as well,
+ * which saves the parse/prepare round trip on every call. Statements are keyed by their SQL
+ * text and by whether generated keys were requested.
+ * <p>
+ * Callers receive a proxy for the cached statement. Closing the proxy clears the statement's
+ * parameters and batch, restores the fetch size, row limit and timeouts the driver started it
+ * with, and leaves it in the cache; the physical statement is only closed when it is evicted
+ * or its connection is closed. If a statement for the same key is still in use (for example,
+ * a nested query with identical SQL), an uncached statement is prepared instead; it is wrapped
+ * the same way, so it also reports the pooled connection, and closing it closes it.
+ * <p>
+ * Instances are not thread-safe; a pooled connection is only used by one borrower at a time.
+ *
+ * @see ConnectionPool
+ * @see DatabaseConfig#getStatementCacheSize()
+ */
+final class StatementCache {
+    private final Connection physical;
+    private final int maxSize;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+
+    /** Access-ordered, so iteration starts at the least recently used entry. */
+    private final LinkedHashMap<String, Entry> entries;
+
+    /**
+     * Creates a cache for one physical connection.
+     *
+     * @param physical the connection statements are prepared on
+     * @param maxSize the maximum number of cached statements
+     * @param hits pool-wide counter incremented when a cached statement is reused
+     * @param misses pool-wide counter incremented when a statement has to be prepared
+     * @param evictions pool-wide counter incremented when a statement is evicted
+     */
+    StatementCache(Connection physical, int maxSize, LongAdder hits, LongAdder misses, LongAdder evictions) {
+        this.physical = physical;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() <= StatementCache.this.maxSize) {
+                    return false;
+                }
+                StatementCache.this.evictions.increment();
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Returns a prepared statement for the given SQL, reusing a cached one when possible.
+     *
+     * @param owner the connection proxy the statement should report as its connection
+     * @param sql the SQL text
+     * @param autoGeneratedKeys {@link Statement#RETURN_GENERATED_KEYS} or {@link Statement#NO_GENERATED_KEYS}
+     * @return a statement proxy; closing it returns the statement to the cache
+     * @throws SQLException if the statement cannot be prepared
+     */
+    PreparedStatement prepare(Connection owner, String sql, int autoGeneratedKeys) throws SQLException {
+        String key = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ? "K:" + sql : "N:" + sql;
+        Entry entry = entries.get(key);
+        if (entry != null && !entry.inUse) {
+            hits.increment();
+        } else {
+            misses.increment();
+            PreparedStatement statement = physical.prepareStatement(sql, autoGeneratedKeys);
+            if (entry != null) {
+                // Same SQL is already checked out on this connection; hand out a throwaway statement.
+                return wrap(owner, statement, () -> closeQuietly(statement));
+            }
+            try {
+                entry = new Entry(statement);
+            } catch (SQLException e) {
+                closeQuietly(statement);
+                throw e;
+            }
+            entries.put(key, entry);
+        }
+        entry.inUse = true;
+        return entry.checkOut(owner);
+    }
+
+    /**
+     * Marks every cached statement as available again. Called when the connection is returned
+     * to the pool, in case a borrower forgot to close a statement.
+     */
+    void releaseAll() {
+        List<String> broken = new ArrayList<>();
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            Entry entry = e.getValue();
+            if (entry.inUse && !entry.reset()) {
+                broken.add(e.getKey());
+            }
+            entry.inUse = false;
+        }
+        broken.forEach(key -> entries.remove(key).evict());
+    }
+
+    /**
+     * Closes all cached statements and empties the cache. Called by the pool just before it
+     * closes the physical connection, so the driver frees the server-side statements first.
+     */
+    void clear() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            it.next().evict();
+            it.remove();
+        }
+    }
+
+    /**
+     * Creates a proxy for one use of a statement. The proxy reports {@code owner} as its
+     * connection and forwards other calls until it is closed, when {@code onClose} runs once.
+     */
+    private static PreparedStatement wrap(Connection owner, PreparedStatement statement, Runnable onClose) {
+        boolean[] returned = { false };
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[] { PreparedStatement.class },
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "close" -> {
+                        if (!returned[0]) {
+                            returned[0] = true;
+                            onClose.run();
+                        }
+                        yield null;
+                    }
+                    case "isClosed" -> returned[0] || statement.isClosed();
+                    case "getConnection" -> owner;
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> "CachedStatement[" + statement + "]";
+                    default -> {
+                        if (returned[0]) {
+                            throw new SQLException("Statement is closed");
+                        }
+                        try {
+                            yield method.invoke(statement, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+                });
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing cached statement: " + e.getMessage());
+        }
+    }
+
+    /**
+     * A cached physical statement, the settings the driver prepared it with and whether a
+     * borrower currently holds it.
+     */
+    private final class Entry {
+        final PreparedStatement statement;
+        final int fetchSize;
+        final int fetchDirection;
+        final int maxRows;
+        final int maxFieldSize;
+        final int queryTimeout;
+        boolean inUse;
+        boolean evicted;
+
+        Entry(PreparedStatement statement) throws SQLException {
+            this.statement = statement;
+            this.fetchSize = statement.getFetchSize();
+            this.fetchDirection = statement.getFetchDirection();
+            this.maxRows = statement.getMaxRows();
+            this.maxFieldSize = statement.getMaxFieldSize();
+            this.queryTimeout = statement.getQueryTimeout();
+        }
+
+        /**
+         * Creates a proxy for one use of the statement; closing it returns the statement to the cache.
+         */
+        PreparedStatement checkOut(Connection owner) {
+            return wrap(owner, statement, this::giveBack);
+        }
+
+        /**
+         * Returns the statement to the cache, or closes it if it was evicted while in use
+         * or cannot be reset.
+         */
+        void giveBack() {
+            inUse = false;
+            if (evicted || !reset()) {
+                evicted = true;
+                closeQuietly(statement);
+            }
+        }
+
+        /**
+         * Clears bound parameters and pending batch entries and restores the driver's settings,
+         * so the next borrower starts clean. A streaming read, for example, sets a MySQL fetch
+         * size of {@link Integer#MIN_VALUE} that must not leak into the next query.
+         *
+         * @return false if the statement could not be reset and must not be reused
+         */
+        boolean reset() {
+            try {
+                statement.clearParameters();
+                statement.clearBatch();
+                if (statement.getFetchSize() != fetchSize) {
+                    statement.setFetchSize(fetchSize);
+                }
+                if (statement.getFetchDirection() != fetchDirection) {
+                    statement.setFetchDirection(fetchDirection);
+                }
+                if (statement.getMaxRows() != maxRows) {
+                    statement.setMaxRows(maxRows);
+                }
+                if (statement.getMaxFieldSize() != maxFieldSize) {
+                    statement.setMaxFieldSize(maxFieldSize);
+                }
+                if (statement.getQueryTimeout() != queryTimeout) {
+                    statement.setQueryTimeout(queryTimeout);
+                }
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Marks the entry as removed from the cache, closing the statement unless it is in use.
+         */
+        void evict() {
+            evicted = true;
+            if (!inUse) {
+                closeQuietly(statement);
+            }
+        }
+    }
+}
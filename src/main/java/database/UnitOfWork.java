@@ -0,0 +1,248 @@
+package database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs several DAO operations, possibly of different repositories, in a single transaction.
+ * <p>
+ * While a unit of work is active on a thread, {@link DBHelper#getConnection()} and
+ * {@link DBHelper#getReadConnection()} hand out the unit's connection instead of borrowing a
+ * new one, so every DAO call made inside the block joins the same transaction without
+ * changing its code. On that shared connection:
+ * <ul>
+ *     <li>{@code close()}, {@code commit()} and {@code setAutoCommit()} are ignored; the unit
+ *         commits once, when the block returns</li>
+ *     <li>{@code rollback()} marks the unit as failed, so it is rolled back at the end even if
+ *         the DAO that failed swallowed its exception</li>
+ * </ul>
+ * If the block throws, or an operation inside it failed, the whole unit is rolled back and
+ * the hooks registered with {@link #afterRollback(Object, Runnable)} run, which the services
+ * use to reload caches that already reflect the discarded changes.
+ * <p>
+ * A unit of work started inside another one joins the outer unit. The transaction is bound
+ * to the calling thread: asynchronous operations and write-behind flushes run on other
+ * threads and are not part of it.
+ * <pre>
+ * UnitOfWork.run(() -&gt; {
+ *     toDoService.updateAll(completedTasks);
+ *     notesService.deleteAll(obsoleteNotes);
+ * });
+ * </pre>
+ *
+ * @see DBHelper#getConnection()
+ */
+public final class UnitOfWork {
+    private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+
+    /** The pooled connection holding the transaction. */
+    private final Connection connection;
+
+    /** Proxy of {@link #connection} handed to the DAOs. */
+    private final Connection shared;
+
+    private final Map<Object, Runnable> rollbackHooks = new LinkedHashMap<>();
+    private boolean rollbackOnly;
+
+    /**
+     * A block of database work returning a result.
+     *
+     * @param <T> The result type
+     */
+    @FunctionalInterface
+    public interface Work<T> {
+        T execute() throws SQLException;
+    }
+
+    /**
+     * A block of database work without a result.
+     */
+    @FunctionalInterface
+    public interface Action {
+        void execute() throws SQLException;
+    }
+
+    private UnitOfWork(Connection connection) {
+        this.connection = connection;
+        this.shared = (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                new SharedConnection());
+    }
+
+    /**
+     * Runs a block in a single transaction and commits it if the block completes.
+     *
+     * @param action The work to run
+     * @throws RuntimeException if the block or the commit fails; nothing has been written
+     */
+    public static void run(Action action) {
+        call(() -> {
+            action.execute();
+            return null;
+        });
+    }
+
+    /**
+     * Runs a block in a single transaction, commits it if the block completes and returns its result.
+     *
+     * @param work The work to run
+     * @param <T> The result type
+     * @return The block's result
+     * @throws RuntimeException if the block or the commit fails; nothing has been written
+     */
+    public static <T> T call(Work<T> work) {
+        UnitOfWork outer = CURRENT.get();
+        if (outer != null) {
+            return outer.join(work);
+        }
+        UnitOfWork unit;
+        try {
+            Connection conn = DBHelper.getConnection();
+            conn.setAutoCommit(false);
+            unit = new UnitOfWork(conn);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error starting the transaction: " + e.getMessage(), e);
+        }
+        CURRENT.set(unit);
+        boolean committed = false;
+        try {
+            T result = work.execute();
+            if (unit.rollbackOnly) {
+                throw new SQLException("an operation inside the transaction failed");
+            }
+            unit.connection.commit();
+            committed = true;
+            return result;
+        } catch (SQLException e) {
+            throw new RuntimeException("Transaction rolled back: " + e.getMessage(), e);
+        } finally {
+            CURRENT.remove();
+            unit.finish(committed);
+        }
+    }
+
+    /**
+     * @return true if the calling thread is inside a unit of work
+     */
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Registers a task to run if the current unit of work is rolled back, once the connection
+     * has been released. Registering again with the same key keeps the first task, so a
+     * service can register on every write. Does nothing outside a unit of work.
+     *
+     * @param key Identifies the task, e.g. the service registering it
+     * @param hook The task to run after a rollback
+     */
+    public static void afterRollback(Object key, Runnable hook) {
+        UnitOfWork unit = CURRENT.get();
+        if (unit != null) {
+            unit.rollbackHooks.putIfAbsent(key, hook);
+        }
+    }
+
+    /**
+     * Returns the connection of the unit of work active on the calling thread.
+     *
+     * @return The shared connection, or null outside a unit of work
+     */
+    static Connection currentConnection() {
+        UnitOfWork unit = CURRENT.get();
+        return unit == null ? null : unit.shared;
+    }
+
+    /**
+     * Runs a nested block as part of this unit; a failure marks the whole unit for rollback.
+     */
+    private <T> T join(Work<T> work) {
+        try {
+            return work.execute();
+        } catch (SQLException e) {
+            rollbackOnly = true;
+            throw new RuntimeException("Error in transaction: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            rollbackOnly = true;
+            throw e;
+        }
+    }
+
+    /**
+     * Rolls back unless committed, returns the connection to the pool, then records the write
+     * or runs the rollback hooks.
+     */
+    private void finish(boolean committed) {
+        if (!committed) {
+            try {
+                connection.rollback();
+            } catch (SQLException e) {
+                System.err.println("Error rolling back transaction: " + e.getMessage());
+            }
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            System.err.println("Error releasing transaction connection: " + e.getMessage());
+        }
+        if (committed) {
+            DBHelper.recordWrite();
+            return;
+        }
+        List<Runnable> hooks = new ArrayList<>(rollbackHooks.values());
+        for (Runnable hook : hooks) {
+            try {
+                hook.run();
+            } catch (RuntimeException e) {
+                System.err.println("Error restoring state after rollback: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Invocation handler behind the connection shared by the DAOs. It leaves transaction
+     * control to the unit of work and forwards everything else to the pooled connection.
+     */
+    private final class SharedConnection implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close", "commit", "setAutoCommit" -> {
+                    return null;
+                }
+                case "rollback" -> {
+                    if (args == null) {
+                        rollbackOnly = true;
+                        return null;
+                    }
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "UnitOfWork[" + connection + "]";
+                }
+                default -> {
+                    // Forwarded below.
+                }
+            }
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
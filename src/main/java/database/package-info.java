@@ -11,6 +11,22 @@
  *       connection lifecycle and provides parameterized query execution methods</li>
  *   <li>{@link database.DBInitializer} - Schema creation and initialization logic
  *       responsible for setting up tables and maintaining database structure</li>
+ *   <li>{@link database.ConnectionPool} - Bounded connection pool behind {@link database.DBHelper},
+ *       with validation on borrow, idle eviction and maximum connection lifetime</li>
+ *   <li>{@link database.PoolStats} - Snapshot of pool usage for monitoring</li>
+ *   <li>{@link database.DBHelper#getReadConnection()} - Routes read-only queries to an optional
+ *       replica, staying on the primary for a short window after each local write</li>
+ *   <li>{@link database.SchemaMigrator} - Versioned, checksummed schema migrations
+ *       recorded in the schema_version table, skipped on warm starts by a stored fingerprint</li>
+ *   <li>{@link database.Dialect} - Supported database products (MySQL, MariaDB, embedded H2)
+ *       and the behaviour that differs between them</li>
+ *   <li>{@link database.FullTextSearch} - Builds FULLTEXT and LIKE search terms from user input</li>
+ *   <li>{@link database.DatabaseExecutor} - Runs asynchronous database operations on virtual
+ *       threads with bounded concurrency</li>
+ *   <li>{@link database.ChangeTracking} - Watermarks and delete tombstones for delta refreshes</li>
+ *   <li>{@link database.UnitOfWork} - Runs several DAO operations on one connection in one transaction</li>
+ *   <li>{@link database.EntityMapper} - Row mapper shared by a DAO's queries, resolving column
+ *       indexes once per result set</li>
  * </ul>
  *
  * <p>Architectural role:</p>
@@ -1,5 +1,7 @@
 package layout;
 
+import common.WriteBehindQueue;
+import database.DatabaseConfig;
 import notes.impl.NotesDatabaseManager;
 import notes.impl.NotesService;
 import notes.interfaces.NotesDatabaseManagement;
@@ -11,6 +13,7 @@ import javax.swing.*;
 import layout.panels.*;
 
 import java.awt.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Manages the main application window layout for the todo List and notes main.App.
@@ -36,6 +39,10 @@ import java.awt.*;
  * <p>The main window contains a tabbed pane with panels for Notes and ToDo items,
  * each handling its own domain-specific functionality while sharing a common design pattern.</p>
  *
+ * <p>The window is shown before any data is read. Both panels start disabled and are filled
+ * in independently by {@link #loadNotes(CompletableFuture)} and {@link #loadToDos(CompletableFuture)},
+ * so the application can load them in parallel while the user already sees the frame.</p>
+ *
  * @version 1.0
  * @since 2025-04-23
  * @author Louis Bertrand Ntwali
@@ -64,6 +71,15 @@ public class MainLayout extends JFrame{
      */
     private ToDoService toDoManager;
 
+    /** The main window frame for the application. */
+    private JFrame mainFrame;
+
+    /** Panel of the Notes tab, filled in by {@link #loadNotes(CompletableFuture)}. */
+    private NotesPanel notesPanel;
+
+    /** Panel of the To Do List tab, filled in by {@link #loadToDos(CompletableFuture)}. */
+    private ToDoPanel toDoPanel;
+
     /**
      * Constructs the main layout of the application.
      * Performs the following initialization sequence:
@@ -73,6 +89,8 @@ public class MainLayout extends JFrame{
      * <li>Attempts to apply the Nimbus look and feel for modern UI styling</li>
      * </ol>
      *
+     * <p>No data is loaded here, and the constructor must be called on the event dispatch thread.</p>
+     *
      * <p>If the Nimbus look and feel is not available, the application will
      * fall back to the system default look and feel.</p>
      */
@@ -96,6 +114,7 @@ public class MainLayout extends JFrame{
      * <ol>
      * <li>Creates database management instances for notes and todo items</li>
      * <li>Initializes service objects with their respective database managers</li>
+     * <li>Attaches write-behind queues to the services when writeBehind.enabled is set</li>
      * </ol>
      *
      * <p>The initialized services are stored in instance variables and later
@@ -107,8 +126,49 @@ public class MainLayout extends JFrame{
     private void initializeManagers() {
         NotesDatabaseManagement notesDatabaseManagement = new NotesDatabaseManager();
         ToDoDatabaseManagement todoDatabaseManagement = new ToDoDatabaseManager();
-        notesService = new NotesService(notesDatabaseManagement);
-        toDoManager = new ToDoService(todoDatabaseManagement);
+        if (DatabaseConfig.isWriteBehindEnabled()) {
+            notesService = new NotesService(notesDatabaseManagement,
+                    WriteBehindQueue.fromConfig("notes", notesDatabaseManagement));
+            toDoManager = new ToDoService(todoDatabaseManagement,
+                    WriteBehindQueue.fromConfig("todos", todoDatabaseManagement));
+        } else {
+            notesService = new NotesService(notesDatabaseManagement);
+            toDoManager = new ToDoService(todoDatabaseManagement);
+        }
+    }
+
+    /**
+     * Loads the first page of notes in the background once {@code ready} completes
+     * and shows it in the Notes tab.
+     *
+     * @param ready Completes when the database can be queried
+     * @return A future completed once the notes are displayed
+     * @see GeneralPanel#loadInitialItems(CompletableFuture)
+     */
+    public CompletableFuture<Void> loadNotes(CompletableFuture<?> ready) {
+        return notesPanel.loadInitialItems(ready);
+    }
+
+    /**
+     * Loads the first page of ToDo items in the background once {@code ready} completes
+     * and shows it in the To Do List tab.
+     *
+     * @param ready Completes when the database can be queried
+     * @return A future completed once the ToDo items are displayed
+     * @see GeneralPanel#loadInitialItems(CompletableFuture)
+     */
+    public CompletableFuture<Void> loadToDos(CompletableFuture<?> ready) {
+        return toDoPanel.loadInitialItems(ready);
+    }
+
+    /**
+     * Tells the user that the application could not start properly.
+     * Must be called on the event dispatch thread.
+     *
+     * @param message The error message to display
+     */
+    public void showStartupError(String message) {
+        JOptionPane.showMessageDialog(mainFrame, message, "Startup Error", JOptionPane.ERROR_MESSAGE);
     }
 
     /**
@@ -135,10 +195,7 @@ public class MainLayout extends JFrame{
      * @see ToDoPanel
      */
     private void setupMainFrame() {
-        /*
-         * The main window frame for the application.
-         */
-        JFrame mainFrame = new JFrame("Notes App");
+        mainFrame = new JFrame("Notes App");
         mainFrame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         mainFrame.setSize(800, 600);
 
@@ -146,8 +203,10 @@ public class MainLayout extends JFrame{
         setGlobalFont(appFont);
 
         JTabbedPane tabbedPane = new JTabbedPane();
-        tabbedPane.addTab("Notes", new NotesPanel(notesService));
-        tabbedPane.addTab("To Do List", new ToDoPanel(toDoManager));
+        notesPanel = new NotesPanel(notesService);
+        toDoPanel = new ToDoPanel(toDoManager);
+        tabbedPane.addTab("Notes", notesPanel);
+        tabbedPane.addTab("To Do List", toDoPanel);
 
         mainFrame.add(tabbedPane);
         mainFrame.setVisible(true);
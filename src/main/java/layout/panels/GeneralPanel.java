@@ -1,9 +1,12 @@
 package layout.panels;
 
+import common.ConflictException;
 import common.interfaces.Services;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Abstract base panel that provides a generic implementation for managing items (notes or todos).
@@ -17,6 +20,9 @@ import java.awt.*;
  *   <li>Integrated error handling and validation</li>
  *   <li>List-based item display with selection support</li>
  *   <li>Sort functionality</li>
+ *   <li>Page-by-page loading as the list is scrolled</li>
+ *   <li>Edits redraw the list from the service's cache; the Refresh button reloads it from the database</li>
+ *   <li>The panel starts disabled and fills in once {@link #loadInitialItems(CompletableFuture)} completes</li>
  * </ul>
  *
  * <p>The panel uses a BorderLayout with:</p>
@@ -56,6 +62,9 @@ public abstract class GeneralPanel<T> extends JPanel {
     /** Button to edit selected items */
     protected JButton editButton = new JButton("Edit");
 
+    /** Button to reload the items from the database */
+    protected JButton refreshButton = new JButton("Refresh");
+
     /** Dropdown for sorting options */
     protected JComboBox<String> sortOptions;
 
@@ -71,9 +80,20 @@ public abstract class GeneralPanel<T> extends JPanel {
     /** Currently edited item, null if not editing */
     protected T editingItem = null;
 
+    /** Number of items requested from the service per page */
+    protected static final int PAGE_SIZE = 100;
+
+    /** Flag indicating that a page load is already queued on the event dispatch thread */
+    private boolean pageLoadPending = false;
+
+    /** Placeholder shown in the list until the first page has been loaded */
+    private static final String LOADING_TEXT = "Loading...";
+
     /**
      * Creates a new panel with the specified service.
      * Initializes components, sets up the layout, and attaches listeners.
+     * The panel is shown disabled with a loading placeholder; the items are loaded
+     * by {@link #loadInitialItems(CompletableFuture)}.
      *
      * @param service The service implementation for managing items, must not be null
      * @throws IllegalArgumentException if service is null
@@ -88,39 +108,102 @@ public abstract class GeneralPanel<T> extends JPanel {
         buttonPanel.add(saveButton);
         buttonPanel.add(editButton);
         buttonPanel.add(deleteButton);
+        buttonPanel.add(refreshButton);
         add(buttonPanel, BorderLayout.SOUTH);
         setupListeners();
-        displayItems();
+        installPagingListener();
+        setLoading(true);
+    }
+
+    /**
+     * Loads the first page of items in the background once {@code ready} completes,
+     * then fills the list and enables the panel on the event dispatch thread.
+     * <p>
+     * If {@code ready} or the load fails, the panel stays disabled and the returned
+     * future completes exceptionally; reporting the failure is left to the caller.
+     *
+     * @param ready Completes when the database can be queried, e.g. once the schema is up to date
+     * @return A future completed once the items are displayed
+     */
+    public CompletableFuture<Void> loadInitialItems(CompletableFuture<?> ready) {
+        return ready
+                .thenCompose(v -> service.loadFirstPageAsync(PAGE_SIZE))
+                .thenRunAsync(() -> {
+                    updateListModel();
+                    setLoading(false);
+                }, SwingUtilities::invokeLater);
+    }
+
+    /**
+     * Enables or disables every control of the panel. While loading, the list only shows
+     * a placeholder, so no item can be selected before the service has data.
+     *
+     * @param loading true to disable the panel and show the placeholder
+     */
+    protected void setLoading(boolean loading) {
+        if (loading) {
+            listModel.clear();
+            listModel.addElement(LOADING_TEXT);
+        }
+        setEnabledRecursively(this, !loading);
+    }
+
+    /**
+     * Enables or disables a container and all of its descendants.
+     */
+    private static void setEnabledRecursively(Container container, boolean enabled) {
+        for (Component child : container.getComponents()) {
+            child.setEnabled(enabled);
+            if (child instanceof Container nested) {
+                setEnabledRecursively(nested, enabled);
+            }
+        }
     }
 
     /**
      * Sets up action listeners for the standard buttons.
-     * Handles save, edit, and delete operations.
+     * Handles save, edit, delete and refresh operations.
      */
     private void setupListeners() {
         saveButton.addActionListener(e -> onSave());
         editButton.addActionListener(e -> onEdit());
         deleteButton.addActionListener(e -> onDelete());
+        refreshButton.addActionListener(e -> onRefresh());
     }
 
     /**
      * Handles the save button action.
      * Validates input and either creates a new item or updates existing one.
      * If validation fails, the operation is aborted.
+     * The service updates its cache in place, so the list is redrawn without a reload
+     * and the saved item is selected.
+     * If the edited item was changed by another user in the meantime, the edit is dropped,
+     * the list shows the current version and the user is told to redo the edit.
      */
     private void onSave() {
         if(!validateInput()) return;
+        T saved;
         if(isEditing && editingItem != null) {
-            updateExistingItem(editingItem);
+            try {
+                updateExistingItem(editingItem);
+            } catch (ConflictException e) {
+                isEditing = false;
+                editingItem = null;
+                clearInputFields();
+                updateListModel();
+                showError(e.getMessage());
+                return;
+            }
+            saved = editingItem;
         } else {
-            T item = createNewItem();
-            service.add(item);
+            saved = createNewItem();
+            service.add(saved);
         }
         isEditing = false;
         editingItem = null;
         clearInputFields();
-        displayItems();
-        selectFirst();
+        updateListModel();
+        selectItem(saved);
     }
 
     /**
@@ -157,19 +240,65 @@ public abstract class GeneralPanel<T> extends JPanel {
         );
         if(confirm == JOptionPane.YES_OPTION) {
             service.delete(item);
-            displayItems();
+            updateListModel();
         }
     }
 
+    /**
+     * Handles the refresh button action.
+     * Applies the changes made elsewhere since the last load, without reloading
+     * unchanged items, and redraws the list.
+     */
+    private void onRefresh() {
+        service.refreshChanges();
+        updateListModel();
+    }
+
     /**
      * Refreshes the displayed items from the service layer.
-     * Updates the list model with current data and redraws the list.
+     * Reloads the first page of items and redraws the list; further pages
+     * are loaded as the user scrolls towards the end of the list.
      */
     protected void displayItems() {
-        service.refresh();
+        service.loadFirstPage(PAGE_SIZE);
         updateListModel();
     }
 
+    /**
+     * Watches the list's vertical scroll bar and queues the next page once the
+     * visible area comes within one screen of the end of the loaded items.
+     * The scroll bar also reports model changes, so loading continues until the
+     * viewport is filled or the service has no more pages.
+     */
+    private void installPagingListener() {
+        JScrollPane scrollPane = (JScrollPane) SwingUtilities.getAncestorOfClass(JScrollPane.class, itemList);
+        if (scrollPane == null) {
+            return;
+        }
+        JScrollBar scrollBar = scrollPane.getVerticalScrollBar();
+        scrollBar.addAdjustmentListener(e -> {
+            boolean nearEnd = scrollBar.getValue() + 2 * scrollBar.getVisibleAmount() >= scrollBar.getMaximum();
+            if (nearEnd && !pageLoadPending && service.hasMorePages()) {
+                pageLoadPending = true;
+                SwingUtilities.invokeLater(this::loadNextPage);
+            }
+        });
+    }
+
+    /**
+     * Loads the next page from the service and appends its summaries to the list model,
+     * keeping the current selection and scroll position.
+     */
+    private void loadNextPage() {
+        pageLoadPending = false;
+        if (service.loadNextPage()) {
+            List<String> summaries = service.getSummary();
+            for (int i = listModel.size(); i < summaries.size(); i++) {
+                listModel.addElement(summaries.get(i));
+            }
+        }
+    }
+
     /**
      * Updates the list model with current items from the service.
      * Clears the existing model and populates it with summary strings.
@@ -192,6 +321,22 @@ public abstract class GeneralPanel<T> extends JPanel {
         }
     }
 
+    /**
+     * Selects the given item in the list and scrolls it into view.
+     * Selects the first item instead if the item is not in the loaded list.
+     *
+     * @param item The item to select
+     */
+    protected void selectItem(T item) {
+        int index = service.getAll().indexOf(item);
+        if (index < 0) {
+            selectFirst();
+            return;
+        }
+        itemList.setSelectedIndex(index);
+        itemList.ensureIndexIsVisible(index);
+    }
+
     /**
      * Displays an error message dialog.
      *
@@ -139,6 +139,7 @@ public class NotesPanel extends GeneralPanel<Notes> {
     /**
      * Handles selection changes in the notes list.
      * Updates the content viewer to display the selected note's content.
+     * The content is loaded on first selection, since the list only holds titles.
      *
      * <p>When no note is selected, the content viewer is cleared.</p>
      *
@@ -149,7 +150,7 @@ public class NotesPanel extends GeneralPanel<Notes> {
             int selected = itemList.getSelectedIndex();
             if (selected >= 0) {
                 Notes n = notesManager.getAll().get(selected);
-                contentViewer.setText(n.getContent());
+                contentViewer.setText(notesManager.loadContent(n));
             } else {
                 contentViewer.setText("");
             }
@@ -296,7 +297,7 @@ public class NotesPanel extends GeneralPanel<Notes> {
     @Override
     protected void populateInputFields(Notes note) {
         noteTitleField.setText(note.getTitle());
-        noteContentArea.setText(note.getContent());
+        noteContentArea.setText(notesManager.loadContent(note));
     }
 
     @Override
@@ -1,11 +1,15 @@
 package layout.panels;
 
+import common.ConflictException;
+import database.UnitOfWork;
 import todo.ToDo;
 import todo.impl.ToDoService;
 
 import javax.swing.*;
 import java.awt.*;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 import org.jdatepicker.impl.*;
 
@@ -61,6 +65,9 @@ public class ToDoPanel extends GeneralPanel<ToDo> {
     /** Model for the date picker component to store and retrieve selected dates */
     private SqlDateModel model;
 
+    /** Maximum number of tasks listed per section of the "Due This Week" dialog */
+    private static final int DUE_LIST_LIMIT = 50;
+
     /**
      * Constructs a new ToDoPanel with the specified service.
      * Initializes the UI and sets up task management functionality.
@@ -113,28 +120,80 @@ public class ToDoPanel extends GeneralPanel<ToDo> {
         JButton completeTaskButton = new JButton("Complete");
         buttonPanel.add(completeTaskButton);
         completeTaskButton.addActionListener(e -> onComplete());
+
+        // Add button listing overdue tasks and tasks due in the next seven days
+        JButton dueThisWeekButton = new JButton("Due This Week");
+        buttonPanel.add(dueThisWeekButton);
+        dueThisWeekButton.addActionListener(e -> onDueThisWeek());
+    }
+
+    /**
+     * Shows the overdue tasks and the tasks due from today through the next six days.
+     * Both lists are queried from the database with a limit, so this works without
+     * loading every task into the list.
+     */
+    private void onDueThisWeek() {
+        LocalDate today = LocalDate.now();
+        List<ToDo> overdue = toDoManager.getOverdue(DUE_LIST_LIMIT);
+        List<ToDo> dueThisWeek = toDoManager.getDueBetween(today, today.plusDays(6), DUE_LIST_LIMIT);
+        StringBuilder text = new StringBuilder();
+        appendTasks(text, "Overdue", overdue);
+        text.append('\n');
+        appendTasks(text, "Due this week", dueThisWeek);
+        JTextArea area = new JTextArea(text.toString(), 15, 40);
+        area.setEditable(false);
+        JOptionPane.showMessageDialog(this, new JScrollPane(area), "Due This Week", JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    /**
+     * Appends a titled list of tasks, one per line with its due date and status.
+     */
+    private static void appendTasks(StringBuilder text, String title, List<ToDo> tasks) {
+        text.append(title).append(" (").append(tasks.size() == DUE_LIST_LIMIT ? DUE_LIST_LIMIT + "+" : tasks.size()).append("):\n");
+        if (tasks.isEmpty()) {
+            text.append("  None\n");
+        }
+        for (ToDo task : tasks) {
+            text.append("  ").append(task.getEndDate()).append("  ").append(task.getTaskDescription())
+                    .append(task.isCompleted() ? " (Completed)" : "").append('\n');
+        }
     }
 
     /**
      * Handles the task completion action.
-     * Marks the selected task as completed and updates the UI.
+     * Marks the selected tasks as completed and updates the UI.
      *
-     * <p>This operation is permanent and changes the task's status in the database.
+     * <p>This operation is permanent and changes the tasks' status in the database.
+     * All selected tasks are completed in a single {@link UnitOfWork}: if one of them was
+     * changed elsewhere, none is completed and the list shows their current state.
      * If no task is selected, an error message is displayed.</p>
      */
     private void onComplete() {
-        int selected = itemList.getSelectedIndex();
-        if (selected >= 0) {
-            ToDo toDo = toDoManager.getAll().get(selected);
-            if (toDo.isCompleted()) {
-                showError("This task is already completed.");
-            } else {
-                toDoManager.markTaskAsCompleted(toDo);
-                displayItems();
-            }
-        }  else {
+        int[] selected = itemList.getSelectedIndices();
+        if (selected.length == 0) {
             showError("Please select a task to mark as completed.");
+            return;
         }
+        List<ToDo> tasks = new ArrayList<>();
+        for (int index : selected) {
+            ToDo toDo = toDoManager.getAll().get(index);
+            if (!toDo.isCompleted()) {
+                tasks.add(toDo);
+            }
+        }
+        if (tasks.isEmpty()) {
+            showError(selected.length == 1 ? "This task is already completed." : "These tasks are already completed.");
+            return;
+        }
+        try {
+            UnitOfWork.run(() -> tasks.forEach(toDoManager::markTaskAsCompleted));
+        } catch (ConflictException e) {
+            updateListModel();
+            showError(e.getMessage());
+            return;
+        }
+        updateListModel();
+        selectItem(tasks.get(0));
     }
 
     /**
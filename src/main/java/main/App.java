@@ -1,6 +1,11 @@
 package main;
 
+import database.ChangeTracking;
 import database.DBInitializer;
+import database.DatabaseExecutor;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import javax.swing.SwingUtilities;
 import layout.MainLayout;
 
 /**
@@ -11,13 +16,17 @@ import layout.MainLayout;
  * which involves initializing the necessary database components and then
  * launching the main user interface (UI) layout.
  * </p>
- * <p> The application follows a simple startup procedure: </p>
+ * <p> The application starts in stages, so the window appears before the database is ready: </p>
  * <ol>
- * <li>Initialize the database using {@link database.DBInitializer}.</li>
- * <li>Create and display the main application window using {@link layout.MainLayout}.</li>
+ * <li>The schema is brought up to date with {@link database.DBInitializer} on a background thread.</li>
+ * <li>Meanwhile, the main application window is built and shown on the event dispatch thread
+ * using {@link layout.MainLayout}, with both tabs disabled.</li>
+ * <li>Once the schema is ready, the first pages of notes and ToDo items are loaded in parallel,
+ * and each tab is filled in and enabled as soon as its own data arrives.</li>
+ * <li>Once both are loaded, expired tombstones of deleted rows are pruned in the background.</li>
  * </ol>
- * <p> Any exceptions thrown during this critical startup phase are propagated upwards,
- * potentially terminating the application if not handled by the JVM environment.
+ * <p> The duration of every stage is logged. If the schema or a load fails, the error is logged,
+ * shown in a dialog, and the affected tabs stay disabled.
  * </p>
  *
  * @version 1.0
@@ -33,33 +42,78 @@ public class App {
      * The main execution method that serves as the application's entry point.
      * <p>
      * This method is called by the Java Virtual Machine (JVM) when the application
-     * starts. It performs the essential initial setup steps required for the
-     * application to run.
+     * starts. It starts the schema initialization in the background, builds the window,
+     * and chains the initial loads of both tabs to the schema, then returns; the
+     * application keeps running on the event dispatch thread.
      * </p>
      * <p> The sequence of operations is: </p>
      * <ol>
-     * <li>Calls {@link database.DBInitializer#initializeDatabase()} to ensure the
-     * database is ready for use. This might involve establishing connections,
-     * creating schemas if they don't exist, or running initial data scripts.</li>
-     * <li>Instantiates the {@link layout.MainLayout} class. The constructor of
-     * {@code MainLayout} is expected to build and display the primary
-     * user interface of the application.</li>
+     * <li>Calls {@link database.DBInitializer#initializeDatabase()} on a virtual thread
+     * through {@link database.DatabaseExecutor}.</li>
+     * <li>Instantiates the {@link layout.MainLayout} class on the event dispatch thread and
+     * waits until the window has been built and shown.</li>
+     * <li>Starts {@link layout.MainLayout#loadNotes(CompletableFuture)} and
+     * {@link layout.MainLayout#loadToDos(CompletableFuture)}, which wait for the schema
+     * and then run concurrently.</li>
      * </ol>
      *
      * @param args Command-line arguments passed to the application at startup.
      * These arguments are not explicitly used in this basic setup
      * but are available if needed for configuration or specific modes.
+     */
+    public static void main(String[] args) {
+        StartupTimer timer = new StartupTimer();
+
+        CompletableFuture<Void> schema = DatabaseExecutor.runAsync(App::initializeSchema)
+                .whenComplete((v, e) -> timer.finished("schema", timer.launchedAt(), e));
+
+        long frameStart = System.nanoTime();
+        MainLayout layout = CompletableFuture.supplyAsync(MainLayout::new, SwingUtilities::invokeLater).join();
+        timer.finished("frame", frameStart, null);
+
+        CompletableFuture<Void> notes = layout.loadNotes(schema)
+                .whenComplete((v, e) -> timer.finished("notes", timer.endOf("schema"), e));
+        CompletableFuture<Void> toDos = layout.loadToDos(schema)
+                .whenComplete((v, e) -> timer.finished("todos", timer.endOf("schema"), e));
+
+        CompletableFuture.allOf(notes, toDos).whenComplete((v, e) -> {
+            timer.finished("startup", timer.launchedAt(), e);
+            if (e != null) {
+                String message = "The application could not load its data: " + StartupTimer.messageOf(e);
+                SwingUtilities.invokeLater(() -> layout.showStartupError(message));
+            } else {
+                DatabaseExecutor.runAsync(App::pruneTombstones);
+            }
+        });
+    }
+
+    /**
+     * Deletes the tombstones that are older than the configured retention, so that the
+     * tombstone table does not grow without bound. Runs once the initial loads are done,
+     * so it does not delay them; a failure is only logged.
+     */
+    private static void pruneTombstones() {
+        try {
+            int pruned = ChangeTracking.pruneTombstones();
+            if (pruned > 0) {
+                System.out.println("Pruned " + pruned + " expired tombstone(s)");
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Error pruning tombstones: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs {@link DBInitializer#initializeDatabase()}, rethrowing its checked exception
+     * so that it can run as an asynchronous task.
      *
-     * @throws Exception If any unrecoverable error occurs during the database
-     * initialization (e.g., connection failure, SQL errors) or
-     * during the instantiation and display of the main layout
-     * (e.g., UI resource loading issues, configuration errors).
-     * The {@code throws Exception} clause indicates that checked
-     * exceptions from the called methods are not caught here
-     * and will be propagated.
+     * @throws RuntimeException if the database cannot be created or migrated
      */
-    public static void main(String[] args) throws Exception {
-        DBInitializer.initializeDatabase();
-        new MainLayout();
+    private static void initializeSchema() {
+        try {
+            DBInitializer.initializeDatabase();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error initializing the database: " + e.getMessage(), e);
+        }
     }
 }
\ No newline at end of file
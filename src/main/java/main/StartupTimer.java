@@ -0,0 +1,75 @@
+package main;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Measures the phases of the application startup and logs each one as it finishes.
+ * <p>
+ * Phases may run in parallel and finish on any thread. Each log line shows how long the
+ * phase itself took and how long after launch it finished, e.g.
+ * {@code Startup: notes finished in 85 ms (412 ms after launch)}. The end time of every
+ * phase is kept, so that a phase which waited for another one can be measured from the
+ * moment it could actually start.
+ */
+final class StartupTimer {
+    /** {@link System#nanoTime()} when the timer was created, i.e. at launch. */
+    private final long launchedAt = System.nanoTime();
+
+    /** {@link System#nanoTime()} at which each finished phase ended. */
+    private final Map<String, Long> finishedAt = new ConcurrentHashMap<>();
+
+    /**
+     * @return The time the application was launched, in {@link System#nanoTime()} units
+     */
+    long launchedAt() {
+        return launchedAt;
+    }
+
+    /**
+     * Returns when a phase finished, to be used as the start of the phases that waited for it.
+     *
+     * @param phase The name of the phase
+     * @return The phase's end time, or the launch time if it has not finished successfully
+     */
+    long endOf(String phase) {
+        return finishedAt.getOrDefault(phase, launchedAt);
+    }
+
+    /**
+     * Records and logs the end of a phase.
+     *
+     * @param phase The name of the phase
+     * @param startedAt When the phase started, in {@link System#nanoTime()} units
+     * @param error The exception the phase failed with, or null if it succeeded
+     */
+    void finished(String phase, long startedAt, Throwable error) {
+        long now = System.nanoTime();
+        String timing = toMillis(now - startedAt) + " ms (" + toMillis(now - launchedAt) + " ms after launch)";
+        if (error == null) {
+            finishedAt.put(phase, now);
+            System.out.println("Startup: " + phase + " finished in " + timing);
+        } else {
+            System.err.println("Startup: " + phase + " failed after " + timing + ": " + messageOf(error));
+        }
+    }
+
+    /**
+     * Returns the message of the exception that caused a failure, unwrapping completion wrappers.
+     *
+     * @param error The exception, possibly a {@link CompletionException}
+     * @return The message of the underlying cause
+     */
+    static String messageOf(Throwable error) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
+    }
+
+    private static long toMillis(long nanos) {
+        return nanos / 1_000_000L;
+    }
+}
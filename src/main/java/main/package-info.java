@@ -8,13 +8,15 @@
  * <p>Key components include:</p>
  * <ul>
  *   <li>{@link main.App} - Main application class with the {@code main} method</li>
+ *   <li>{@code StartupTimer} - Measures and logs the duration of each startup stage</li>
  * </ul>
  *
  * <p>Execution flow:</p>
  * <ul>
  *   <li>The {@code main} method in {@link main.App} serves as the application entry point</li>
- *   <li>Core services and database connections are initialized</li>
- *   <li>The main UI frame ({@link layout.MainLayout}) is instantiated</li>
+ *   <li>The database schema is checked and migrated on a background thread</li>
+ *   <li>Meanwhile, the main UI frame ({@link layout.MainLayout}) is instantiated and shown on the EDT</li>
+ *   <li>Notes and ToDo items are then loaded in parallel, and each tab is enabled when its data arrives</li>
  *   <li>Control is delegated to the Swing EDT (Event Dispatch Thread)</li>
  * </ul>
  *
@@ -1,5 +1,7 @@
 package notes;
 
+import common.interfaces.VersionedEntity;
+
 /**
  * Represents a single note with an ID, title, and content.
  * This class serves as the primary data model in the notes subsystem,
@@ -33,7 +35,7 @@ package notes;
  * @see notes.interfaces.NotesDatabaseManagement
  * @see layout.panels.NotesPanel
  */
-public class Notes {
+public class Notes implements VersionedEntity<Notes> {
     /**
      * The unique identifier for the note.
      *
@@ -70,6 +72,23 @@ public class Notes {
      */
     private String content;
 
+    /**
+     * Whether {@link #content} holds the note's content.
+     *
+     * <p>Notes loaded for list displays are summaries that only carry the ID and
+     * title; their content is fetched on demand by the service layer.</p>
+     */
+    private boolean contentLoaded;
+
+    /**
+     * The row version of the note in the database.
+     *
+     * <p>Starts at 0 when the note is inserted and is incremented by the persistence
+     * layer on every update. Delta refreshes compare versions to skip rows the cache
+     * already holds.</p>
+     */
+    private int version;
+
     /**
      * Constructs a new {@code Notes} instance for an unsaved note.
      *
@@ -83,6 +102,7 @@ public class Notes {
         this.id = 0; // Default ID for new, unsaved notes
         this.title = title;
         this.content = content;
+        this.contentLoaded = true;
     }
 
     /**
@@ -99,6 +119,23 @@ public class Notes {
         this.id = id;
         this.title = title;
         this.content = content;
+        this.contentLoaded = true;
+    }
+
+    /**
+     * Creates a summary of an existing note that carries only its ID and title.
+     *
+     * <p>Summaries are used to fill note lists without transferring every note's
+     * content. The content stays unloaded until {@link #setContent(String)} is called.</p>
+     *
+     * @param id    The unique identifier of the note, should be positive
+     * @param title The title of the note, should not be null
+     * @return A note whose content has not been loaded
+     */
+    public static Notes summary(int id, String title) {
+        Notes note = new Notes(id, title, null);
+        note.contentLoaded = false;
+        return note;
     }
 
     /**
@@ -106,6 +143,7 @@ public class Notes {
      *
      * @return The note's ID (0 for unsaved notes, positive integer for saved notes)
      */
+    @Override
     public int getId() {
         return id;
     }
@@ -122,12 +160,59 @@ public class Notes {
     /**
      * Returns the content of the note.
      *
-     * @return The note's content, may be empty but typically not null
+     * @return The note's content, may be empty; null if the content has not been loaded
+     * @see #isContentLoaded()
      */
     public String getContent() {
         return content;
     }
 
+    /**
+     * Indicates whether this note carries its content or is a summary.
+     *
+     * @return true if the content has been loaded or set, false for summaries
+     */
+    public boolean isContentLoaded() {
+        return contentLoaded;
+    }
+
+    /**
+     * Returns the row version of the note as last read or written by this application.
+     *
+     * @return The note's version, 0 for new notes
+     */
+    @Override
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the row version of the note.
+     *
+     * <p>Called by the persistence layer when the note is loaded or updated.</p>
+     *
+     * @param version The version stored in the database
+     */
+    @Override
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    /**
+     * Returns a copy of the note with the same ID, title, content and version.
+     *
+     * <p>A summary is copied as a summary, so writing the copy keeps the stored content.</p>
+     *
+     * @return A new note that can be changed without affecting this one
+     */
+    @Override
+    public Notes copy() {
+        Notes copy = new Notes(id, title, content);
+        copy.contentLoaded = contentLoaded;
+        copy.version = version;
+        return copy;
+    }
+
     /**
      * Sets the unique identifier for the note.
      *
@@ -168,9 +253,12 @@ public class Notes {
      * <p>This method does not perform validation on the new content.
      * Any required validation should be performed before calling this method.</p>
      *
+     * <p>Marks the content as loaded.</p>
+     *
      * @param content The new content for the note, should not be null but not validated here
      */
     public void setContent(String content) {
         this.content = content;
+        this.contentLoaded = true;
     }
 }
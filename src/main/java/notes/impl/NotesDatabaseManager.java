@@ -1,9 +1,18 @@
 package notes.impl;
 
+import common.Delta;
+import common.UpdateResult;
+import database.ChangeTracking;
 import database.DBHelper;
+import database.DatabaseConfig;
+import database.EntityMapper;
+import database.FullTextSearch;
+import database.ResultSetStreams;
 import java.sql.*;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 import notes.Notes;
 import notes.interfaces.NotesDatabaseManagement;
 
@@ -16,6 +25,10 @@ import notes.interfaces.NotesDatabaseManagement;
  * <ul>
  * <li>CRUD operations for Notes entities (Create, Read, Update, Delete)</li>
  * <li>Title-based search functionality</li>
+ * <li>Ranked full-text search over titles and content</li>
+ * <li>Summary (id, title) projections for list displays, with content fetched per note</li>
+ * <li>Delta refreshes based on row versions, update timestamps and delete tombstones</li>
+ * <li>Version-checked updates that report conflicting writes by other instances</li>
  * <li>Batch operations (clear all)</li>
  * <li>Custom sorting capabilities</li>
  * <li>Exception handling with appropriate error reporting</li>
@@ -26,7 +39,7 @@ import notes.interfaces.NotesDatabaseManagement;
  * <li>Uses JDBC for database connectivity via DBHelper</li>
  * <li>Implements connection pooling with try-with-resources for automatic resource management</li>
  * <li>Uses PreparedStatements to prevent SQL injection attacks</li>
- * <li>Maps between Java objects and database records</li>
+ * <li>Maps between Java objects and database records through shared {@link EntityMapper}s</li>
  * </ul>
  *
  * <p>This class serves as the persistence layer in the application's architecture,
@@ -44,6 +57,40 @@ import notes.interfaces.NotesDatabaseManagement;
  */
 public class NotesDatabaseManager implements NotesDatabaseManagement {
 
+    /**
+     * Updates a note's title and content and bumps its version and update time, provided the
+     * row still has the version the note was read with. A null content keeps the stored content,
+     * so updating a summary does not erase the note's text.
+     */
+    private static final String UPDATE_SQL =
+        "UPDATE notes SET title = ?, content = COALESCE(?, content), version = version + 1, "
+            + "updated_at = CURRENT_TIMESTAMP(3) WHERE id = ? AND version = ?";
+
+    /**
+     * Records a tombstone for a note and deletes it, both bound to the note's ID.
+     */
+    private static final List<String> DELETE_SQL =
+        List.of(ChangeTracking.tombstoneSql("notes"), "DELETE FROM notes WHERE id = ?");
+
+    /**
+     * Maps rows selecting id, title, content and version to complete notes.
+     */
+    private static final EntityMapper<Notes> NOTE = EntityMapper.of((rs, col) -> {
+        Notes note = new Notes(rs.getString(col[1]), rs.getString(col[2]));
+        note.setId(rs.getInt(col[0]));
+        note.setVersion(rs.getInt(col[3]));
+        return note;
+    }, "id", "title", "content", "version");
+
+    /**
+     * Maps rows selecting id, title and version to summaries without content.
+     */
+    private static final EntityMapper<Notes> SUMMARY = EntityMapper.of((rs, col) -> {
+        Notes note = Notes.summary(rs.getInt(col[0]), rs.getString(col[1]));
+        note.setVersion(rs.getInt(col[2]));
+        return note;
+    }, "id", "title", "version");
+
     /**
      * Constructs a new NotesDatabaseManager instance with no initialization.
      *
@@ -69,10 +116,12 @@ public class NotesDatabaseManager implements NotesDatabaseManagement {
      * <ul>
      * <li>Uses a prepared statement with parameter binding to prevent SQL injection</li>
      * <li>Retrieves and sets the database-generated ID on the note object</li>
-     * <li>Handles SQLExceptions internally and logs error messages</li>
+     * <li>Handles SQLExceptions by wrapping them in RuntimeException, so a surrounding
+     * {@link database.UnitOfWork} rolls back</li>
      * </ul>
      *
      * @param note The note to save, must not be null and should have title and content set
+     * @throws RuntimeException if a database error occurs during the save operation
      * @throws IllegalArgumentException if note is null (implied, not explicitly thrown)
      */
     @Override
@@ -88,6 +137,7 @@ public class NotesDatabaseManager implements NotesDatabaseManagement {
             stmt.setString(1, note.getTitle());
             stmt.setString(2, note.getContent());
             stmt.executeUpdate();
+            DBHelper.recordWrite();
 
             try (ResultSet rs = stmt.getGeneratedKeys()) {
                 if (rs.next()) {
@@ -95,7 +145,7 @@ public class NotesDatabaseManager implements NotesDatabaseManagement {
                 }
             }
         } catch (SQLException e) {
-            System.err.println("Error saving note: " + e.getMessage());
+            throw new RuntimeException("Error saving note: " + e.getMessage(), e);
         }
     }
 
@@ -106,25 +156,19 @@ public class NotesDatabaseManager implements NotesDatabaseManagement {
      * <p>Implementation Details:</p>
      * <ul>
      * <li>Uses a prepared statement with parameter binding to prevent SQL injection</li>
+     * <li>Records a tombstone in the same transaction, so delta refreshes see the deletion</li>
      * <li>Silently ignores if the note doesn't exist in the database</li>
-     * <li>Handles SQLExceptions internally and logs error messages</li>
+     * <li>Handles SQLExceptions by wrapping them in RuntimeException, so a surrounding
+     * {@link database.UnitOfWork} rolls back</li>
      * </ul>
      *
      * @param note The note to delete, must not be null and must have a valid ID
+     * @throws RuntimeException if a database error occurs during the delete operation
      * @throws IllegalArgumentException if note is null or has invalid ID (implied, not explicitly thrown)
      */
     @Override
     public void delete(Notes note) {
-        String sql = "DELETE FROM notes WHERE id = ?";
-        try (
-            Connection conn = DBHelper.getConnection();
-            PreparedStatement stmt = conn.prepareStatement(sql)
-        ) {
-            stmt.setInt(1, note.getId());
-            stmt.executeUpdate();
-        } catch (SQLException e) {
-            System.err.println("Error Deleting The Note: " + e.getMessage());
-        }
+        executeBatch(DELETE_SQL, List.of(note), NotesDatabaseManager::bindId, "Error Deleting The Note: ");
     }
 
     /**
@@ -135,27 +179,139 @@ public class NotesDatabaseManager implements NotesDatabaseManagement {
      * <ul>
      * <li>Uses a prepared statement with parameter binding to prevent SQL injection</li>
      * <li>Updates based on the note's ID field</li>
-     * <li>Silently ignores if the note doesn't exist in the database</li>
-     * <li>Handles SQLExceptions internally and logs error messages</li>
+     * <li>Keeps the stored content of summaries whose content was never loaded</li>
+     * <li>Only matches the row if its version equals the note's version</li>
+     * <li>Increments the note's version in the database and, on success, on the note itself</li>
+     * <li>When no row matches, checks whether the note still exists to tell a conflict from a deletion</li>
      * </ul>
      *
      * @param note The note to update, must not be null, must have valid ID, title and content
+     * @return The outcome of the version check
+     * @throws RuntimeException if a database error occurs during the update
      * @throws IllegalArgumentException if note is null or has invalid ID (implied, not explicitly thrown)
      */
     @Override
-    public void update(Notes note) {
-        String sql = "UPDATE notes SET title = ?, content = ? WHERE id = ?";
+    public UpdateResult update(Notes note) {
         try (
             Connection conn = DBHelper.getConnection();
-            PreparedStatement stmt = conn.prepareStatement(sql)
+            PreparedStatement stmt = conn.prepareStatement(UPDATE_SQL)
         ) {
-            stmt.setString(1, note.getTitle());
-            stmt.setString(2, note.getContent());
-            stmt.setInt(3, note.getId());
-            stmt.executeUpdate();
+            bindUpdate(stmt, note);
+            if (stmt.executeUpdate() == 0) {
+                return ChangeTracking.missedUpdate(conn, "notes", note.getId());
+            }
+            DBHelper.recordWrite();
+            note.setVersion(note.getVersion() + 1);
+            return UpdateResult.UPDATED;
         } catch (SQLException e) {
-            System.err.println("Error Updating The Note: " + e.getMessage());
+            throw new RuntimeException(
+                "Error Updating The Note: " + e.getMessage(),
+                e
+            );
+        }
+    }
+
+    /**
+     * Persists several new notes in one transaction using JDBC batching.
+     * Rows are sent to the server in chunks of {@link DatabaseConfig#getBatchSize()}.
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>Uses a single connection and prepared statement for the whole batch</li>
+     * <li>Collects the generated keys of every chunk in insertion order</li>
+     * <li>Assigns the IDs to the notes only after the transaction has committed</li>
+     * <li>Rolls back and rethrows on any failure, so no note is partially saved</li>
+     * </ul>
+     *
+     * @param notes The notes to save, must not be null; may be empty
+     * @throws RuntimeException if a database error occurs during the batch
+     */
+    @Override
+    public void saveAll(List<Notes> notes) {
+        if (notes.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO notes (title, content) VALUES (?, ?)";
+        int batchSize = DatabaseConfig.getBatchSize();
+        int[] ids = new int[notes.size()];
+        try (Connection conn = DBHelper.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                int assigned = 0;
+                for (int i = 0; i < notes.size(); i++) {
+                    Notes note = notes.get(i);
+                    stmt.setString(1, note.getTitle());
+                    stmt.setString(2, note.getContent());
+                    stmt.addBatch();
+                    if ((i + 1) % batchSize == 0 || i == notes.size() - 1) {
+                        stmt.executeBatch();
+                        assigned = readGeneratedKeys(stmt, ids, assigned);
+                    }
+                }
+                if (assigned != ids.length) {
+                    throw new SQLException("Expected " + ids.length + " generated keys but received " + assigned);
+                }
+                conn.commit();
+                DBHelper.recordWrite();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error saving notes: " + e.getMessage(), e);
+        }
+        for (int i = 0; i < ids.length; i++) {
+            notes.get(i).setId(ids[i]);
+        }
+    }
+
+    /**
+     * Updates several existing notes in one transaction using JDBC batching.
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>Uses the same version-checked UPDATE statement as {@link #update(Notes)}, batched in chunks</li>
+     * <li>Notes whose row was changed or deleted elsewhere match no row and are returned</li>
+     * <li>Increments the versions of the updated notes once the transaction has committed</li>
+     * <li>Rolls back and rethrows on any failure, so no note is partially updated</li>
+     * </ul>
+     *
+     * @param notes The notes to update, must not be null; may be empty
+     * @return The notes that were not updated because of a conflict, never null
+     * @throws RuntimeException if a database error occurs during the batch
+     */
+    @Override
+    public List<Notes> updateAll(List<Notes> notes) {
+        int[] counts = executeBatch(List.of(UPDATE_SQL), notes, NotesDatabaseManager::bindUpdate,
+                "Error updating notes: ");
+        List<Notes> conflicts = new ArrayList<>();
+        for (int i = 0; i < notes.size(); i++) {
+            Notes note = notes.get(i);
+            if (ChangeTracking.isApplied(counts[i])) {
+                note.setVersion(note.getVersion() + 1);
+            } else {
+                conflicts.add(note);
+            }
         }
+        return conflicts;
+    }
+
+    /**
+     * Deletes several notes in one transaction using JDBC batching.
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>Uses the same tombstone and DELETE statements as {@link #delete(Notes)}, batched in chunks</li>
+     * <li>Notes that no longer exist in the database are silently skipped</li>
+     * <li>Rolls back and rethrows on any failure, so no note is partially deleted</li>
+     * </ul>
+     *
+     * @param notes The notes to delete, must not be null; may be empty
+     * @throws RuntimeException if a database error occurs during the batch
+     */
+    @Override
+    public void deleteAll(List<Notes> notes) {
+        executeBatch(DELETE_SQL, notes, NotesDatabaseManager::bindId, "Error deleting notes: ");
     }
 
     /**
@@ -166,7 +322,7 @@ public class NotesDatabaseManager implements NotesDatabaseManagement {
      * <ul>
      * <li>Uses a prepared statement with parameter binding to prevent SQL injection</li>
      * <li>Performs case-sensitive search using SQL LIKE with wildcards</li>
-     * <li>Creates and populates Notes objects from the ResultSet</li>
+     * <li>Maps the rows with the shared {@link #NOTE} mapper</li>
      * </ul>
      *
      * @param title The text to search for within note titles, may be partial
@@ -175,24 +331,9 @@ public class NotesDatabaseManager implements NotesDatabaseManagement {
      */
     @Override
     public List<Notes> findByTitle(String title) {
-        List<Notes> notes = new ArrayList<>();
         String sql = "SELECT * FROM notes WHERE title LIKE ?";
-        try (
-            Connection conn = DBHelper.getConnection();
-            PreparedStatement stmt = conn.prepareStatement(sql)
-        ) {
-            stmt.setString(1, "%" + title + "%");
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    Notes note = new Notes(
-                        rs.getString("title"),
-                        rs.getString("content")
-                    );
-                    note.setId(rs.getInt("id"));
-                    notes.add(note);
-                }
-            }
-            return notes;
+        try {
+            return NOTE.query(sql, stmt -> stmt.setString(1, "%" + title + "%"));
         } catch (SQLException e) {
             throw new RuntimeException(
                 "Error finding notes by title: " + e.getMessage(),
@@ -202,40 +343,127 @@ public class NotesDatabaseManager implements NotesDatabaseManagement {
     }
 
     /**
-     * Retrieves all notes from the database in reverse chronological order (newest first).
+     * Searches note titles and content and returns summaries of the best matches.
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>On MySQL/MariaDB, uses the FULLTEXT index on (title, content) in boolean mode,
+     * requiring every word as a prefix and ordering by relevance</li>
+     * <li>On H2, matches the query as a case-insensitive substring of the title or content,
+     * listing title matches first</li>
+     * <li>Returns summaries; content is loaded per note with {@link #findById(int)}</li>
+     * </ul>
+     *
+     * @param query The text to search for; a blank query matches nothing
+     * @param limit The maximum number of notes to return
+     * @return Up to {@code limit} matching notes, most relevant first, empty list if none, never null
+     * @throws RuntimeException if a database error occurs during the search
+     */
+    @Override
+    public List<Notes> search(String query, int limit) {
+        boolean fullText = DatabaseConfig.getDialect().supportsFullTextSearch();
+        String term = fullText ? FullTextSearch.toBooleanQuery(query) : FullTextSearch.toLikePattern(query);
+        if (term.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String sql = fullText
+            ? "SELECT id, title, version, MATCH(title, content) AGAINST (? IN BOOLEAN MODE) AS score FROM notes "
+                + "WHERE MATCH(title, content) AGAINST (? IN BOOLEAN MODE) ORDER BY score DESC, id DESC LIMIT ?"
+            : "SELECT id, title, version FROM notes WHERE LOWER(title) LIKE ? OR LOWER(content) LIKE ? "
+                + "ORDER BY CASE WHEN LOWER(title) LIKE ? THEN 0 ELSE 1 END, id DESC LIMIT ?";
+        try {
+            return SUMMARY.query(sql, stmt -> {
+                int index = 1;
+                stmt.setString(index++, term);
+                stmt.setString(index++, term);
+                if (!fullText) {
+                    stmt.setString(index++, term);
+                }
+                stmt.setInt(index, limit);
+            });
+        } catch (SQLException e) {
+            throw new RuntimeException(
+                "Error searching notes: " + e.getMessage(),
+                e
+            );
+        }
+    }
+
+    /**
+     * Retrieves summaries of all notes in reverse chronological order (newest first).
      * Executes an SQL SELECT statement ordering by ID in descending order.
      *
      * <p>Implementation Details:</p>
      * <ul>
-     * <li>Uses a prepared statement for consistent query execution</li>
+     * <li>Selects only the id, title and version columns, so the load does not grow with content size</li>
      * <li>Orders results by ID descending, assuming IDs increase chronologically</li>
-     * <li>Creates and populates Notes objects from the ResultSet</li>
+     * <li>Returns summaries; content is loaded per note with {@link #findById(int)}</li>
      * </ul>
      *
-     * @return List of all Notes in the database, empty list if none exist, never null
+     * @return List of all Notes in the database as summaries, empty list if none exist, never null
      * @throws RuntimeException if a database error occurs during retrieval
      */
     @Override
     public List<Notes> refresh() {
-        List<Notes> notes = new ArrayList<>();
-        String sql = "SELECT * FROM notes ORDER BY id DESC";
-        try (
-            Connection conn = DBHelper.getConnection();
-            PreparedStatement stmt = conn.prepareStatement(sql);
-            ResultSet rs = stmt.executeQuery()
-        ) {
-            while (rs.next()) {
-                Notes note = new Notes(
-                    rs.getString("title"),
-                    rs.getString("content")
-                );
-                note.setId(rs.getInt("id"));
-                notes.add(note);
-            }
-            return notes;
+        return findSummaries("SELECT id, title, version FROM notes ORDER BY id DESC", "Error loading notes: ");
+    }
+
+    /**
+     * Retrieves summaries of the notes inserted or updated after a watermark,
+     * and the IDs of the notes deleted after it.
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>Reads the next watermark from the database clock before looking for changes</li>
+     * <li>Filters on the indexed updated_at column and on the tombstone table</li>
+     * <li>Starts the configured overlap before the watermark, so late commits are not missed</li>
+     * <li>Returns summaries, like {@link #refresh()}</li>
+     * </ul>
+     *
+     * @param watermark The watermark of the previous load or delta, must not be null
+     * @return The changed summaries, the deleted IDs and the next watermark, never null
+     * @throws RuntimeException if a database error occurs during retrieval
+     */
+    @Override
+    public Delta<Notes> refreshSince(Instant watermark) {
+        String sql = "SELECT id, title, version FROM notes WHERE updated_at > ? ORDER BY id";
+        Timestamp since = ChangeTracking.lowerBound(watermark);
+        try (Connection conn = DBHelper.getConnection()) {
+            Instant next = ChangeTracking.currentTime(conn);
+            List<Notes> changed = SUMMARY.query(conn, sql, stmt -> stmt.setTimestamp(1, since));
+            List<Integer> deleted = ChangeTracking.findDeletedIds(conn, "notes", since);
+            return new Delta<>(changed, deleted, next);
         } catch (SQLException e) {
             throw new RuntimeException(
-                "Error loading notes: " + e.getMessage(),
+                "Error loading note changes: " + e.getMessage(),
+                e
+            );
+        }
+    }
+
+    /**
+     * Retrieves a single note with its content.
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>Looks the note up by primary key</li>
+     * <li>Maps the row with the shared {@link #NOTE} mapper</li>
+     * <li>Used by the service's entity cache on a miss</li>
+     * </ul>
+     *
+     * @param id The ID of the note
+     * @return The note, or null if no note has that ID
+     * @throws RuntimeException if a database error occurs during retrieval
+     */
+    @Override
+    public Notes findById(int id) {
+        String sql = "SELECT id, title, content, version FROM notes WHERE id = ?";
+        try {
+            List<Notes> notes = NOTE.query(sql, stmt -> stmt.setInt(1, id));
+            return notes.isEmpty() ? null : notes.get(0);
+        } catch (SQLException e) {
+            throw new RuntimeException(
+                "Error loading note: " + e.getMessage(),
                 e
             );
         }
@@ -247,7 +475,7 @@ public class NotesDatabaseManager implements NotesDatabaseManagement {
      *
      * <p>Implementation Details:</p>
      * <ul>
-     * <li>Uses a prepared statement for consistent query execution</li>
+     * <li>Records a tombstone for every note in the same transaction</li>
      * <li>This is a permanent operation that cannot be undone</li>
      * </ul>
      *
@@ -255,12 +483,20 @@ public class NotesDatabaseManager implements NotesDatabaseManagement {
      */
     @Override
     public void clear() {
-        String sql = "DELETE FROM notes";
-        try (
-            Connection conn = DBHelper.getConnection();
-            PreparedStatement stmt = conn.prepareStatement(sql)
-        ) {
-            stmt.executeUpdate();
+        try (Connection conn = DBHelper.getConnection()) {
+            conn.setAutoCommit(false);
+            try (
+                PreparedStatement tombstones = conn.prepareStatement(ChangeTracking.tombstoneAllSql("notes"));
+                PreparedStatement stmt = conn.prepareStatement("DELETE FROM notes")
+            ) {
+                tombstones.executeUpdate();
+                stmt.executeUpdate();
+                conn.commit();
+                DBHelper.recordWrite();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
             throw new RuntimeException(
                 "Error deleting all notes: " + e.getMessage(),
@@ -270,17 +506,14 @@ public class NotesDatabaseManager implements NotesDatabaseManagement {
     }
 
     /**
-     * Retrieves all notes sorted alphabetically by title.
-     * Delegates to {@link #sortedGet(String)} with appropriate SQL.
-     *
-     * <p>Implementation Note: There appears to be a SQL syntax issue in the implementation
-     * as it references the 'todos' table instead of 'notes' table.</p>
+     * Retrieves summaries of all notes sorted alphabetically by title.
+     * Selects only the id, title and version columns, like {@link #refresh()}.
      *
-     * @return List of Notes sorted by title, empty list if none exist, never null
+     * @return List of Notes sorted by title as summaries, empty list if none exist, never null
      * @throws RuntimeException if a database error occurs during retrieval
      */
     public List<Notes> getSortedByTitle() {
-        return sortedGet("SELECT * FROM notes ORDER BY title");
+        return findSummaries("SELECT id, title, version FROM notes ORDER BY title", "Error getting sorted notes: ");
     }
 
     /**
@@ -290,7 +523,7 @@ public class NotesDatabaseManager implements NotesDatabaseManagement {
      * <p>Implementation Details:</p>
      * <ul>
      * <li>Uses a prepared statement to execute the provided SQL</li>
-     * <li>Creates and populates Notes objects from the ResultSet</li>
+     * <li>Maps the rows with the shared {@link #NOTE} mapper</li>
      * <li>Expects the SQL to select from a table with id, title, and content columns</li>
      * </ul>
      *
@@ -300,21 +533,8 @@ public class NotesDatabaseManager implements NotesDatabaseManagement {
      * @throws IllegalArgumentException if sql is null or invalid (implied, not explicitly thrown)
      */
     public List<Notes> sortedGet(String sql) {
-        List<Notes> notes = new ArrayList<>();
-        try (
-            Connection conn = DBHelper.getConnection();
-            PreparedStatement stmt = conn.prepareStatement(sql);
-            ResultSet rs = stmt.executeQuery()
-        ) {
-            while (rs.next()) {
-                int id = rs.getInt("id");
-                String title = rs.getString("title");
-                String content = rs.getString("content");
-                Notes note = new Notes(title, content);
-                note.setId(id);
-                notes.add(note);
-            }
-            return notes;
+        try {
+            return NOTE.query(sql, stmt -> { });
         } catch (SQLException e) {
             throw new RuntimeException(
                 "Error getting sorted notes: " + e.getMessage(),
@@ -322,4 +542,215 @@ public class NotesDatabaseManager implements NotesDatabaseManagement {
             );
         }
     }
+
+    /**
+     * Retrieves one page of note summaries using keyset pagination.
+     *
+     * <p>Supported sort orders:</p>
+     * <ul>
+     * <li>"Title" - by title, then id; continues after the previous page's (title, id)</li>
+     * <li>Default - newest first by id; continues below the previous page's id</li>
+     * </ul>
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>Filters on the key of the last row instead of using OFFSET, so deep pages stay cheap</li>
+     * <li>Expands the (title, id) comparison into OR form so the title index can be used</li>
+     * <li>Uses a fixed set of SQL strings, which keeps them in the statement cache</li>
+     * <li>Selects only the id, title and version columns; content is loaded per note</li>
+     * </ul>
+     *
+     * @param sortOption The sort order ("Title" or null for newest first)
+     * @param after The last note of the previous page, or null for the first page
+     * @param limit The maximum number of notes to return
+     * @return Up to {@code limit} notes following {@code after}, empty list if none, never null
+     * @throws RuntimeException if a database error occurs during retrieval
+     */
+    @Override
+    public List<Notes> page(String sortOption, Notes after, int limit) {
+        boolean byTitle = "Title".equals(sortOption);
+        String sql;
+        if (byTitle) {
+            sql = after == null
+                ? "SELECT id, title, version FROM notes ORDER BY title, id LIMIT ?"
+                : "SELECT id, title, version FROM notes WHERE title > ? OR (title = ? AND id > ?) ORDER BY title, id LIMIT ?";
+        } else {
+            sql = after == null
+                ? "SELECT id, title, version FROM notes ORDER BY id DESC LIMIT ?"
+                : "SELECT id, title, version FROM notes WHERE id < ? ORDER BY id DESC LIMIT ?";
+        }
+        try {
+            return SUMMARY.query(sql, stmt -> {
+                int index = 1;
+                if (after != null) {
+                    if (byTitle) {
+                        stmt.setString(index++, after.getTitle());
+                        stmt.setString(index++, after.getTitle());
+                    }
+                    stmt.setInt(index++, after.getId());
+                }
+                stmt.setInt(index, limit);
+            });
+        } catch (SQLException e) {
+            throw new RuntimeException(
+                "Error loading a page of notes: " + e.getMessage(),
+                e
+            );
+        }
+    }
+
+    /**
+     * Streams all notes, newest first, using the configured fetch size.
+     *
+     * @return A stream of notes that must be closed after use
+     * @throws RuntimeException if a database error occurs
+     * @see DatabaseConfig#getStreamFetchSize()
+     */
+    @Override
+    public Stream<Notes> stream() {
+        return stream(DatabaseConfig.getStreamFetchSize());
+    }
+
+    /**
+     * Streams all notes, newest first, through a forward-only, read-only cursor.
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>Rows are mapped lazily as the stream is consumed</li>
+     * <li>The pooled connection stays borrowed until the stream is closed</li>
+     * </ul>
+     *
+     * @param fetchSize The fetch size hint passed to the driver
+     * @return A stream of notes that must be closed after use
+     * @throws RuntimeException if a database error occurs
+     */
+    @Override
+    public Stream<Notes> stream(int fetchSize) {
+        try {
+            return ResultSetStreams.stream("SELECT * FROM notes ORDER BY id DESC", fetchSize, NOTE);
+        } catch (SQLException e) {
+            throw new RuntimeException(
+                "Error streaming notes: " + e.getMessage(),
+                e
+            );
+        }
+    }
+
+    /**
+     * Runs a query selecting id, title and version and maps every row to a summary.
+     *
+     * @param sql The query to execute
+     * @param errorMessage Prefix for the exception message on failure
+     * @return The summaries in result order, never null
+     * @throws RuntimeException if a database error occurs
+     */
+    private List<Notes> findSummaries(String sql, String errorMessage) {
+        try {
+            return SUMMARY.query(sql, stmt -> { });
+        } catch (SQLException e) {
+            throw new RuntimeException(errorMessage + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Binds a note's ID as the only parameter, as used by {@link #DELETE_SQL}.
+     */
+    private static void bindId(PreparedStatement stmt, Notes note) throws SQLException {
+        stmt.setInt(1, note.getId());
+    }
+
+    /**
+     * Binds a note to {@link #UPDATE_SQL}. Summaries bind a null content,
+     * which leaves the stored content unchanged.
+     */
+    private static void bindUpdate(PreparedStatement stmt, Notes note) throws SQLException {
+        stmt.setString(1, note.getTitle());
+        stmt.setString(2, note.isContentLoaded() ? note.getContent() : null);
+        stmt.setInt(3, note.getId());
+        stmt.setInt(4, note.getVersion());
+    }
+
+    /**
+     * Runs parameterized statements for every item in a single transaction,
+     * sending the rows in chunks of {@link DatabaseConfig#getBatchSize()}.
+     * Within each chunk the statements run in the given order.
+     *
+     * @param statements The statements to execute for each item, all taking the same parameters
+     * @param items The items to bind, one batch entry per item and statement
+     * @param binder Binds one item's values to a statement
+     * @param errorMessage Prefix for the exception message on failure
+     * @return The update count of the last statement for each item, in item order
+     * @throws RuntimeException if a database error occurs; the transaction is rolled back
+     */
+    private int[] executeBatch(List<String> statements, List<Notes> items, BatchBinder<Notes> binder,
+                               String errorMessage) {
+        int[] counts = new int[items.size()];
+        if (items.isEmpty()) {
+            return counts;
+        }
+        int batchSize = DatabaseConfig.getBatchSize();
+        try (Connection conn = DBHelper.getConnection()) {
+            conn.setAutoCommit(false);
+            List<PreparedStatement> prepared = new ArrayList<>(statements.size());
+            try {
+                for (String sql : statements) {
+                    prepared.add(conn.prepareStatement(sql));
+                }
+                for (int i = 0; i < items.size(); i++) {
+                    for (PreparedStatement stmt : prepared) {
+                        binder.bind(stmt, items.get(i));
+                        stmt.addBatch();
+                    }
+                    if ((i + 1) % batchSize == 0 || i == items.size() - 1) {
+                        int[] chunk = null;
+                        for (PreparedStatement stmt : prepared) {
+                            chunk = stmt.executeBatch();
+                        }
+                        System.arraycopy(chunk, 0, counts, i + 1 - chunk.length, chunk.length);
+                    }
+                }
+                conn.commit();
+                DBHelper.recordWrite();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                for (PreparedStatement stmt : prepared) {
+                    stmt.close();
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(errorMessage + e.getMessage(), e);
+        }
+        return counts;
+    }
+
+    /**
+     * Copies the keys generated by the last executed batch into {@code ids}.
+     *
+     * @param stmt The statement whose batch was just executed
+     * @param ids The array receiving the keys in insertion order
+     * @param offset The index of the first row of this batch
+     * @return The index following the last key that was read
+     * @throws SQLException if the generated keys cannot be read
+     */
+    private static int readGeneratedKeys(PreparedStatement stmt, int[] ids, int offset) throws SQLException {
+        int next = offset;
+        try (ResultSet rs = stmt.getGeneratedKeys()) {
+            while (rs.next() && next < ids.length) {
+                ids[next++] = rs.getInt(1);
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Binds the values of one item to a batched prepared statement.
+     *
+     * @param <E> The type of item being bound
+     */
+    @FunctionalInterface
+    private interface BatchBinder<E> {
+        void bind(PreparedStatement stmt, E item) throws SQLException;
+    }
 }
@@ -0,0 +1,378 @@
+package notes.impl;
+
+import common.IntIdMap;
+import common.PostingList;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import notes.Notes;
+
+/**
+ * In-memory inverted index over the titles and content of all notes, ranked with BM25.
+ *
+ * <p>Implementation Details:</p>
+ * <ul>
+ * <li>Text is normalized (Unicode decomposition without accents, lower case) and split into
+ * words of letters and digits; words in the title count {@value #TITLE_WEIGHT} times</li>
+ * <li>Queries are normalized the same way and match notes containing any of their words;
+ * notes containing more of them, or rarer ones, score higher</li>
+ * <li>Each word has a {@link PostingList} of the ordinals of the notes containing it,
+ * delta-encoded as variable-length integers, with the word's frequency in each note</li>
+ * <li>Every (re)indexed note gets a new ordinal, so the lists stay append-only; the ordinals
+ * of removed or re-indexed notes are skipped and the lists are compacted once more than half
+ * of the ordinals are dead</li>
+ * <li>A search scores the postings of each query word with BM25 and keeps the best
+ * {@code limit} notes in a bounded heap, so it never sorts all matches</li>
+ * <li>Scores are summed in an array reused by every search, and only the entries of the notes
+ * touched are read and reset, so a search costs time in the postings it reads rather than in
+ * the number of notes, and allocates nothing once the array has grown</li>
+ * </ul>
+ *
+ * <p>The index is not thread-safe; {@link NotesService} guards it with its own lock.</p>
+ *
+ * @see NotesService#search(String, int)
+ */
+final class NotesSearchIndex {
+    /** Number of times a word in the title is counted, so title matches rank first. */
+    static final int TITLE_WEIGHT = 3;
+
+    /** BM25 term frequency saturation. */
+    private static final double K1 = 1.2;
+    /** BM25 document length normalization. */
+    private static final double B = 0.75;
+    /** Dead ordinals tolerated before compaction is considered. */
+    private static final int MIN_DEAD_TO_COMPACT = 1024;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final Map<String, Term> terms = new HashMap<>();
+    private final IntIdMap<Doc> byNoteId = new IntIdMap<>();
+    /** The indexed note of each ordinal, or null if the ordinal is dead. */
+    private Doc[] docs = new Doc[64];
+    private int nextOrdinal;
+    private int deadOrdinals;
+    private long totalLength;
+    /** Score of each ordinal during a search; all zero between searches. */
+    private double[] scores = new double[64];
+    /** Ordinals with a non-zero score during a search. */
+    private int[] touched = new int[64];
+
+    /**
+     * Adds a note to the index, replacing its previous version.
+     *
+     * @param note The note, with its content loaded
+     */
+    void index(Notes note) {
+        remove(note.getId());
+        Map<String, int[]> frequencies = new HashMap<>();
+        int length = count(note.getTitle(), TITLE_WEIGHT, frequencies)
+                + count(note.getContent(), 1, frequencies);
+        if (nextOrdinal == docs.length) {
+            docs = Arrays.copyOf(docs, docs.length * 2);
+        }
+        int ordinal = nextOrdinal++;
+        Term[] noteTerms = new Term[frequencies.size()];
+        int i = 0;
+        for (Map.Entry<String, int[]> entry : frequencies.entrySet()) {
+            Term term = terms.computeIfAbsent(entry.getKey(), key -> new Term());
+            term.postings.add(ordinal, entry.getValue()[0]);
+            term.docFreq++;
+            noteTerms[i++] = term;
+        }
+        Doc doc = new Doc(note.getId(), note.getTitle(), note.getVersion(), length, noteTerms);
+        doc.ordinal = ordinal;
+        docs[ordinal] = doc;
+        byNoteId.put(doc.noteId, doc);
+        totalLength += length;
+    }
+
+    /**
+     * Removes a note from the index.
+     *
+     * @param noteId The note's ID
+     */
+    void remove(int noteId) {
+        Doc doc = byNoteId.remove(noteId);
+        if (doc == null) {
+            return;
+        }
+        docs[doc.ordinal] = null;
+        for (Term term : doc.terms) {
+            term.docFreq--;
+        }
+        totalLength -= doc.length;
+        deadOrdinals++;
+        if (deadOrdinals >= MIN_DEAD_TO_COMPACT && deadOrdinals > byNoteId.size()) {
+            compact();
+        }
+    }
+
+    /**
+     * Removes every note.
+     */
+    void clear() {
+        terms.clear();
+        byNoteId.clear();
+        docs = new Doc[64];
+        nextOrdinal = 0;
+        deadOrdinals = 0;
+        totalLength = 0;
+        scores = new double[64];
+        touched = new int[64];
+    }
+
+    /**
+     * @return The number of notes in the index
+     */
+    int size() {
+        return byNoteId.size();
+    }
+
+    /**
+     * Returns the notes matching any word of a query, best BM25 score first.
+     *
+     * @param query The text entered by the user
+     * @param limit The maximum number of notes to return, must be positive
+     * @return Summaries of up to {@code limit} notes, never null
+     */
+    List<Notes> search(String query, int limit) {
+        List<Notes> results = new ArrayList<>();
+        int documents = byNoteId.size();
+        if (documents == 0) {
+            return results;
+        }
+        double averageLength = Math.max(1.0, (double) totalLength / documents);
+        if (scores.length < nextOrdinal) {
+            scores = new double[Math.max(nextOrdinal, scores.length * 2)];
+        }
+        int matchCount = 0;
+        int[] top;
+        try {
+            for (String word : new LinkedHashSet<>(tokenize(query))) {
+                Term term = terms.get(word);
+                if (term == null || term.docFreq == 0) {
+                    continue;
+                }
+                double idf = Math.log(1 + (documents - term.docFreq + 0.5) / (term.docFreq + 0.5));
+                PostingList.Cursor cursor = term.postings.cursor();
+                while (cursor.next()) {
+                    Doc doc = docs[cursor.ordinal()];
+                    if (doc == null) {
+                        continue;
+                    }
+                    int tf = cursor.frequency();
+                    double norm = K1 * (1 - B + B * doc.length / averageLength);
+                    if (scores[doc.ordinal] == 0) {
+                        if (matchCount == touched.length) {
+                            touched = Arrays.copyOf(touched, matchCount * 2);
+                        }
+                        touched[matchCount++] = doc.ordinal;
+                    }
+                    scores[doc.ordinal] += idf * tf * (K1 + 1) / (tf + norm);
+                }
+            }
+            top = topK(scores, touched, matchCount, limit);
+        } finally {
+            for (int i = 0; i < matchCount; i++) {
+                scores[touched[i]] = 0;
+            }
+        }
+        for (int ordinal : top) {
+            Doc doc = docs[ordinal];
+            Notes note = Notes.summary(doc.noteId, doc.title);
+            note.setVersion(doc.version);
+            results.add(note);
+        }
+        return results;
+    }
+
+    /**
+     * Splits text into normalized words: accents removed, lower case, letters and digits only.
+     *
+     * @param text The text, may be null
+     * @return The words in order, with repetitions
+     */
+    static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return words;
+        }
+        String normalized = isAscii(text)
+                ? text.toLowerCase(Locale.ROOT)
+                : MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i < normalized.length(); i++) {
+            if (Character.isLetterOrDigit(normalized.charAt(i))) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                words.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        if (start >= 0) {
+            words.add(normalized.substring(start));
+        }
+        return words;
+    }
+
+    /**
+     * @return true if the text needs no Unicode normalization
+     */
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds the words of a field to the frequency table.
+     *
+     * @return The number of words counted, including the weight
+     */
+    private static int count(String text, int weight, Map<String, int[]> frequencies) {
+        List<String> words = tokenize(text);
+        for (String word : words) {
+            frequencies.computeIfAbsent(word, key -> new int[1])[0] += weight;
+        }
+        return words.size() * weight;
+    }
+
+    /**
+     * Selects the best scored ordinals with a bounded min-heap.
+     *
+     * @return The ordinals, best first
+     */
+    private static int[] topK(double[] scores, int[] candidates, int count, int limit) {
+        int k = Math.min(limit, count);
+        int[] heap = new int[k];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            int ordinal = candidates[i];
+            if (size < k) {
+                heap[size] = ordinal;
+                siftUp(heap, size++, scores);
+            } else if (better(ordinal, heap[0], scores)) {
+                heap[0] = ordinal;
+                siftDown(heap, size, scores);
+            }
+        }
+        // Pop the worst first to fill the result from the back.
+        int[] sorted = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            sorted[i] = heap[0];
+            heap[0] = heap[--size];
+            siftDown(heap, size, scores);
+        }
+        return sorted;
+    }
+
+    /**
+     * Orders by score, then by newer ordinal, which usually means the more recently edited note.
+     */
+    private static boolean better(int a, int b, double[] scores) {
+        return scores[a] > scores[b] || (scores[a] == scores[b] && a > b);
+    }
+
+    private static void siftUp(int[] heap, int index, double[] scores) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!better(heap[parent], heap[index], scores)) {
+                return;
+            }
+            swap(heap, parent, index);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, double[] scores) {
+        int index = 0;
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && better(heap[smallest], heap[left], scores)) {
+                smallest = left;
+            }
+            if (right < size && better(heap[smallest], heap[right], scores)) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(heap, smallest, index);
+            index = smallest;
+        }
+    }
+
+    private static void swap(int[] heap, int i, int j) {
+        int tmp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = tmp;
+    }
+
+    /**
+     * Renumbers the live notes consecutively and rewrites every posting list without the
+     * dead ordinals, dropping words no longer used.
+     */
+    private void compact() {
+        int[] remap = new int[nextOrdinal];
+        Doc[] live = new Doc[Math.max(64, byNoteId.size() * 2)];
+        int next = 0;
+        for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+            Doc doc = docs[ordinal];
+            if (doc == null) {
+                remap[ordinal] = -1;
+            } else {
+                remap[ordinal] = next;
+                doc.ordinal = next;
+                live[next++] = doc;
+            }
+        }
+        terms.values().removeIf(term -> term.docFreq == 0);
+        for (Term term : terms.values()) {
+            term.postings = term.postings.compact(remap);
+        }
+        docs = live;
+        nextOrdinal = next;
+        deadOrdinals = 0;
+    }
+
+    /**
+     * A word of the index: its postings and the number of live notes containing it.
+     */
+    private static final class Term {
+        PostingList postings = new PostingList(true);
+        int docFreq;
+    }
+
+    /**
+     * An indexed note: what a search returns, its weighted length and its distinct words.
+     */
+    private static final class Doc {
+        final int noteId;
+        final String title;
+        final int version;
+        final int length;
+        final Term[] terms;
+        int ordinal;
+
+        Doc(int noteId, String title, int version, int length, Term[] terms) {
+            this.noteId = noteId;
+            this.title = title;
+            this.version = version;
+            this.length = length;
+            this.terms = terms;
+        }
+    }
+}
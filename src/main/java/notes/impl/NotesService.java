@@ -1,8 +1,25 @@
 package notes.impl;
 
+import common.ConflictException;
+import common.EntityCache;
+import common.EntityCacheStats;
+import common.IntIdMap;
+import common.Delta;
+import common.UpdateResult;
+import common.WriteBehindQueue;
+import common.WriteBehindStats;
 import common.interfaces.Services;
+import database.ChangeTracking;
+import database.DatabaseConfig;
+import database.UnitOfWork;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
 import notes.Notes;
 import notes.interfaces.NotesDatabaseManagement;
 
@@ -16,6 +33,11 @@ import notes.interfaces.NotesDatabaseManagement;
  * <li>In-memory caching of notes for improved performance</li>
  * <li>CRUD operations delegated to the repository layer</li>
  * <li>Note summarization functionality for list displays</li>
+ * <li>Lazy loading of note content, fetched once per note when it is opened</li>
+ * <li>Ranked search over titles and content of all notes, served by an in-memory BM25 index</li>
+ * <li>Delta refreshes that apply only the notes changed or deleted since the last load</li>
+ * <li>Writes join a surrounding {@link UnitOfWork}; the cache is reloaded if the unit is rolled back</li>
+ * <li>Optimistic concurrency: updates of notes changed elsewhere are rejected and the cache re-synced</li>
  * <li>Custom sorting capabilities</li>
  * <li>String representation for debugging and logging</li>
  * </ul>
@@ -25,7 +47,17 @@ import notes.interfaces.NotesDatabaseManagement;
  * <li>Uses an injected repository (NotesDatabaseManagement) for persistent storage operations</li>
  * <li>Maintains a cached list of notes that is synchronized with the database</li>
  * <li>Follows the Service Layer pattern in a multi-tier architecture</li>
- * <li>Not explicitly thread-safe - concurrent modifications may cause inconsistencies</li>
+ * <li>Cached notes are indexed by ID in an {@link IntIdMap}, so lookups by ID take constant time.
+ * Each is filed under the sort key it was inserted with, so its position is found by binary
+ * search in O(log n) even after its title was edited in place; inserting or removing it
+ * still shifts the array list, which is O(n)</li>
+ * <li>While the whole table is loaded, changing the sort order re-sorts the list cache in memory
+ * instead of querying the database</li>
+ * <li>Optional write-behind mode that queues and merges updates and deletes (see {@link WriteBehindQueue})</li>
+ * <li>Single notes are looked up through a bounded read-through {@link EntityCache}, which is written
+ * through on every save, update and delete</li>
+ * <li>Cache and paging state are guarded by a lock, so the asynchronous methods may overlap;
+ * inserts, deletes and updates run their database call outside the lock</li>
  * </ul>
  *
  * <p>This class serves as part of the service layer in the application's architecture,
@@ -58,24 +90,156 @@ public class NotesService implements Services<Notes> {
      */
     private List<Notes> notesList;
 
+    /**
+     * Index of the cached notes by ID, holding exactly the entities in the list cache.
+     */
+    private final IntIdMap<Notes> byId = new IntIdMap<>();
+
+    /**
+     * The order of the list cache for {@link #sortOption}, see {@link #orderFor(String)}.
+     */
+    private Comparator<Notes> order = orderFor(null);
+
+    /**
+     * The sort key of {@link #order}, see {@link #sortKeyFor(String)}, or null when the list
+     * cache is ordered by ID alone.
+     */
+    private Function<Notes, String> sortKey;
+
+    /**
+     * The sort key each cached entity was filed under, by ID, while {@link #sortKey} is set.
+     * The list cache is ordered by these keys rather than the entities' current fields, so an
+     * entity edited in place before it is passed to {@link #update} is still found by binary search.
+     */
+    private final IntIdMap<String> filedKeys = new IntIdMap<>();
+
+    /**
+     * Stands in for a null sort key in {@link #filedKeys}, which does not hold null values.
+     */
+    private static final String NULL_KEY = new String();
+
+    /**
+     * The sort option applied to the cache, as last passed to {@link #sort(String)}.
+     * A null value selects the repository's default order.
+     */
+    private String sortOption;
+
+    /**
+     * The page size used for paged loading, or 0 when the whole table is loaded at once.
+     * Set by {@link #loadFirstPage(int)}.
+     */
+    private int pageSize;
+
+    /**
+     * Whether the last page request returned a full page, meaning more rows may follow.
+     */
+    private boolean hasMore;
+
+    /**
+     * Detached copy of the last row returned by the repository in paged mode.
+     * The next page starts after this row's sort key, even if the cached row
+     * has since been edited or removed.
+     */
+    private Notes pageCursor;
+
+    /**
+     * Database time taken before the cache was last loaded or brought up to date, or null
+     * before the first load. {@link #refreshChanges()} fetches the changes made after it.
+     */
+    private Instant watermark;
+
+    /**
+     * Guards the cache and the paging state, so that the asynchronous operations inherited
+     * from {@link Services} may run concurrently. A {@link ReentrantLock} is used instead of
+     * {@code synchronized} so that virtual threads loading a page under the lock do not pin
+     * their carrier thread.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Queue for deferred updates and deletes, or null when every write goes straight to the repository.
+     */
+    private final WriteBehindQueue<Notes> writeBehind;
+
+    /**
+     * Read-through cache of single notes by ID, kept separate from the list cache so that lookups
+     * of notes on pages that have not been loaded do not go to the database every time.
+     */
+    private final EntityCache<Notes> entities;
+
+    /**
+     * Whether {@link #search(String, int)} uses {@link #searchIndex} instead of the repository's search.
+     */
+    private final boolean indexedSearch = DatabaseConfig.isSearchIndexEnabled();
+
+    /**
+     * Inverted index over the title and content of every note in the database, built on the first
+     * search and kept up to date by this service's writes. Guarded by {@link #indexLock}.
+     */
+    private final NotesSearchIndex searchIndex = new NotesSearchIndex();
+
+    /**
+     * Whether {@link #searchIndex} holds every note. Guarded by {@link #indexLock}.
+     */
+    private boolean searchIndexBuilt;
+
+    /**
+     * Guards the search index separately from the list cache, so that building it does not block
+     * the list. When both are needed, {@link #lock} is taken first.
+     */
+    private final ReentrantLock indexLock = new ReentrantLock();
+
     /**
      * Constructs a new NotesService with the specified repository.
-     * Initializes the notes cache and populates it with all notes from the repository.
+     * Initializes an empty notes cache; nothing is loaded until
+     * {@link #refresh()} or {@link #loadFirstPage(int)} is called.
      *
      * <p>Implementation Details:</p>
      * <ul>
      * <li>Stores the repository reference for later use</li>
      * <li>Creates an empty ArrayList to hold cached notes</li>
-     * <li>Calls refresh() to populate the cache from the database</li>
+     * <li>Defers loading so that callers can choose between a full load and paged loading</li>
      * </ul>
      *
      * @param repository The data access object for notes persistence, must not be null
      * @throws IllegalArgumentException if repository is null (implied, not explicitly thrown)
      */
     public NotesService(NotesDatabaseManagement repository) {
+        this(repository, null);
+    }
+
+    /**
+     * Constructs a new NotesService that defers updates and deletes to a write-behind queue.
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>Updates and deletes change the cache immediately and are written by the queue in batches</li>
+     * <li>Repeated updates of the same note are merged into a single write</li>
+     * <li>Pending writes are flushed before the cache is reloaded or the database is searched</li>
+     * <li>New notes are still saved immediately, since they need their generated ID</li>
+     * </ul>
+     *
+     * @param repository The data access object for note persistence, must not be null
+     * @param writeBehind The queue for deferred writes, or null to write through to the repository
+     */
+    public NotesService(NotesDatabaseManagement repository, WriteBehindQueue<Notes> writeBehind) {
         this.repository = repository;
+        this.writeBehind = writeBehind;
         this.notesList = new ArrayList<>();
-        refresh();
+        this.entities = EntityCache.fromConfig(this::loadById, NotesService::weigh);
+        if (writeBehind != null) {
+            writeBehind.setListener(new WriteBehindQueue.Listener<>() {
+                @Override
+                public void written(List<Notes> updated) {
+                    applyWrittenVersions(updated);
+                }
+
+                @Override
+                public void dropped(List<Integer> ids) {
+                    reloadDropped(ids);
+                }
+            });
+        }
     }
 
     /**
@@ -83,7 +247,9 @@ public class NotesService implements Services<Notes> {
      * Returns a direct reference to the internal list, not a defensive copy.
      *
      * <p>Implementation Note: Callers should not modify the returned list directly
-     * as this could cause inconsistencies between the cache and the database.</p>
+     * as this could cause inconsistencies between the cache and the database. The list may be
+     * replaced or changed by concurrent operations, so it should only be read on the thread
+     * that awaited them.</p>
      *
      * @return List of all cached Notes objects, may be empty but never null
      */
@@ -99,7 +265,8 @@ public class NotesService implements Services<Notes> {
      * <p>Implementation Details:</p>
      * <ul>
      * <li>Persists the note to the database via the repository</li>
-     * <li>Adds the note to the in-memory cache</li>
+     * <li>Inserts the note into the in-memory cache at its position in the current sort order</li>
+     * <li>In paged mode, skips it if it sorts after the loaded pages; it arrives with its page</li>
      * <li>The note ID is set by the repository during save operation</li>
      * </ul>
      *
@@ -108,8 +275,16 @@ public class NotesService implements Services<Notes> {
      */
     @Override
     public void add(Notes note) {
+        reloadOnRollback();
         repository.save(note);
-        notesList.add(note);
+        cacheWritten(note);
+        updateSearchIndex(note);
+        lock.lock();
+        try {
+            placeInOrder(note);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -127,8 +302,115 @@ public class NotesService implements Services<Notes> {
      */
     @Override
     public void delete(Notes note) {
-        repository.delete(note);
-        notesList.remove(note);
+        reloadOnRollback();
+        if (writeBehind != null) {
+            writeBehind.delete(note);
+        } else {
+            repository.delete(note);
+        }
+        entities.invalidate(note.getId());
+        removeFromSearchIndex(note.getId());
+        lock.lock();
+        try {
+            removeById(note.getId());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds several new notes to the database in one batch and inserts them into the in-memory cache.
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>Persists all notes in a single transaction via the repository</li>
+     * <li>The repository assigns the generated IDs in list order</li>
+     * <li>The cache is only changed once the batch has been persisted</li>
+     * </ul>
+     *
+     * @param notes The notes to add, must not be null; may be empty
+     * @throws RuntimeException if the batch cannot be persisted
+     */
+    @Override
+    public void addAll(List<Notes> notes) {
+        reloadOnRollback();
+        repository.saveAll(notes);
+        notes.forEach(this::cacheWritten);
+        notes.forEach(this::updateSearchIndex);
+        lock.lock();
+        try {
+            notes.forEach(this::placeInOrder);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Updates several notes in the database in one batch and moves them to their new positions
+     * in the in-memory cache, without reloading it.
+     * Notes changed or deleted elsewhere since they were loaded are not written; the other
+     * updates are kept, and the stale notes are replaced by their stored state.
+     *
+     * @param notes The notes to update, must not be null; may be empty
+     * @throws ConflictException if some notes were changed or deleted elsewhere
+     * @throws RuntimeException if the batch cannot be persisted
+     */
+    @Override
+    public void updateAll(List<Notes> notes) {
+        reloadOnRollback();
+        List<Notes> conflicts = List.of();
+        if (writeBehind != null) {
+            notes.forEach(writeBehind::update);
+        } else {
+            conflicts = repository.updateAll(notes);
+        }
+        notes.forEach(this::cacheWritten);
+        notes.forEach(this::updateSearchIndex);
+        lock.lock();
+        try {
+            notes.forEach(this::reposition);
+        } finally {
+            lock.unlock();
+        }
+        if (!conflicts.isEmpty()) {
+            rejectConflicts(conflicts);
+        }
+    }
+
+    /**
+     * Deletes several notes from the database in one batch and removes them from the in-memory cache.
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>Deletes all notes in a single transaction via the repository</li>
+     * <li>Removes them from the cache in one pass using a set of their IDs</li>
+     * </ul>
+     *
+     * @param notes The notes to delete, must not be null; may be empty
+     * @throws RuntimeException if the batch cannot be persisted
+     */
+    @Override
+    public void deleteAll(List<Notes> notes) {
+        reloadOnRollback();
+        if (writeBehind != null) {
+            notes.forEach(writeBehind::delete);
+        } else {
+            repository.deleteAll(notes);
+        }
+        notes.forEach(item -> {
+            entities.invalidate(item.getId());
+            removeFromSearchIndex(item.getId());
+        });
+        lock.lock();
+        try {
+            notes.forEach(item -> {
+                byId.remove(item.getId());
+                filedKeys.remove(item.getId());
+            });
+            notesList.removeIf(item -> !byId.containsKey(item.getId()));
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -137,7 +419,7 @@ public class NotesService implements Services<Notes> {
      *
      * <p>Implementation Details:</p>
      * <ul>
-     * <li>Requests a fresh list of notes from the repository</li>
+     * <li>Requests a fresh list of notes from the repository, in the current sort order</li>
      * <li>Replaces the entire in-memory cache with this new list</li>
      * </ul>
      *
@@ -146,26 +428,584 @@ public class NotesService implements Services<Notes> {
      */
     @Override
     public void refresh() {
-        notesList = repository.refresh();
+        flushPendingWrites();
+        entities.invalidateAll();
+        dropSearchIndex();
+        lock.lock();
+        try {
+            if (pageSize > 0) {
+                reloadPages(Math.max(pageSize, notesList.size()));
+                return;
+            }
+            loadAllInOrder();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applies the notes inserted, updated or deleted in the database since the cache was
+     * last loaded or brought up to date, without reloading unchanged notes.
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>Fetches the delta with {@link NotesDatabaseManagement#refreshSince(Instant)}, whose cost
+     * grows with the number of changes rather than the number of notes</li>
+     * <li>Removes deleted notes first, then places changed notes in the current sort order</li>
+     * <li>Skips notes whose cached version is already current, including this service's own writes</li>
+     * <li>Changed notes arrive as summaries, so their content is reloaded when they are next opened</li>
+     * <li>In paged mode, changed notes that sort after the loaded pages are left for a later page</li>
+     * <li>Falls back to {@link #refresh()} if nothing has been loaded yet, or if the last load
+     * is older than the tombstone retention, so deletions may no longer be recorded</li>
+     * </ul>
+     *
+     * @return The number of notes added, replaced or removed in the cache
+     * @throws RuntimeException if a database error occurs
+     */
+    @Override
+    public int refreshChanges() {
+        flushPendingWrites();
+        lock.lock();
+        try {
+            if (watermark == null) {
+                refresh();
+                return notesList.size();
+            }
+            Delta<Notes> delta = repository.refreshSince(watermark);
+            if (ChangeTracking.isBeyondRetention(watermark, delta.getWatermark())) {
+                // Tombstones of deletions since the watermark may have been pruned.
+                refresh();
+                return notesList.size();
+            }
+            int applied = 0;
+            for (int id : delta.getDeletedIds()) {
+                entities.invalidate(id);
+                removeFromSearchIndex(id);
+                if (removeById(id)) {
+                    applied++;
+                }
+            }
+            for (Notes changed : delta.getChanged()) {
+                Notes cached = findCached(changed.getId());
+                if (cached != null && cached.getVersion() >= changed.getVersion()) {
+                    continue;
+                }
+                entities.invalidate(changed.getId());
+                updateSearchIndex(changed);
+                boolean removed = removeById(changed.getId());
+                if (placeInOrder(changed) || removed) {
+                    applied++;
+                }
+            }
+            watermark = delta.getWatermark();
+            return applied;
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
-     * Updates an existing note in both the database and refreshes the in-memory cache.
-     * Delegates to the repository for persistence and refreshes the entire cache.
+     * Switches the service to paged loading and replaces the cache with the first page
+     * in the current sort order.
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>Requests at most {@code pageSize} rows from the repository using keyset pagination</li>
+     * <li>Later calls to {@link #refresh()} and {@link #sort(String)} stay in paged mode</li>
+     * </ul>
+     *
+     * @param pageSize The number of notes per page, must be positive
+     * @throws IllegalArgumentException if pageSize is not positive
+     */
+    @Override
+    public void loadFirstPage(int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        flushPendingWrites();
+        lock.lock();
+        try {
+            this.pageSize = pageSize;
+            reloadPages(pageSize);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends the next page of notes to the cache.
+     * The page continues after the last row previously returned by the repository,
+     * so notes added locally in the meantime do not shift the page boundaries.
+     *
+     * @return true if any notes were appended, false at the end of the table or when not paged
+     */
+    @Override
+    public boolean loadNextPage() {
+        flushPendingWrites();
+        lock.lock();
+        try {
+            if (!hasMorePages()) {
+                return false;
+            }
+            List<Notes> page = repository.page(sortOption, pageCursor, pageSize);
+            acceptPage(page, pageSize);
+            notesList.addAll(page);
+            page.forEach(this::putCached);
+            return !page.isEmpty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Indicates whether the repository may hold more notes than the pages loaded so far.
+     *
+     * @return true in paged mode while the last page request returned a full page
+     */
+    @Override
+    public boolean hasMorePages() {
+        lock.lock();
+        try {
+            return pageSize > 0 && hasMore;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the order of the cache for a sort option, matching the repository's queries.
+     * Text is compared case-insensitively to approximate the database collation;
+     * {@link #refresh()} restores the database order exactly. Cached entities are compared by
+     * the key they were filed under, see {@link #filedKey}.
+     *
+     * <ul>
+     * <li>"Title" - by title, then ID</li>
+     * <li>Default - newest first, by descending ID</li>
+     * </ul>
+     *
+     * @param option The sort option, or null for the default order
+     * @return A comparator with the entity ID as the final tie-break
+     */
+    private Comparator<Notes> orderFor(String option) {
+        if ("Title".equals(option)) {
+            return Comparator.comparing(this::filedKey, String.CASE_INSENSITIVE_ORDER)
+                    .thenComparingInt(Notes::getId);
+        }
+        return Comparator.comparingInt(Notes::getId).reversed();
+    }
+
+    /**
+     * Returns the sort key of a sort option, matching {@link #orderFor(String)}.
+     *
+     * @param option The sort option, or null for the default order
+     * @return The key the list is ordered by before the ID, or null when it is ordered by ID alone
+     */
+    private static Function<Notes, String> sortKeyFor(String option) {
+        if ("Title".equals(option)) {
+            return Notes::getTitle;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the sort key {@code item} is ordered by in the list cache: the key it was filed
+     * under while it is cached, otherwise its current key. Must be called with the lock held.
+     *
+     * @param item The entity to compare
+     * @return The sort key, possibly null
+     */
+    private String filedKey(Notes item) {
+        String key = filedKeys.get(item.getId());
+        if (key == null) {
+            return sortKey.apply(item);
+        }
+        return key == NULL_KEY ? null : key;
+    }
+
+    /**
+     * Adds {@code item} to the ID index and files it under its current sort key.
+     * Must be called with the lock held.
+     *
+     * @param item The entity added to the list cache
+     */
+    private void putCached(Notes item) {
+        byId.put(item.getId(), item);
+        if (sortKey != null) {
+            String key = sortKey.apply(item);
+            filedKeys.put(item.getId(), key == null ? NULL_KEY : key);
+        }
+    }
+
+    /**
+     * Re-files every cached entity under its current sort key, e.g. after the sort option changed.
+     * Must be called with the lock held.
+     */
+    private void refileKeys() {
+        filedKeys.clear();
+        notesList.forEach(this::putCached);
+    }
+
+    /**
+     * Inserts {@code item} into the cache at its position in the current sort order.
+     * In paged mode an item that sorts after the last loaded row is left out, since it
+     * belongs to a page that has not been loaded yet. Must be called with the lock held.
+     *
+     * @param item The entity to insert
+     * @return true if the item was added to the cache
+     */
+    private boolean placeInOrder(Notes item) {
+        int index = Collections.binarySearch(notesList, item, order);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        if (index == notesList.size() && hasMorePages()) {
+            return false;
+        }
+        notesList.add(index, item);
+        putCached(item);
+        return true;
+    }
+
+    /**
+     * Replaces the cached entity with the same ID as {@code item} and moves it to its
+     * position in the current sort order. Must be called with the lock held.
+     *
+     * @param item The entity in its updated state
+     */
+    private void reposition(Notes item) {
+        removeById(item.getId());
+        placeInOrder(item);
+    }
+
+    /**
+     * Removes the cached entity with the given ID. Must be called with the lock held.
+     * Finding it takes O(log n) time, but removing it from the array list shifts the
+     * entries after it, so the removal as a whole is O(n).
+     *
+     * @param id The entity ID
+     * @return true if an entity was removed
+     */
+    private boolean removeById(int id) {
+        Notes cached = byId.remove(id);
+        if (cached == null) {
+            return false;
+        }
+        notesList.remove(indexOf(cached));
+        filedKeys.remove(id);
+        return true;
+    }
+
+    /**
+     * Returns the position of a cached entity in the list cache. Must be called with the lock held.
+     * <p>
+     * The entity is found by binary search on the key it was filed under, in O(log n) time,
+     * even if its sort key was changed in place before it was passed to {@link #update}. Only
+     * if the database collation placed it differently from {@link #orderFor(String)} does the
+     * search miss, and the list is then scanned for the instance instead.
+     *
+     * @param cached An entity held by the list cache
+     * @return Its index in the list
+     */
+    private int indexOf(Notes cached) {
+        int index = Collections.binarySearch(notesList, cached, order);
+        if (index >= 0 && notesList.get(index) == cached) {
+            return index;
+        }
+        for (int i = 0; i < notesList.size(); i++) {
+            if (notesList.get(i) == cached) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Cached entity " + cached.getId() + " is not in the list");
+    }
+
+    /**
+     * Replaces the list cache with entities loaded from the repository and re-indexes them.
+     * Must be called with the lock held.
+     *
+     * @param items The entities in the current sort order
+     */
+    private void replaceCache(List<Notes> items) {
+        notesList = items;
+        byId.clear();
+        filedKeys.clear();
+        items.forEach(this::putCached);
+    }
+
+    /**
+     * Loads every note from the repository in the current sort option's order, sorted by
+     * title for "Title" and in default order otherwise, and replaces the list cache with them.
+     * Must be called with the lock held.
+     */
+    private void loadAllInOrder() {
+        watermark = repository.currentWatermark();
+        if (sortOption == null) {
+            replaceCache(repository.refresh());
+            return;
+        }
+        switch (sortOption) {
+            case "Title" -> replaceCache(repository.getSortedByTitle());
+            default -> replaceCache(repository.refresh());
+        }
+    }
+
+    /**
+     * Returns the cached entity with the given ID. Must be called with the lock held.
+     *
+     * @param id The entity ID
+     * @return The cached entity, or null if it is not cached
+     */
+    private Notes findCached(int id) {
+        return byId.get(id);
+    }
+
+    /**
+     * Replaces notes whose update was rejected by the version check with their stored state,
+     * by applying the changes made since the last load, and reports the conflict.
+     *
+     * @param stale The notes that were not written
+     * @throws ConflictException always
+     */
+    private void rejectConflicts(List<Notes> stale) {
+        List<Integer> ids = new ArrayList<>();
+        stale.forEach(note -> ids.add(note.getId()));
+        ids.forEach(entities::invalidate);
+        refreshChanges();
+        String message = stale.size() == 1
+                ? "The note \"" + stale.get(0).getTitle() + "\" was changed or deleted by another user. "
+                    + "Your edit was not saved and the current version has been loaded."
+                : stale.size() + " notes were changed or deleted by another user. "
+                    + "Those edits were not saved and the current versions have been loaded.";
+        throw new ConflictException(message, ids);
+    }
+
+    /**
+     * Reloads the cache if the surrounding {@link UnitOfWork} is rolled back, since the cache
+     * already reflects the writes made inside it. Does nothing outside a unit of work.
+     */
+    private void reloadOnRollback() {
+        UnitOfWork.afterRollback(this, this::refresh);
+    }
+
+    /**
+     * Stores a note that was just saved or updated in the entity cache.
+     * A summary without content is dropped instead, since the cache holds complete notes.
+     *
+     * @param note The note as written
+     */
+    private void cacheWritten(Notes note) {
+        if (note.isContentLoaded()) {
+            entities.put(note.getId(), note);
+        } else {
+            entities.invalidate(note.getId());
+        }
+    }
+
+    /**
+     * Loads a note for the entity cache, writing pending write-behind changes first so that
+     * a note deleted or updated in the queue is not read in its old state.
+     *
+     * @param id The ID of the note
+     * @return The note, or null if it does not exist
+     */
+    private Notes loadById(int id) {
+        flushPendingWrites();
+        return repository.findById(id);
+    }
+
+    /**
+     * Applies the row versions written by the write-behind queue to the cached notes, so that
+     * their next update passes the version check. Called on the queue's flush thread.
+     *
+     * <p>The queue writes copies, so the cached instances are only changed here, under the lock.
+     * A note that is not in the list cache is dropped from the entity cache instead.</p>
+     *
+     * @param updated Copies of the notes as written, carrying their new version
+     */
+    private void applyWrittenVersions(List<Notes> updated) {
+        lock.lock();
+        try {
+            for (Notes stored : updated) {
+                Notes cached = findCached(stored.getId());
+                if (cached == null) {
+                    entities.invalidate(stored.getId());
+                } else if (cached.getVersion() < stored.getVersion()) {
+                    cached.setVersion(stored.getVersion());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replaces notes whose queued write was dropped, because of a conflict or a non-transient
+     * error, with their stored state, or removes them if they no longer exist. Called on the
+     * write-behind queue's flush thread. Reads the repository directly rather than through
+     * {@link #loadById(int)}, which would flush the queue again.
+     *
+     * @param ids The IDs of the notes to reload
+     */
+    private void reloadDropped(List<Integer> ids) {
+        for (int id : ids) {
+            Notes stored = repository.findById(id);
+            entities.invalidate(id);
+            lock.lock();
+            try {
+                removeById(id);
+                if (stored != null) {
+                    placeInOrder(stored);
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (stored == null) {
+                removeFromSearchIndex(id);
+            } else {
+                updateSearchIndex(stored);
+            }
+        }
+    }
+
+    /**
+     * Re-indexes a note that was saved or changed, if the search index has been built.
+     * A summary without content is re-indexed from the entity cache, which loads the stored
+     * note on a miss.
+     *
+     * @param note The note in its new state
+     */
+    private void updateSearchIndex(Notes note) {
+        if (!indexedSearch) {
+            return;
+        }
+        indexLock.lock();
+        try {
+            if (!searchIndexBuilt) {
+                return;
+            }
+            Notes complete = note.isContentLoaded() ? note : entities.get(note.getId());
+            if (complete != null) {
+                searchIndex.index(complete);
+            } else {
+                searchIndex.remove(note.getId());
+            }
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
+    /**
+     * Removes a deleted note from the search index.
+     *
+     * @param id The ID of the note
+     */
+    private void removeFromSearchIndex(int id) {
+        if (!indexedSearch) {
+            return;
+        }
+        indexLock.lock();
+        try {
+            searchIndex.remove(id);
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
+    /**
+     * Discards the search index, so the next search rebuilds it from the database.
+     */
+    private void dropSearchIndex() {
+        indexLock.lock();
+        try {
+            searchIndexBuilt = false;
+            searchIndex.clear();
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the weight of a note in the entity cache: the length of its text.
+     *
+     * @param note The note
+     * @return The weight, at least 1
+     */
+    private static int weigh(Notes note) {
+        int content = note.getContent() == null ? 0 : note.getContent().length();
+        return Math.max(1, note.getTitle().length() + content);
+    }
+
+    /**
+     * Writes pending write-behind changes to the repository, so that a following read sees them.
+     */
+    private void flushPendingWrites() {
+        if (writeBehind != null) {
+            writeBehind.flush();
+        }
+    }
+
+    /**
+     * Replaces the cache with the first {@code count} notes in the current sort order.
+     *
+     * @param count The number of notes to load
+     */
+    private void reloadPages(int count) {
+        watermark = repository.currentWatermark();
+        List<Notes> page = repository.page(sortOption, null, count);
+        acceptPage(page, count);
+        replaceCache(page);
+    }
+
+    /**
+     * Records the paging state after a page was returned by the repository.
+     *
+     * @param page The rows returned
+     * @param requested The number of rows that were requested
+     */
+    private void acceptPage(List<Notes> page, int requested) {
+        hasMore = page.size() == requested;
+        if (!page.isEmpty()) {
+            Notes last = page.get(page.size() - 1);
+            pageCursor = new Notes(last.getId(), last.getTitle(), null);
+        }
+    }
+
+    /**
+     * Updates an existing note in the database and in the in-memory cache.
+     * Only the changed row is written; the cache is updated in place instead of being reloaded.
      *
      * <p>Implementation Details:</p>
      * <ul>
      * <li>Updates the note in the database via the repository</li>
-     * <li>Refreshes the entire in-memory cache to ensure consistency</li>
+     * <li>Replaces the cached note with the same ID and moves it to its position in the current sort order</li>
+     * <li>The write only succeeds if the note was not changed elsewhere since it was loaded;
+     * otherwise the cache is re-synced and a {@link ConflictException} is thrown</li>
+     * <li>In write-behind mode, queues the write instead of executing it; conflicts found when
+     * the queue is flushed are corrected by the next {@link #refreshChanges()}</li>
+     * <li>Use {@link #refreshChanges()} to pick up changes made outside this service</li>
      * </ul>
      *
      * @param note The note to update, must not be null and must exist in the database
+     * @throws ConflictException if the note was changed or deleted elsewhere; nothing was written
      * @throws IllegalArgumentException if note is null (implied, not explicitly thrown)
      */
     @Override
     public void update(Notes note) {
-        repository.update(note);
-        refresh();
+        reloadOnRollback();
+        if (writeBehind != null) {
+            writeBehind.update(note);
+        } else if (repository.update(note) != UpdateResult.UPDATED) {
+            rejectConflicts(List.of(note));
+            return;
+        }
+        cacheWritten(note);
+        updateSearchIndex(note);
+        lock.lock();
+        try {
+            reposition(note);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -180,8 +1020,134 @@ public class NotesService implements Services<Notes> {
      */
     @Override
     public void clear() {
+        reloadOnRollback();
+        if (writeBehind != null) {
+            writeBehind.discardPending();
+        }
         repository.clear();
-        notesList.clear();
+        entities.invalidateAll();
+        indexLock.lock();
+        try {
+            searchIndex.clear();
+        } finally {
+            indexLock.unlock();
+        }
+        lock.lock();
+        try {
+            notesList.clear();
+            byId.clear();
+            filedKeys.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the content of a note, loading it from the database if necessary.
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>The cache holds summaries (id and title) so list loads do not transfer every note's content</li>
+     * <li>On first access the content is taken from the entity cache, which loads the whole note by ID
+     * on a miss, and stored on the cached note</li>
+     * <li>Later calls for the same note are served from memory until the cache is reloaded; after a reload
+     * a recently opened note is still served by the entity cache</li>
+     * </ul>
+     *
+     * @param note The note whose content is needed, must not be null
+     * @return The note's content, or null if the note no longer exists in the database
+     * @throws RuntimeException if a database error occurs while loading the content
+     */
+    public String loadContent(Notes note) {
+        if (!note.isContentLoaded()) {
+            Notes stored = entities.get(note.getId());
+            note.setContent(stored == null ? null : stored.getContent());
+        }
+        return note.getContent();
+    }
+
+    /**
+     * Searches all notes in the database and returns the best matches first.
+     * The in-memory cache is not changed.
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>Searches an in-memory inverted index ranked with BM25 (see {@link NotesSearchIndex});
+     * notes matching any word of the query are returned, best matches first</li>
+     * <li>The index is built from a stream of all notes on the first search and after each full
+     * {@link #refresh()}, then kept up to date by this service's writes and delta refreshes</li>
+     * <li>With search.index.enabled=false, delegates to the repository's ranked search instead,
+     * which uses FULLTEXT indexes on MySQL/MariaDB</li>
+     * <li>Searches the whole table, including rows on pages that have not been loaded yet</li>
+     * </ul>
+     *
+     * @param query The text to search for; a blank query matches nothing
+     * @param limit The maximum number of results, must be positive
+     * @return Up to {@code limit} matching notes as summaries, most relevant first, never null
+     * @throws IllegalArgumentException if limit is not positive
+     * @throws RuntimeException if a database error occurs during the search or while building the index
+     */
+    @Override
+    public List<Notes> search(String query, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Search limit must be positive: " + limit);
+        }
+        if (!indexedSearch) {
+            flushPendingWrites();
+            return repository.search(query, limit);
+        }
+        indexLock.lock();
+        try {
+            if (!searchIndexBuilt) {
+                flushPendingWrites();
+                searchIndex.clear();
+                try (Stream<Notes> all = repository.stream()) {
+                    all.forEach(searchIndex::index);
+                }
+                searchIndexBuilt = true;
+            }
+            return searchIndex.search(query, limit);
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the note with the given ID, from the entity cache if possible.
+     * The list returned by {@link #getAll()} is not changed.
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>Served from the bounded entity cache when the note was read or written recently</li>
+     * <li>Otherwise loaded with {@link NotesDatabaseManagement#findById(int)} and cached</li>
+     * <li>Works for notes on pages that have not been loaded yet</li>
+     * </ul>
+     *
+     * @param id The ID of the note
+     * @return The note, or null if it does not exist; callers must not modify it without updating it
+     * @throws RuntimeException if a database error occurs while loading it
+     */
+    @Override
+    public Notes findById(int id) {
+        return entities.get(id);
+    }
+
+    /**
+     * Returns the statistics of the entity cache, such as its hit ratio, evictions and load latency.
+     *
+     * @return The cache statistics
+     */
+    public EntityCacheStats getEntityCacheStats() {
+        return entities.stats();
+    }
+
+    /**
+     * Returns the statistics of the write-behind queue, such as its depth and flush latency.
+     *
+     * @return The queue statistics, or null if this service writes through to the repository
+     */
+    public WriteBehindStats getWriteBehindStats() {
+        return writeBehind == null ? null : writeBehind.stats();
     }
 
     /**
@@ -201,11 +1167,16 @@ public class NotesService implements Services<Notes> {
      * @return List of note titles in the same order as the notes cache, never null
      */
     public List<String> getSummary() {
-        List<String> summaries = new ArrayList<>();
-        for (Notes note : notesList) {
-            summaries.add(note.getTitle());
+        lock.lock();
+        try {
+            List<String> summaries = new ArrayList<>();
+            for (Notes note : notesList) {
+                summaries.add(note.getTitle());
+            }
+            return summaries;
+        } finally {
+            lock.unlock();
         }
-        return summaries;
     }
 
     /**
@@ -215,7 +1186,7 @@ public class NotesService implements Services<Notes> {
      * <p>Implementation Details:</p>
      * <ul>
      * <li>Uses StringBuilder for efficient string concatenation</li>
-     * <li>Formats each note as "title (content)"</li>
+     * <li>Formats each note as "title (content)", or just "title" if the content is not loaded</li>
      * <li>Separates each note entry with a newline character</li>
      * </ul>
      *
@@ -225,15 +1196,20 @@ public class NotesService implements Services<Notes> {
      */
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder();
-        for (Notes note : notesList) {
-            sb
-                .append(note.getTitle())
-                .append(" (")
-                .append(note.getContent())
-                .append(")\n");
+        lock.lock();
+        try {
+            StringBuilder sb = new StringBuilder();
+            for (Notes note : notesList) {
+                sb.append(note.getTitle());
+                if (note.isContentLoaded()) {
+                    sb.append(" (").append(note.getContent()).append(")");
+                }
+                sb.append("\n");
+            }
+            return sb.toString();
+        } finally {
+            lock.unlock();
         }
-        return sb.toString();
     }
 
     /**
@@ -242,9 +1218,13 @@ public class NotesService implements Services<Notes> {
      *
      * <p>Implementation Details:</p>
      * <ul>
-     * <li>If options is null, refreshes from database in default order</li>
-     * <li>For "title" option, requests title-sorted list from repository</li>
-     * <li>For any other option, refreshes from database in default order</li>
+     * <li>Remembers the option so that paging and refreshes keep the same order</li>
+     * <li>When the whole table is loaded, re-sorts the list cache in memory without a query,
+     * in O(n log n) time; titles are then ordered case-insensitively, which may differ slightly from
+     * the database collation</li>
+     * <li>In paged mode, reloads the first page in the new order instead of the whole table</li>
+     * <li>Before the first full load, requests the list from the repository: sorted by title
+     * for the "Title" option, in default order otherwise</li>
      * </ul>
      *
      * <p>Note: There appears to be a comment indicating this method should be
@@ -253,13 +1233,31 @@ public class NotesService implements Services<Notes> {
      * @param options The sort option to apply ("title" or null for default order)
      */
     public void sort(String options) {
-        if (options == null) {
-            notesList = repository.refresh();
-            return;
+        lock.lock();
+        try {
+            sortOption = options;
+            sortKey = sortKeyFor(options);
+            order = orderFor(options);
+            refileKeys();
+            if (pageSize == 0 && watermark != null) {
+                List<Notes> sorted = new ArrayList<>(notesList);
+                sorted.sort(order);
+                notesList = sorted;
+                return;
+            }
+        } finally {
+            lock.unlock();
         }
-        switch (options) {
-            case "Title" -> notesList = repository.getSortedByTitle();
-            default -> notesList = repository.refresh();
+        flushPendingWrites();
+        lock.lock();
+        try {
+            if (pageSize > 0) {
+                reloadPages(pageSize);
+                return;
+            }
+            loadAllInOrder();
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -13,6 +13,8 @@
  *   <li>{@link notes.impl.NotesDatabaseManager} - Data access layer implementation of the
  *       {@link notes.interfaces.NotesDatabaseManagement} interface, responsible for
  *       persisting and retrieving notes from the database.</li>
+ *   <li>{@code NotesSearchIndex} - Package-private in-memory inverted index with BM25 ranking,
+ *       maintained by {@link notes.impl.NotesService} for note searches.</li>
  * </ul>
  *
  * <p>Architectural role:</p>
@@ -14,6 +14,7 @@ import java.util.List;
  * <ul>
  * <li>Title-based search functionality</li>
  * <li>Notes sorting by title</li>
+ * <li>On-demand loading of a note's content for summary projections</li>
  * <li>Extends generic DatabaseManagement interface for standard operations</li>
  * </ul>
  *
@@ -55,6 +56,7 @@ public interface NotesDatabaseManagement extends DatabaseManagement<Notes> {
      * @param title The text to search for within note titles, may be partial
      * @return List of Notes with matching titles, empty list if none found, never null
      * @throws RuntimeException if a database error occurs during the search
+     * @see #search(String, int)
      */
     List<Notes> findByTitle(String title);
 
@@ -66,7 +68,7 @@ public interface NotesDatabaseManagement extends DatabaseManagement<Notes> {
      * <ul>
      * <li>Should use database-level sorting when possible for performance</li>
      * <li>Should handle case sensitivity according to database collation rules</li>
-     * <li>Should create fully populated Notes objects including IDs</li>
+     * <li>May return summaries without content (see {@link #findById(int)})</li>
      * </ul>
      *
      * @return List of Notes sorted by title, empty list if none exist, never null
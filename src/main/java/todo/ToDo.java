@@ -1,5 +1,7 @@
 package todo;
 
+import common.interfaces.VersionedEntity;
+
 /**
  * Represents a single todo task item with an ID, description, end date, and completion status.
  * This class serves as the primary data model in the task management subsystem,
@@ -34,7 +36,7 @@ package todo;
  * @see todo.interfaces.ToDoDatabaseManagement
  * @see todo.impl.ToDoDatabaseManager
  */
-public class ToDo {
+public class ToDo implements VersionedEntity<ToDo> {
     /**
      * The unique identifier for the todo task.
      *
@@ -82,6 +84,15 @@ public class ToDo {
      */
     private boolean isCompleted;
 
+    /**
+     * The row version of the task in the database.
+     *
+     * <p>Starts at 0 when the task is inserted and is incremented by the persistence
+     * layer on every update. Delta refreshes compare versions to skip rows the cache
+     * already holds.</p>
+     */
+    private int version;
+
     /**
      * Constructs a new {@code ToDo} instance, typically used for tasks that haven't been saved yet.
      * The ID is initialized to 0, and the completion status is set based on the provided parameter.
@@ -131,6 +142,7 @@ public class ToDo {
      *
      * @return The task's ID (0 for unsaved tasks, positive integer for saved tasks)
      */
+    @Override
     public int getId() {
         return id;
     }
@@ -162,6 +174,40 @@ public class ToDo {
         return isCompleted;
     }
 
+    /**
+     * Returns the row version of the task as last read or written by this application.
+     *
+     * @return The task's version, 0 for new tasks
+     */
+    @Override
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the row version of the task.
+     *
+     * <p>Called by the persistence layer when the task is loaded or updated.</p>
+     *
+     * @param version The version stored in the database
+     */
+    @Override
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    /**
+     * Returns a copy of the task with the same ID, description, end date, status and version.
+     *
+     * @return A new task that can be changed without affecting this one
+     */
+    @Override
+    public ToDo copy() {
+        ToDo copy = new ToDo(id, taskDescription, endDate, isCompleted);
+        copy.version = version;
+        return copy;
+    }
+
     /**
      * Sets the unique identifier for the task.
      * This method enforces the one-time assignment rule for IDs to maintain data integrity.
@@ -1,11 +1,21 @@
 package todo.impl;
 
+import common.Delta;
+import common.UpdateResult;
 import todo.ToDo;
 import todo.interfaces.ToDoDatabaseManagement;
+import database.ChangeTracking;
 import database.DBHelper;
+import database.DatabaseConfig;
+import database.EntityMapper;
+import database.FullTextSearch;
+import database.ResultSetStreams;
 import java.sql.*;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.stream.Stream;
 
 /**
  * Database access implementation for ToDo entities.
@@ -18,6 +28,8 @@ import java.util.ArrayList;
  * <li>Description-based search functionality</li>
  * <li>Batch operations (clear all)</li>
  * <li>Custom sorting capabilities (by description, by date)</li>
+ * <li>Delta refreshes based on row versions, update timestamps and delete tombstones</li>
+ * <li>Version-checked updates that report conflicting writes by other instances</li>
  * <li>Exception handling with appropriate error reporting</li>
  * </ul>
  *
@@ -43,6 +55,30 @@ import java.util.ArrayList;
  * @see database.DBHelper
  */
 public class ToDoDatabaseManager implements ToDoDatabaseManagement {
+    /**
+     * Updates a task's fields and bumps its version and update time, provided the row
+     * still has the version the task was read with.
+     */
+    private static final String UPDATE_SQL =
+            "UPDATE todos SET description = ?, end_date = ?, completed = ?, version = version + 1, "
+                    + "updated_at = CURRENT_TIMESTAMP(3) WHERE id = ? AND version = ?";
+
+    /**
+     * Records a tombstone for a task and deletes it, both bound to the task's ID.
+     */
+    private static final List<String> DELETE_SQL =
+            List.of(ChangeTracking.tombstoneSql("todos"), "DELETE FROM todos WHERE id = ?");
+
+    /**
+     * Maps rows selecting id, description, end_date, completed and version to ToDo items.
+     */
+    private static final EntityMapper<ToDo> TASK = EntityMapper.of((rs, col) -> {
+        ToDo task = new ToDo(rs.getString(col[1]), rs.getString(col[2]), rs.getBoolean(col[3]));
+        task.setId(rs.getInt(col[0]));
+        task.setVersion(rs.getInt(col[4]));
+        return task;
+    }, "id", "description", "end_date", "completed", "version");
+
     /**
      * Constructs a new ToDoDatabaseManager instance.
      *
@@ -82,6 +118,7 @@ public class ToDoDatabaseManager implements ToDoDatabaseManagement {
             stmt.setString(2, toDo.getEndDate());
             stmt.setBoolean(3, toDo.isCompleted());
             stmt.executeUpdate();
+            DBHelper.recordWrite();
 
             try (ResultSet rs = stmt.getGeneratedKeys()) {
                 if(rs.next()) {
@@ -100,6 +137,7 @@ public class ToDoDatabaseManager implements ToDoDatabaseManagement {
      * <p>Implementation Details:</p>
      * <ul>
      * <li>Uses a prepared statement with parameter binding to prevent SQL injection</li>
+     * <li>Records a tombstone in the same transaction, so delta refreshes see the deletion</li>
      * <li>Silently ignores if the ToDo item doesn't exist in the database</li>
      * <li>Handles SQLExceptions by wrapping them in RuntimeException</li>
      * </ul>
@@ -110,16 +148,7 @@ public class ToDoDatabaseManager implements ToDoDatabaseManagement {
      */
     @Override
     public void delete(ToDo toDo) {
-        String sql = "DELETE FROM todos WHERE id = ?";
-        try (Connection conn = DBHelper.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, toDo.getId());
-            stmt.executeUpdate();
-
-        } catch (SQLException e) {
-            throw new RuntimeException("Error deleting the todo: " + e.getMessage(), e);
-        }
+        executeBatch(DELETE_SQL, List.of(toDo), ToDoDatabaseManager::bindId, "Error deleting the todo: ");
     }
 
     /**
@@ -130,31 +159,139 @@ public class ToDoDatabaseManager implements ToDoDatabaseManagement {
      * <ul>
      * <li>Uses a prepared statement with parameter binding to prevent SQL injection</li>
      * <li>Updates based on the ToDo's ID field</li>
-     * <li>Silently ignores if the ToDo item doesn't exist in the database</li>
+     * <li>Only matches the row if its version equals the task's version</li>
+     * <li>Increments the task's version in the database and, on success, on the task itself</li>
+     * <li>When no row matches, checks whether the task still exists to tell a conflict from a deletion</li>
      * <li>Handles SQLExceptions by wrapping them in RuntimeException</li>
      * </ul>
      *
      * @param toDo The ToDo item to update, must not be null, must have valid ID, description, end date and completion status
+     * @return The outcome of the version check
      * @throws RuntimeException if a database error occurs during the update operation
      * @throws IllegalArgumentException if toDo is null or has invalid ID (implied, not explicitly thrown)
      */
     @Override
-    public void update(ToDo toDo) {
-        String sql = "UPDATE todos SET description = ?, end_date = ?, completed = ? WHERE id = ?";
+    public UpdateResult update(ToDo toDo) {
         try (Connection conn = DBHelper.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(UPDATE_SQL)) {
 
-            stmt.setString(1, toDo.getTaskDescription());
-            stmt.setString(2, toDo.getEndDate());
-            stmt.setBoolean(3, toDo.isCompleted());
-            stmt.setInt(4, toDo.getId());
-            stmt.executeUpdate();
+            bindUpdate(stmt, toDo);
+            if (stmt.executeUpdate() == 0) {
+                return ChangeTracking.missedUpdate(conn, "todos", toDo.getId());
+            }
+            DBHelper.recordWrite();
+            toDo.setVersion(toDo.getVersion() + 1);
+            return UpdateResult.UPDATED;
 
         } catch (SQLException e) {
             throw new RuntimeException("Error updating the todo: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Persists several new ToDo items in one transaction using JDBC batching.
+     * Rows are sent to the server in chunks of {@link DatabaseConfig#getBatchSize()}.
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>Uses a single connection and prepared statement for the whole batch</li>
+     * <li>Collects the generated keys of every chunk in insertion order</li>
+     * <li>Assigns the IDs to the ToDo items only after the transaction has committed</li>
+     * <li>Rolls back and rethrows on any failure, so no item is partially saved</li>
+     * </ul>
+     *
+     * @param toDos The ToDo items to save, must not be null; may be empty
+     * @throws RuntimeException if a database error occurs during the batch
+     */
+    @Override
+    public void saveAll(List<ToDo> toDos) {
+        if (toDos.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO todos (description, end_date, completed) VALUES (?, ?, ?)";
+        int batchSize = DatabaseConfig.getBatchSize();
+        int[] ids = new int[toDos.size()];
+        try (Connection conn = DBHelper.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                int assigned = 0;
+                for (int i = 0; i < toDos.size(); i++) {
+                    ToDo toDo = toDos.get(i);
+                    stmt.setString(1, toDo.getTaskDescription());
+                    stmt.setString(2, toDo.getEndDate());
+                    stmt.setBoolean(3, toDo.isCompleted());
+                    stmt.addBatch();
+                    if ((i + 1) % batchSize == 0 || i == toDos.size() - 1) {
+                        stmt.executeBatch();
+                        assigned = readGeneratedKeys(stmt, ids, assigned);
+                    }
+                }
+                if (assigned != ids.length) {
+                    throw new SQLException("Expected " + ids.length + " generated keys but received " + assigned);
+                }
+                conn.commit();
+                DBHelper.recordWrite();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error saving the todos: " + e.getMessage(), e);
+        }
+        for (int i = 0; i < ids.length; i++) {
+            toDos.get(i).setId(ids[i]);
+        }
+    }
+
+    /**
+     * Updates several existing ToDo items in one transaction using JDBC batching.
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>Uses the same version-checked UPDATE statement as {@link #update(ToDo)}, batched in chunks</li>
+     * <li>Items whose row was changed or deleted elsewhere match no row and are returned</li>
+     * <li>Increments the versions of the updated items once the transaction has committed</li>
+     * <li>Rolls back and rethrows on any failure, so no item is partially updated</li>
+     * </ul>
+     *
+     * @param toDos The ToDo items to update, must not be null; may be empty
+     * @return The ToDo items that were not updated because of a conflict, never null
+     * @throws RuntimeException if a database error occurs during the batch
+     */
+    @Override
+    public List<ToDo> updateAll(List<ToDo> toDos) {
+        int[] counts = executeBatch(List.of(UPDATE_SQL), toDos, ToDoDatabaseManager::bindUpdate,
+                "Error updating the todos: ");
+        List<ToDo> conflicts = new ArrayList<>();
+        for (int i = 0; i < toDos.size(); i++) {
+            ToDo toDo = toDos.get(i);
+            if (ChangeTracking.isApplied(counts[i])) {
+                toDo.setVersion(toDo.getVersion() + 1);
+            } else {
+                conflicts.add(toDo);
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * Deletes several ToDo items in one transaction using JDBC batching.
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>Uses the same tombstone and DELETE statements as {@link #delete(ToDo)}, batched in chunks</li>
+     * <li>Items that no longer exist in the database are silently skipped</li>
+     * <li>Rolls back and rethrows on any failure, so no item is partially deleted</li>
+     * </ul>
+     *
+     * @param toDos The ToDo items to delete, must not be null; may be empty
+     * @throws RuntimeException if a database error occurs during the batch
+     */
+    @Override
+    public void deleteAll(List<ToDo> toDos) {
+        executeBatch(DELETE_SQL, toDos, ToDoDatabaseManager::bindId, "Error deleting the todos: ");
+    }
+
     /**
      * Searches for ToDo items with descriptions containing the specified text.
      * Executes an SQL SELECT statement with a LIKE clause for partial matching.
@@ -163,7 +300,7 @@ public class ToDoDatabaseManager implements ToDoDatabaseManagement {
      * <ul>
      * <li>Uses a prepared statement with parameter binding to prevent SQL injection</li>
      * <li>Performs case-sensitive search using SQL LIKE with wildcards</li>
-     * <li>Creates and populates ToDo objects from the ResultSet</li>
+     * <li>Maps the rows with the shared {@link #TASK} mapper</li>
      * </ul>
      *
      * @param taskDescription The text to search for within ToDo descriptions, may be partial
@@ -172,21 +309,51 @@ public class ToDoDatabaseManager implements ToDoDatabaseManagement {
      */
     @Override
     public List<ToDo> findToDoByDescription(String taskDescription) {
-        List<ToDo> toDos = new ArrayList<>();
         String sql = "SELECT * FROM todos WHERE description LIKE ?";
-        try (Connection conn = DBHelper.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, "%" + taskDescription + "%");
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    ToDo toDo = new ToDo(rs.getString("description"), rs.getString("end_date"), rs.getBoolean("isCompleted"));
-                    toDo.setId(rs.getInt("id"));
-                    toDos.add(toDo);
+        try {
+            return TASK.query(sql, stmt -> stmt.setString(1, "%" + taskDescription + "%"));
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding todos by description: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Searches ToDo descriptions and returns the best matches.
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>On MySQL/MariaDB, uses the FULLTEXT index on description in boolean mode,
+     * requiring every word as a prefix and ordering by relevance</li>
+     * <li>On H2, matches the query as a case-insensitive substring of the description</li>
+     * </ul>
+     *
+     * @param query The text to search for; a blank query matches nothing
+     * @param limit The maximum number of ToDo items to return
+     * @return Up to {@code limit} matching ToDo items, most relevant first, empty list if none, never null
+     * @throws RuntimeException if a database error occurs during the search
+     */
+    @Override
+    public List<ToDo> search(String query, int limit) {
+        boolean fullText = DatabaseConfig.getDialect().supportsFullTextSearch();
+        String term = fullText ? FullTextSearch.toBooleanQuery(query) : FullTextSearch.toLikePattern(query);
+        if (term.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String sql = fullText
+                ? "SELECT *, MATCH(description) AGAINST (? IN BOOLEAN MODE) AS score FROM todos "
+                    + "WHERE MATCH(description) AGAINST (? IN BOOLEAN MODE) ORDER BY score DESC, id LIMIT ?"
+                : "SELECT * FROM todos WHERE LOWER(description) LIKE ? ORDER BY id LIMIT ?";
+        try {
+            return TASK.query(sql, stmt -> {
+                int index = 1;
+                stmt.setString(index++, term);
+                if (fullText) {
+                    stmt.setString(index++, term);
                 }
-            }
-            return toDos;
-        }   catch (SQLException e) {
-            throw new RuntimeException("Error finding todos by title: " + e.getMessage(), e);
+                stmt.setInt(index, limit);
+            });
+        } catch (SQLException e) {
+            throw new RuntimeException("Error searching todos: " + e.getMessage(), e);
         }
     }
 
@@ -197,7 +364,7 @@ public class ToDoDatabaseManager implements ToDoDatabaseManagement {
      * <p>Implementation Details:</p>
      * <ul>
      * <li>Uses a prepared statement for consistent query execution</li>
-     * <li>Creates and populates ToDo objects from the ResultSet</li>
+     * <li>Maps the rows with the shared {@link #TASK} mapper</li>
      * <li>Sets all properties including ID, description, end date and completion status</li>
      * </ul>
      *
@@ -206,34 +373,74 @@ public class ToDoDatabaseManager implements ToDoDatabaseManagement {
      */
     @Override
     public List<ToDo> refresh() {
-        List<ToDo> toDos = new ArrayList<>();
         String sql = "SELECT * FROM todos";
-        try (Connection conn = DBHelper.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-
-            while (rs.next()) {
-                int id = rs.getInt("id");
-                String description = rs.getString("description");
-                String endDate = rs.getString("end_date");
-                boolean completed = rs.getBoolean("completed");
-                ToDo task = new ToDo(description, endDate, completed);
-                task.setId(id); // Set the actual ID
-                toDos.add(task);
-            }
-            return toDos;
+        try {
+            return TASK.query(sql, stmt -> { });
         } catch (SQLException e) {
             throw new RuntimeException("Error loading todos: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Retrieves the ToDo items inserted or updated after a watermark,
+     * and the IDs of the items deleted after it.
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>Reads the next watermark from the database clock before looking for changes</li>
+     * <li>Filters on the indexed updated_at column and on the tombstone table</li>
+     * <li>Starts the configured overlap before the watermark, so late commits are not missed</li>
+     * </ul>
+     *
+     * @param watermark The watermark of the previous load or delta, must not be null
+     * @return The changed items, the deleted IDs and the next watermark, never null
+     * @throws RuntimeException if a database error occurs during retrieval
+     */
+    @Override
+    public Delta<ToDo> refreshSince(Instant watermark) {
+        String sql = "SELECT * FROM todos WHERE updated_at > ? ORDER BY id";
+        Timestamp since = ChangeTracking.lowerBound(watermark);
+        try (Connection conn = DBHelper.getConnection()) {
+            Instant next = ChangeTracking.currentTime(conn);
+            List<ToDo> changed = TASK.query(conn, sql, stmt -> stmt.setTimestamp(1, since));
+            List<Integer> deleted = ChangeTracking.findDeletedIds(conn, "todos", since);
+            return new Delta<>(changed, deleted, next);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error loading todo changes: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Retrieves a single ToDo item by primary key.
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>Maps the row with the shared {@link #TASK} mapper</li>
+     * <li>Used by the service's entity cache on a miss</li>
+     * </ul>
+     *
+     * @param id The ID of the ToDo item
+     * @return The ToDo item, or null if no item has that ID
+     * @throws RuntimeException if a database error occurs during retrieval
+     */
+    @Override
+    public ToDo findById(int id) {
+        String sql = "SELECT * FROM todos WHERE id = ?";
+        try {
+            List<ToDo> toDos = TASK.query(sql, stmt -> stmt.setInt(1, id));
+            return toDos.isEmpty() ? null : toDos.get(0);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error loading todo: " + e.getMessage(), e);
+        }
+    }
+
     /**
      * Deletes all ToDo items from the database.
      * Executes an SQL DELETE statement without a WHERE clause to remove all records.
      *
      * <p>Implementation Details:</p>
      * <ul>
-     * <li>Uses a prepared statement for consistent query execution</li>
+     * <li>Records a tombstone for every item in the same transaction</li>
      * <li>This is a permanent operation that cannot be undone</li>
      * </ul>
      *
@@ -241,11 +448,18 @@ public class ToDoDatabaseManager implements ToDoDatabaseManagement {
      */
     @Override
     public void clear() {
-        String sql = "DELETE FROM todos";
-        try(Connection conn = DBHelper.getConnection();
-            PreparedStatement stmt = conn.prepareStatement(sql))
-        {
-            stmt.executeUpdate();
+        try (Connection conn = DBHelper.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement tombstones = conn.prepareStatement(ChangeTracking.tombstoneAllSql("todos"));
+                 PreparedStatement stmt = conn.prepareStatement("DELETE FROM todos")) {
+                tombstones.executeUpdate();
+                stmt.executeUpdate();
+                conn.commit();
+                DBHelper.recordWrite();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
             throw new RuntimeException("Error deleting all todos: " + e.getMessage(), e);
         }
@@ -286,6 +500,94 @@ public class ToDoDatabaseManager implements ToDoDatabaseManagement {
         return sortedGet("SELECT * FROM todos ORDER BY end_date");
     }
 
+    /**
+     * Retrieves the incomplete ToDo items due soonest, starting at a given date.
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>Reads a range of the (completed, end_date) index in order, so only {@code limit} rows are touched</li>
+     * <li>Tasks without an end date never match the range and are skipped</li>
+     * </ul>
+     *
+     * @param from The first due date to include
+     * @param limit The maximum number of ToDo items to return
+     * @return Up to {@code limit} incomplete ToDo items due on or after {@code from}, soonest first, never null
+     * @throws RuntimeException if a database error occurs during retrieval
+     */
+    @Override
+    public List<ToDo> findUpcoming(LocalDate from, int limit) {
+        return findByDueDate(
+                "SELECT * FROM todos WHERE completed = FALSE AND end_date >= ? ORDER BY end_date, id LIMIT ?",
+                limit, "Error loading upcoming todos: ", from);
+    }
+
+    /**
+     * Retrieves the incomplete ToDo items whose end date has passed.
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>Reads a range of the (completed, end_date) index in order, so only {@code limit} rows are touched</li>
+     * <li>Tasks without an end date are never overdue</li>
+     * </ul>
+     *
+     * @param today The current date; tasks due before it are overdue
+     * @param limit The maximum number of ToDo items to return
+     * @return Up to {@code limit} overdue incomplete ToDo items, oldest due date first, never null
+     * @throws RuntimeException if a database error occurs during retrieval
+     */
+    @Override
+    public List<ToDo> findOverdue(LocalDate today, int limit) {
+        return findByDueDate(
+                "SELECT * FROM todos WHERE completed = FALSE AND end_date < ? ORDER BY end_date, id LIMIT ?",
+                limit, "Error loading overdue todos: ", today);
+    }
+
+    /**
+     * Retrieves the ToDo items, completed or not, due within a date range.
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>Reads a range of the end_date index in order, so only {@code limit} rows are touched</li>
+     * <li>Both bounds are inclusive</li>
+     * </ul>
+     *
+     * @param from The first due date to include
+     * @param to The last due date to include
+     * @param limit The maximum number of ToDo items to return
+     * @return Up to {@code limit} ToDo items due between {@code from} and {@code to}, soonest first, never null
+     * @throws RuntimeException if a database error occurs during retrieval
+     */
+    @Override
+    public List<ToDo> findDueBetween(LocalDate from, LocalDate to, int limit) {
+        return findByDueDate(
+                "SELECT * FROM todos WHERE end_date BETWEEN ? AND ? ORDER BY end_date, id LIMIT ?",
+                limit, "Error loading todos due in range: ", from, to);
+    }
+
+    /**
+     * Runs a due date query whose parameters are the given dates followed by the row limit.
+     *
+     * @param sql The query to execute
+     * @param limit The maximum number of rows, bound as the last parameter
+     * @param errorMessage Prefix for the exception message on failure
+     * @param dates The dates to bind, in parameter order
+     * @return The ToDo items in result order, never null
+     * @throws RuntimeException if a database error occurs
+     */
+    private List<ToDo> findByDueDate(String sql, int limit, String errorMessage, LocalDate... dates) {
+        try {
+            return TASK.query(sql, stmt -> {
+                int index = 1;
+                for (LocalDate date : dates) {
+                    stmt.setDate(index++, Date.valueOf(date));
+                }
+                stmt.setInt(index, limit);
+            });
+        } catch (SQLException e) {
+            throw new RuntimeException(errorMessage + e.getMessage(), e);
+        }
+    }
+
     /**
      * Helper method for retrieving ToDo items based on a custom SQL query.
      * Provides a flexible way to fetch sorted or filtered ToDo items.
@@ -293,7 +595,7 @@ public class ToDoDatabaseManager implements ToDoDatabaseManagement {
      * <p>Implementation Details:</p>
      * <ul>
      * <li>Uses a prepared statement to execute the provided SQL</li>
-     * <li>Creates and populates ToDo objects from the ResultSet</li>
+     * <li>Maps the rows with the shared {@link #TASK} mapper</li>
      * <li>Expects the SQL to select from a table with id, description, end_date, and completed columns</li>
      * </ul>
      *
@@ -303,23 +605,216 @@ public class ToDoDatabaseManager implements ToDoDatabaseManagement {
      * @throws IllegalArgumentException if sql is null or invalid (implied, not explicitly thrown)
      */
     public List<ToDo> sortedGet(String sql) {
-        List<ToDo> todos = new ArrayList<>();
-        try(Connection conn = DBHelper.getConnection();
-            PreparedStatement stmt = conn.prepareStatement(sql);
-            ResultSet rs = stmt.executeQuery()) {
-
-            while(rs.next()) {
-                int id = rs.getInt("id");
-                String description = rs.getString("description");
-                String endDate = rs.getString("end_date");
-                boolean completed = rs.getBoolean("completed");
-                ToDo task = new ToDo(description, endDate, completed);
-                task.setId(id);
-                todos.add(task);
-            }
-            return todos;
-        }  catch (SQLException e) {
+        try {
+            return TASK.query(sql, stmt -> { });
+        } catch (SQLException e) {
             throw new RuntimeException("Error getting sorted todos: " + e.getMessage(), e);
         }
     }
+
+    /**
+     * Retrieves one page of ToDo items using keyset pagination.
+     *
+     * <p>Supported sort orders:</p>
+     * <ul>
+     * <li>"Description" - by description, then id</li>
+     * <li>"Date" - by end date, then id; tasks without an end date come first</li>
+     * <li>Default - by id in insertion order</li>
+     * </ul>
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>Filters on the key of the last row instead of using OFFSET, so deep pages stay cheap</li>
+     * <li>Expands the (key, id) comparison into OR form so the column index can be used</li>
+     * <li>Uses a fixed set of SQL strings, which keeps them in the statement cache</li>
+     * </ul>
+     *
+     * @param sortOption The sort order ("Description", "Date", or null for insertion order)
+     * @param after The last ToDo item of the previous page, or null for the first page
+     * @param limit The maximum number of ToDo items to return
+     * @return Up to {@code limit} ToDo items following {@code after}, empty list if none, never null
+     * @throws RuntimeException if a database error occurs during retrieval
+     */
+    @Override
+    public List<ToDo> page(String sortOption, ToDo after, int limit) {
+        String option = sortOption == null ? "" : sortOption;
+        String sql;
+        switch (option) {
+            case "Description" -> sql = after == null
+                    ? "SELECT * FROM todos ORDER BY description, id LIMIT ?"
+                    : "SELECT * FROM todos WHERE description > ? OR (description = ? AND id > ?) ORDER BY description, id LIMIT ?";
+            case "Date" -> {
+                if (after == null) {
+                    sql = "SELECT * FROM todos ORDER BY end_date, id LIMIT ?";
+                } else if (after.getEndDate() == null) {
+                    sql = "SELECT * FROM todos WHERE (end_date IS NULL AND id > ?) OR end_date IS NOT NULL ORDER BY end_date, id LIMIT ?";
+                } else {
+                    sql = "SELECT * FROM todos WHERE end_date > ? OR (end_date = ? AND id > ?) ORDER BY end_date, id LIMIT ?";
+                }
+            }
+            default -> sql = after == null
+                    ? "SELECT * FROM todos ORDER BY id LIMIT ?"
+                    : "SELECT * FROM todos WHERE id > ? ORDER BY id LIMIT ?";
+        }
+        try {
+            return TASK.query(sql, stmt -> {
+                int index = 1;
+                if (after != null) {
+                    switch (option) {
+                        case "Description" -> {
+                            stmt.setString(index++, after.getTaskDescription());
+                            stmt.setString(index++, after.getTaskDescription());
+                        }
+                        case "Date" -> {
+                            if (after.getEndDate() != null) {
+                                stmt.setString(index++, after.getEndDate());
+                                stmt.setString(index++, after.getEndDate());
+                            }
+                        }
+                        default -> { }
+                    }
+                    stmt.setInt(index++, after.getId());
+                }
+                stmt.setInt(index, limit);
+            });
+        } catch (SQLException e) {
+            throw new RuntimeException("Error loading a page of todos: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Streams all ToDo items, in insertion order, using the configured fetch size.
+     *
+     * @return A stream of ToDo items that must be closed after use
+     * @throws RuntimeException if a database error occurs
+     * @see DatabaseConfig#getStreamFetchSize()
+     */
+    @Override
+    public Stream<ToDo> stream() {
+        return stream(DatabaseConfig.getStreamFetchSize());
+    }
+
+    /**
+     * Streams all ToDo items, in insertion order, through a forward-only, read-only cursor.
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>Rows are mapped lazily as the stream is consumed</li>
+     * <li>The pooled connection stays borrowed until the stream is closed</li>
+     * </ul>
+     *
+     * @param fetchSize The fetch size hint passed to the driver
+     * @return A stream of ToDo items that must be closed after use
+     * @throws RuntimeException if a database error occurs
+     */
+    @Override
+    public Stream<ToDo> stream(int fetchSize) {
+        try {
+            return ResultSetStreams.stream("SELECT * FROM todos ORDER BY id", fetchSize, TASK);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error streaming todos: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Binds a task to {@link #UPDATE_SQL}.
+     */
+    private static void bindUpdate(PreparedStatement stmt, ToDo toDo) throws SQLException {
+        stmt.setString(1, toDo.getTaskDescription());
+        stmt.setString(2, toDo.getEndDate());
+        stmt.setBoolean(3, toDo.isCompleted());
+        stmt.setInt(4, toDo.getId());
+        stmt.setInt(5, toDo.getVersion());
+    }
+
+    /**
+     * Binds a task's ID as the only parameter, as used by {@link #DELETE_SQL}.
+     */
+    private static void bindId(PreparedStatement stmt, ToDo toDo) throws SQLException {
+        stmt.setInt(1, toDo.getId());
+    }
+
+    /**
+     * Runs parameterized statements for every item in a single transaction,
+     * sending the rows in chunks of {@link DatabaseConfig#getBatchSize()}.
+     * Within each chunk the statements run in the given order.
+     *
+     * @param statements The statements to execute for each item, all taking the same parameters
+     * @param items The items to bind, one batch entry per item and statement
+     * @param binder Binds one item's values to a statement
+     * @param errorMessage Prefix for the exception message on failure
+     * @return The update count of the last statement for each item, in item order
+     * @throws RuntimeException if a database error occurs; the transaction is rolled back
+     */
+    private int[] executeBatch(List<String> statements, List<ToDo> items, BatchBinder<ToDo> binder,
+                               String errorMessage) {
+        int[] counts = new int[items.size()];
+        if (items.isEmpty()) {
+            return counts;
+        }
+        int batchSize = DatabaseConfig.getBatchSize();
+        try (Connection conn = DBHelper.getConnection()) {
+            conn.setAutoCommit(false);
+            List<PreparedStatement> prepared = new ArrayList<>(statements.size());
+            try {
+                for (String sql : statements) {
+                    prepared.add(conn.prepareStatement(sql));
+                }
+                for (int i = 0; i < items.size(); i++) {
+                    for (PreparedStatement stmt : prepared) {
+                        binder.bind(stmt, items.get(i));
+                        stmt.addBatch();
+                    }
+                    if ((i + 1) % batchSize == 0 || i == items.size() - 1) {
+                        int[] chunk = null;
+                        for (PreparedStatement stmt : prepared) {
+                            chunk = stmt.executeBatch();
+                        }
+                        System.arraycopy(chunk, 0, counts, i + 1 - chunk.length, chunk.length);
+                    }
+                }
+                conn.commit();
+                DBHelper.recordWrite();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                for (PreparedStatement stmt : prepared) {
+                    stmt.close();
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(errorMessage + e.getMessage(), e);
+        }
+        return counts;
+    }
+
+    /**
+     * Copies the keys generated by the last executed batch into {@code ids}.
+     *
+     * @param stmt The statement whose batch was just executed
+     * @param ids The array receiving the keys in insertion order
+     * @param offset The index of the first row of this batch
+     * @return The index following the last key that was read
+     * @throws SQLException if the generated keys cannot be read
+     */
+    private static int readGeneratedKeys(PreparedStatement stmt, int[] ids, int offset) throws SQLException {
+        int next = offset;
+        try (ResultSet rs = stmt.getGeneratedKeys()) {
+            while (rs.next() && next < ids.length) {
+                ids[next++] = rs.getInt(1);
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Binds the values of one item to a batched prepared statement.
+     *
+     * @param <E> The type of item being bound
+     */
+    @FunctionalInterface
+    private interface BatchBinder<E> {
+        void bind(PreparedStatement stmt, E item) throws SQLException;
+    }
 }
\ No newline at end of file
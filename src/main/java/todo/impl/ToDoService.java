@@ -2,9 +2,27 @@ package todo.impl;
 
 import todo.ToDo;
 import todo.interfaces.ToDoDatabaseManagement;
+import common.ConflictException;
+import common.EntityCache;
+import common.EntityCacheStats;
+import common.IntIdMap;
+import common.Delta;
+import common.UpdateResult;
+import common.WriteBehindQueue;
+import common.WriteBehindStats;
 import common.interfaces.Services;
+import database.ChangeTracking;
+import database.DatabaseConfig;
+import database.UnitOfWork;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * Service layer implementation for managing ToDo entities.
@@ -17,6 +35,11 @@ import java.util.ArrayList;
  * <li>CRUD operations delegated to the repository layer</li>
  * <li>Task completion status management</li>
  * <li>ToDo summarization functionality for list displays</li>
+ * <li>Ranked search over all ToDo items in the database</li>
+ * <li>Substring search over the descriptions of all ToDo items, served by an in-memory trigram index</li>
+ * <li>Delta refreshes that apply only the ToDo items changed or deleted since the last load</li>
+ * <li>Writes join a surrounding {@link UnitOfWork}; the cache is reloaded if the unit is rolled back</li>
+ * <li>Optimistic concurrency: updates of items changed elsewhere are rejected and the cache re-synced</li>
  * <li>Custom sorting capabilities (by description, by date)</li>
  * <li>String representation for debugging and logging</li>
  * </ul>
@@ -26,7 +49,17 @@ import java.util.ArrayList;
  * <li>Uses an injected repository (ToDoDatabaseManagement) for persistent storage operations</li>
  * <li>Maintains a cached list of ToDo items that is synchronized with the database</li>
  * <li>Follows the Service Layer pattern in a multi-tier architecture</li>
- * <li>Not explicitly thread-safe - concurrent modifications may cause inconsistencies</li>
+ * <li>Cached ToDo items are indexed by ID in an {@link IntIdMap}, so lookups by ID take constant time.
+ * Each is filed under the sort key it was inserted with, so its position is found by binary
+ * search in O(log n) even after its description or end date was edited in place; inserting or
+ * removing it still shifts the array list, which is O(n)</li>
+ * <li>While the whole table is loaded, changing the sort order re-sorts the list cache in memory
+ * instead of querying the database</li>
+ * <li>Optional write-behind mode that queues and merges updates and deletes (see {@link WriteBehindQueue})</li>
+ * <li>Single ToDo items are looked up through a bounded read-through {@link EntityCache}, which is written
+ * through on every save, update and delete</li>
+ * <li>Cache and paging state are guarded by a lock, so the asynchronous methods may overlap;
+ * inserts, deletes and updates run their database call outside the lock</li>
  * </ul>
  *
  * <p>This class serves as part of the service layer in the application's architecture,
@@ -58,24 +91,156 @@ public class ToDoService implements Services<ToDo> {
      */
     private List<ToDo> toDoList;
 
+    /**
+     * Index of the cached ToDo items by ID, holding exactly the entities in the list cache.
+     */
+    private final IntIdMap<ToDo> byId = new IntIdMap<>();
+
+    /**
+     * The order of the list cache for {@link #sortOption}, see {@link #orderFor(String)}.
+     */
+    private Comparator<ToDo> order = orderFor(null);
+
+    /**
+     * The sort key of {@link #order}, see {@link #sortKeyFor(String)}, or null when the list
+     * cache is ordered by ID alone.
+     */
+    private Function<ToDo, String> sortKey;
+
+    /**
+     * The sort key each cached entity was filed under, by ID, while {@link #sortKey} is set.
+     * The list cache is ordered by these keys rather than the entities' current fields, so an
+     * entity edited in place before it is passed to {@link #update} is still found by binary search.
+     */
+    private final IntIdMap<String> filedKeys = new IntIdMap<>();
+
+    /**
+     * Stands in for a null sort key in {@link #filedKeys}, which does not hold null values.
+     */
+    private static final String NULL_KEY = new String();
+
+    /**
+     * The sort option applied to the cache, as last passed to {@link #sort(String)}.
+     * A null value selects the repository's default order.
+     */
+    private String sortOption;
+
+    /**
+     * The page size used for paged loading, or 0 when the whole table is loaded at once.
+     * Set by {@link #loadFirstPage(int)}.
+     */
+    private int pageSize;
+
+    /**
+     * Whether the last page request returned a full page, meaning more rows may follow.
+     */
+    private boolean hasMore;
+
+    /**
+     * Detached copy of the last row returned by the repository in paged mode.
+     * The next page starts after this row's sort key, even if the cached row
+     * has since been edited or removed.
+     */
+    private ToDo pageCursor;
+
+    /**
+     * Database time taken before the cache was last loaded or brought up to date, or null
+     * before the first load. {@link #refreshChanges()} fetches the changes made after it.
+     */
+    private Instant watermark;
+
+    /**
+     * Guards the cache and the paging state, so that the asynchronous operations inherited
+     * from {@link Services} may run concurrently. A {@link ReentrantLock} is used instead of
+     * {@code synchronized} so that virtual threads loading a page under the lock do not pin
+     * their carrier thread.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Queue for deferred updates and deletes, or null when every write goes straight to the repository.
+     */
+    private final WriteBehindQueue<ToDo> writeBehind;
+
+    /**
+     * Read-through cache of single ToDo items by ID, kept separate from the list cache so that lookups
+     * of ToDo items on pages that have not been loaded do not go to the database every time.
+     */
+    private final EntityCache<ToDo> entities;
+
+    /**
+     * Whether {@link #findByDescription(String, int)} uses {@link #descriptionIndex} instead of the repository.
+     */
+    private final boolean indexedSearch = DatabaseConfig.isSearchIndexEnabled();
+
+    /**
+     * Trigram index over the description of every ToDo item in the database, built on the first
+     * substring search and kept up to date by this service's writes. Guarded by {@link #indexLock}.
+     */
+    private final ToDoTrigramIndex descriptionIndex = new ToDoTrigramIndex();
+
+    /**
+     * Whether {@link #descriptionIndex} holds every ToDo item. Guarded by {@link #indexLock}.
+     */
+    private boolean descriptionIndexBuilt;
+
+    /**
+     * Guards the description index separately from the list cache, so that building it does not
+     * block the list. When both are needed, {@link #lock} is taken first.
+     */
+    private final ReentrantLock indexLock = new ReentrantLock();
+
     /**
      * Constructs a new ToDoService with the specified repository.
-     * Initializes the ToDo cache and populates it with all ToDo items from the repository.
+     * Initializes an empty ToDo items cache; nothing is loaded until
+     * {@link #refresh()} or {@link #loadFirstPage(int)} is called.
      *
      * <p>Implementation Details:</p>
      * <ul>
      * <li>Stores the repository reference for later use</li>
      * <li>Creates an empty ArrayList to hold cached ToDo items</li>
-     * <li>Calls refresh() to populate the cache from the database</li>
+     * <li>Defers loading so that callers can choose between a full load and paged loading</li>
      * </ul>
      *
      * @param repository The data access object for ToDo persistence, must not be null
      * @throws IllegalArgumentException if repository is null (implied, not explicitly thrown)
      */
     public ToDoService(ToDoDatabaseManagement repository) {
+        this(repository, null);
+    }
+
+    /**
+     * Constructs a new ToDoService that defers updates and deletes to a write-behind queue.
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>Updates and deletes change the cache immediately and are written by the queue in batches</li>
+     * <li>Repeated updates of the same ToDo item are merged into a single write</li>
+     * <li>Pending writes are flushed before the cache is reloaded or the database is searched</li>
+     * <li>New ToDo items are still saved immediately, since they need their generated ID</li>
+     * </ul>
+     *
+     * @param repository The data access object for ToDo item persistence, must not be null
+     * @param writeBehind The queue for deferred writes, or null to write through to the repository
+     */
+    public ToDoService(ToDoDatabaseManagement repository, WriteBehindQueue<ToDo> writeBehind) {
         this.repository = repository;
+        this.writeBehind = writeBehind;
         this.toDoList = new ArrayList<>();
-        refresh();
+        this.entities = EntityCache.fromConfig(this::loadById, ToDoService::weigh);
+        if (writeBehind != null) {
+            writeBehind.setListener(new WriteBehindQueue.Listener<>() {
+                @Override
+                public void written(List<ToDo> updated) {
+                    applyWrittenVersions(updated);
+                }
+
+                @Override
+                public void dropped(List<Integer> ids) {
+                    reloadDropped(ids);
+                }
+            });
+        }
     }
 
     /**
@@ -83,7 +248,9 @@ public class ToDoService implements Services<ToDo> {
      * Returns a direct reference to the internal list, not a defensive copy.
      *
      * <p>Implementation Note: Callers should not modify the returned list directly
-     * as this could cause inconsistencies between the cache and the database.</p>
+     * as this could cause inconsistencies between the cache and the database. The list may be
+     * replaced or changed by concurrent operations, so it should only be read on the thread
+     * that awaited them.</p>
      *
      * @return List of all cached ToDo items, may be empty but never null
      */
@@ -99,7 +266,8 @@ public class ToDoService implements Services<ToDo> {
      * <p>Implementation Details:</p>
      * <ul>
      * <li>Persists the ToDo item to the database via the repository</li>
-     * <li>Adds the ToDo item to the in-memory cache</li>
+     * <li>Inserts the ToDo item into the in-memory cache at its position in the current sort order</li>
+     * <li>In paged mode, skips it if it sorts after the loaded pages; it arrives with its page</li>
      * <li>The ToDo ID is set by the repository during save operation</li>
      * </ul>
      *
@@ -108,8 +276,16 @@ public class ToDoService implements Services<ToDo> {
      */
     @Override
     public void add(ToDo toDo) {
+        reloadOnRollback();
         repository.save(toDo);
-        toDoList.add(toDo);
+        cacheWritten(toDo);
+        updateDescriptionIndex(toDo);
+        lock.lock();
+        try {
+            placeInOrder(toDo);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -127,8 +303,115 @@ public class ToDoService implements Services<ToDo> {
      */
     @Override
     public void delete(ToDo toDo) {
-        repository.delete(toDo);
-        toDoList.remove(toDo);
+        reloadOnRollback();
+        if (writeBehind != null) {
+            writeBehind.delete(toDo);
+        } else {
+            repository.delete(toDo);
+        }
+        entities.invalidate(toDo.getId());
+        removeFromDescriptionIndex(toDo.getId());
+        lock.lock();
+        try {
+            removeById(toDo.getId());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds several new ToDo items to the database in one batch and inserts them into the in-memory cache.
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>Persists all ToDo items in a single transaction via the repository</li>
+     * <li>The repository assigns the generated IDs in list order</li>
+     * <li>The cache is only changed once the batch has been persisted</li>
+     * </ul>
+     *
+     * @param toDos The ToDo items to add, must not be null; may be empty
+     * @throws RuntimeException if the batch cannot be persisted
+     */
+    @Override
+    public void addAll(List<ToDo> toDos) {
+        reloadOnRollback();
+        repository.saveAll(toDos);
+        toDos.forEach(this::cacheWritten);
+        toDos.forEach(this::updateDescriptionIndex);
+        lock.lock();
+        try {
+            toDos.forEach(this::placeInOrder);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Updates several ToDo items in the database in one batch and moves them to their new positions
+     * in the in-memory cache, without reloading it.
+     * Items changed or deleted elsewhere since they were loaded are not written; the other
+     * updates are kept, and the stale items are replaced by their stored state.
+     *
+     * @param toDos The ToDo items to update, must not be null; may be empty
+     * @throws ConflictException if some items were changed or deleted elsewhere
+     * @throws RuntimeException if the batch cannot be persisted
+     */
+    @Override
+    public void updateAll(List<ToDo> toDos) {
+        reloadOnRollback();
+        List<ToDo> conflicts = List.of();
+        if (writeBehind != null) {
+            toDos.forEach(writeBehind::update);
+        } else {
+            conflicts = repository.updateAll(toDos);
+        }
+        toDos.forEach(this::cacheWritten);
+        toDos.forEach(this::updateDescriptionIndex);
+        lock.lock();
+        try {
+            toDos.forEach(this::reposition);
+        } finally {
+            lock.unlock();
+        }
+        if (!conflicts.isEmpty()) {
+            rejectConflicts(conflicts);
+        }
+    }
+
+    /**
+     * Deletes several ToDo items from the database in one batch and removes them from the in-memory cache.
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>Deletes all ToDo items in a single transaction via the repository</li>
+     * <li>Removes them from the cache in one pass using a set of their IDs</li>
+     * </ul>
+     *
+     * @param toDos The ToDo items to delete, must not be null; may be empty
+     * @throws RuntimeException if the batch cannot be persisted
+     */
+    @Override
+    public void deleteAll(List<ToDo> toDos) {
+        reloadOnRollback();
+        if (writeBehind != null) {
+            toDos.forEach(writeBehind::delete);
+        } else {
+            repository.deleteAll(toDos);
+        }
+        toDos.forEach(item -> {
+            entities.invalidate(item.getId());
+            removeFromDescriptionIndex(item.getId());
+        });
+        lock.lock();
+        try {
+            toDos.forEach(item -> {
+                byId.remove(item.getId());
+                filedKeys.remove(item.getId());
+            });
+            toDoList.removeIf(item -> !byId.containsKey(item.getId()));
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -137,7 +420,7 @@ public class ToDoService implements Services<ToDo> {
      *
      * <p>Implementation Details:</p>
      * <ul>
-     * <li>Requests a fresh list of ToDo items from the repository</li>
+     * <li>Requests a fresh list of ToDo items from the repository, in the current sort order</li>
      * <li>Replaces the entire in-memory cache with this new list</li>
      * </ul>
      *
@@ -146,26 +429,578 @@ public class ToDoService implements Services<ToDo> {
      */
     @Override
     public void refresh() {
-        toDoList = repository.refresh();
+        flushPendingWrites();
+        entities.invalidateAll();
+        dropDescriptionIndex();
+        lock.lock();
+        try {
+            if (pageSize > 0) {
+                reloadPages(Math.max(pageSize, toDoList.size()));
+                return;
+            }
+            loadAllInOrder();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applies the ToDo items inserted, updated or deleted in the database since the cache was
+     * last loaded or brought up to date, without reloading unchanged items.
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>Fetches the delta with {@link ToDoDatabaseManagement#refreshSince(Instant)}, whose cost
+     * grows with the number of changes rather than the number of items</li>
+     * <li>Removes deleted items first, then places changed items in the current sort order</li>
+     * <li>Skips items whose cached version is already current, including this service's own writes</li>
+     * <li>In paged mode, changed items that sort after the loaded pages are left for a later page</li>
+     * <li>Falls back to {@link #refresh()} if nothing has been loaded yet, or if the last load
+     * is older than the tombstone retention, so deletions may no longer be recorded</li>
+     * </ul>
+     *
+     * @return The number of ToDo items added, replaced or removed in the cache
+     * @throws RuntimeException if a database error occurs
+     */
+    @Override
+    public int refreshChanges() {
+        flushPendingWrites();
+        lock.lock();
+        try {
+            if (watermark == null) {
+                refresh();
+                return toDoList.size();
+            }
+            Delta<ToDo> delta = repository.refreshSince(watermark);
+            if (ChangeTracking.isBeyondRetention(watermark, delta.getWatermark())) {
+                // Tombstones of deletions since the watermark may have been pruned.
+                refresh();
+                return toDoList.size();
+            }
+            int applied = 0;
+            for (int id : delta.getDeletedIds()) {
+                entities.invalidate(id);
+                removeFromDescriptionIndex(id);
+                if (removeById(id)) {
+                    applied++;
+                }
+            }
+            for (ToDo changed : delta.getChanged()) {
+                ToDo cached = findCached(changed.getId());
+                if (cached != null && cached.getVersion() >= changed.getVersion()) {
+                    continue;
+                }
+                entities.invalidate(changed.getId());
+                updateDescriptionIndex(changed);
+                boolean removed = removeById(changed.getId());
+                if (placeInOrder(changed) || removed) {
+                    applied++;
+                }
+            }
+            watermark = delta.getWatermark();
+            return applied;
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
-     * Updates an existing ToDo item in both the database and refreshes the in-memory cache.
-     * Delegates to the repository for persistence and refreshes the entire cache.
+     * Switches the service to paged loading and replaces the cache with the first page
+     * in the current sort order.
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>Requests at most {@code pageSize} rows from the repository using keyset pagination</li>
+     * <li>Later calls to {@link #refresh()} and {@link #sort(String)} stay in paged mode</li>
+     * </ul>
+     *
+     * @param pageSize The number of ToDo items per page, must be positive
+     * @throws IllegalArgumentException if pageSize is not positive
+     */
+    @Override
+    public void loadFirstPage(int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        flushPendingWrites();
+        lock.lock();
+        try {
+            this.pageSize = pageSize;
+            reloadPages(pageSize);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends the next page of ToDo items to the cache.
+     * The page continues after the last row previously returned by the repository,
+     * so ToDo items added locally in the meantime do not shift the page boundaries.
+     *
+     * @return true if any ToDo items were appended, false at the end of the table or when not paged
+     */
+    @Override
+    public boolean loadNextPage() {
+        flushPendingWrites();
+        lock.lock();
+        try {
+            if (!hasMorePages()) {
+                return false;
+            }
+            List<ToDo> page = repository.page(sortOption, pageCursor, pageSize);
+            acceptPage(page, pageSize);
+            toDoList.addAll(page);
+            page.forEach(this::putCached);
+            return !page.isEmpty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Indicates whether the repository may hold more ToDo items than the pages loaded so far.
+     *
+     * @return true in paged mode while the last page request returned a full page
+     */
+    @Override
+    public boolean hasMorePages() {
+        lock.lock();
+        try {
+            return pageSize > 0 && hasMore;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the order of the cache for a sort option, matching the repository's queries.
+     * Text is compared case-insensitively to approximate the database collation;
+     * {@link #refresh()} restores the database order exactly. Cached entities are compared by
+     * the key they were filed under, see {@link #filedKey}.
+     *
+     * <ul>
+     * <li>"Description" - by description, then ID</li>
+     * <li>"Date" - by end date, then ID; items without an end date come first</li>
+     * <li>Default - insertion order, by ascending ID</li>
+     * </ul>
+     *
+     * @param option The sort option, or null for the default order
+     * @return A comparator with the entity ID as the final tie-break
+     */
+    private Comparator<ToDo> orderFor(String option) {
+        if ("Description".equals(option)) {
+            return Comparator.comparing(this::filedKey, String.CASE_INSENSITIVE_ORDER)
+                    .thenComparingInt(ToDo::getId);
+        }
+        if ("Date".equals(option)) {
+            return Comparator.comparing(this::filedKey, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+                    .thenComparingInt(ToDo::getId);
+        }
+        return Comparator.comparingInt(ToDo::getId);
+    }
+
+    /**
+     * Returns the sort key of a sort option, matching {@link #orderFor(String)}.
+     *
+     * @param option The sort option, or null for the default order
+     * @return The key the list is ordered by before the ID, or null when it is ordered by ID alone
+     */
+    private static Function<ToDo, String> sortKeyFor(String option) {
+        if ("Description".equals(option)) {
+            return ToDo::getTaskDescription;
+        }
+        if ("Date".equals(option)) {
+            return ToDo::getEndDate;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the sort key {@code item} is ordered by in the list cache: the key it was filed
+     * under while it is cached, otherwise its current key. Must be called with the lock held.
+     *
+     * @param item The entity to compare
+     * @return The sort key, possibly null
+     */
+    private String filedKey(ToDo item) {
+        String key = filedKeys.get(item.getId());
+        if (key == null) {
+            return sortKey.apply(item);
+        }
+        return key == NULL_KEY ? null : key;
+    }
+
+    /**
+     * Adds {@code item} to the ID index and files it under its current sort key.
+     * Must be called with the lock held.
+     *
+     * @param item The entity added to the list cache
+     */
+    private void putCached(ToDo item) {
+        byId.put(item.getId(), item);
+        if (sortKey != null) {
+            String key = sortKey.apply(item);
+            filedKeys.put(item.getId(), key == null ? NULL_KEY : key);
+        }
+    }
+
+    /**
+     * Re-files every cached entity under its current sort key, e.g. after the sort option changed.
+     * Must be called with the lock held.
+     */
+    private void refileKeys() {
+        filedKeys.clear();
+        toDoList.forEach(this::putCached);
+    }
+
+    /**
+     * Inserts {@code item} into the cache at its position in the current sort order.
+     * In paged mode an item that sorts after the last loaded row is left out, since it
+     * belongs to a page that has not been loaded yet. Must be called with the lock held.
+     *
+     * @param item The entity to insert
+     * @return true if the item was added to the cache
+     */
+    private boolean placeInOrder(ToDo item) {
+        int index = Collections.binarySearch(toDoList, item, order);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        if (index == toDoList.size() && hasMorePages()) {
+            return false;
+        }
+        toDoList.add(index, item);
+        putCached(item);
+        return true;
+    }
+
+    /**
+     * Replaces the cached entity with the same ID as {@code item} and moves it to its
+     * position in the current sort order. Must be called with the lock held.
+     *
+     * @param item The entity in its updated state
+     */
+    private void reposition(ToDo item) {
+        removeById(item.getId());
+        placeInOrder(item);
+    }
+
+    /**
+     * Removes the cached entity with the given ID. Must be called with the lock held.
+     * Finding it takes O(log n) time, but removing it from the array list shifts the
+     * entries after it, so the removal as a whole is O(n).
+     *
+     * @param id The entity ID
+     * @return true if an entity was removed
+     */
+    private boolean removeById(int id) {
+        ToDo cached = byId.remove(id);
+        if (cached == null) {
+            return false;
+        }
+        toDoList.remove(indexOf(cached));
+        filedKeys.remove(id);
+        return true;
+    }
+
+    /**
+     * Returns the position of a cached entity in the list cache. Must be called with the lock held.
+     * <p>
+     * The entity is found by binary search on the key it was filed under, in O(log n) time,
+     * even if its sort key was changed in place before it was passed to {@link #update}. Only
+     * if the database collation placed it differently from {@link #orderFor(String)} does the
+     * search miss, and the list is then scanned for the instance instead.
+     *
+     * @param cached An entity held by the list cache
+     * @return Its index in the list
+     */
+    private int indexOf(ToDo cached) {
+        int index = Collections.binarySearch(toDoList, cached, order);
+        if (index >= 0 && toDoList.get(index) == cached) {
+            return index;
+        }
+        for (int i = 0; i < toDoList.size(); i++) {
+            if (toDoList.get(i) == cached) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Cached entity " + cached.getId() + " is not in the list");
+    }
+
+    /**
+     * Replaces the list cache with entities loaded from the repository and re-indexes them.
+     * Must be called with the lock held.
+     *
+     * @param items The entities in the current sort order
+     */
+    private void replaceCache(List<ToDo> items) {
+        toDoList = items;
+        byId.clear();
+        filedKeys.clear();
+        items.forEach(this::putCached);
+    }
+
+    /**
+     * Loads every ToDo item from the repository in the current sort option's order, sorted by
+     * description for "Description", by end date for "Date" and in default order otherwise,
+     * and replaces the list cache with them. Must be called with the lock held.
+     */
+    private void loadAllInOrder() {
+        watermark = repository.currentWatermark();
+        if (sortOption == null) {
+            replaceCache(repository.refresh());
+            return;
+        }
+        switch (sortOption) {
+            case "Description" -> replaceCache(repository.getSortedByDescription());
+            case "Date" -> replaceCache(repository.getSortedByDate());
+            default -> replaceCache(repository.refresh());
+        }
+    }
+
+    /**
+     * Returns the cached entity with the given ID. Must be called with the lock held.
+     *
+     * @param id The entity ID
+     * @return The cached entity, or null if it is not cached
+     */
+    private ToDo findCached(int id) {
+        return byId.get(id);
+    }
+
+    /**
+     * Replaces ToDo items whose update was rejected by the version check with their stored state,
+     * by applying the changes made since the last load, and reports the conflict.
+     *
+     * @param stale The ToDo items that were not written
+     * @throws ConflictException always
+     */
+    private void rejectConflicts(List<ToDo> stale) {
+        List<Integer> ids = new ArrayList<>();
+        stale.forEach(toDo -> ids.add(toDo.getId()));
+        ids.forEach(entities::invalidate);
+        refreshChanges();
+        String message = stale.size() == 1
+                ? "The task \"" + stale.get(0).getTaskDescription() + "\" was changed or deleted by another user. "
+                    + "Your change was not saved and the current version has been loaded."
+                : stale.size() + " tasks were changed or deleted by another user. "
+                    + "Those changes were not saved and the current versions have been loaded.";
+        throw new ConflictException(message, ids);
+    }
+
+    /**
+     * Reloads the cache if the surrounding {@link UnitOfWork} is rolled back, since the cache
+     * already reflects the writes made inside it. Does nothing outside a unit of work.
+     */
+    private void reloadOnRollback() {
+        UnitOfWork.afterRollback(this, this::refresh);
+    }
+
+    /**
+     * Stores a ToDo item that was just saved or updated in the entity cache.
+     *
+     * @param toDo The ToDo item as written
+     */
+    private void cacheWritten(ToDo toDo) {
+        entities.put(toDo.getId(), toDo);
+    }
+
+    /**
+     * Loads a ToDo item for the entity cache, writing pending write-behind changes first so that
+     * a ToDo item deleted or updated in the queue is not read in its old state.
+     *
+     * @param id The ID of the ToDo item
+     * @return The ToDo item, or null if it does not exist
+     */
+    private ToDo loadById(int id) {
+        flushPendingWrites();
+        return repository.findById(id);
+    }
+
+    /**
+     * Applies the row versions written by the write-behind queue to the cached ToDo items, so that
+     * their next update passes the version check. Called on the queue's flush thread.
+     *
+     * <p>The queue writes copies, so the cached instances are only changed here, under the lock.
+     * A ToDo item that is not in the list cache is dropped from the entity cache instead.</p>
+     *
+     * @param updated Copies of the ToDo items as written, carrying their new version
+     */
+    private void applyWrittenVersions(List<ToDo> updated) {
+        lock.lock();
+        try {
+            for (ToDo stored : updated) {
+                ToDo cached = findCached(stored.getId());
+                if (cached == null) {
+                    entities.invalidate(stored.getId());
+                } else if (cached.getVersion() < stored.getVersion()) {
+                    cached.setVersion(stored.getVersion());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replaces ToDo items whose queued write was dropped, because of a conflict or a non-transient
+     * error, with their stored state, or removes them if they no longer exist. Called on the
+     * write-behind queue's flush thread. Reads the repository directly rather than through
+     * {@link #loadById(int)}, which would flush the queue again.
+     *
+     * @param ids The IDs of the ToDo items to reload
+     */
+    private void reloadDropped(List<Integer> ids) {
+        for (int id : ids) {
+            ToDo stored = repository.findById(id);
+            entities.invalidate(id);
+            lock.lock();
+            try {
+                removeById(id);
+                if (stored != null) {
+                    placeInOrder(stored);
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (stored == null) {
+                removeFromDescriptionIndex(id);
+            } else {
+                updateDescriptionIndex(stored);
+            }
+        }
+    }
+
+    /**
+     * Re-indexes the description of a ToDo item that was saved or changed, if the index has been built.
+     *
+     * @param toDo The ToDo item in its new state
+     */
+    private void updateDescriptionIndex(ToDo toDo) {
+        if (!indexedSearch) {
+            return;
+        }
+        indexLock.lock();
+        try {
+            if (descriptionIndexBuilt) {
+                descriptionIndex.index(toDo);
+            }
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
+    /**
+     * Removes a deleted ToDo item from the description index.
+     *
+     * @param id The ID of the ToDo item
+     */
+    private void removeFromDescriptionIndex(int id) {
+        if (!indexedSearch) {
+            return;
+        }
+        indexLock.lock();
+        try {
+            descriptionIndex.remove(id);
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
+    /**
+     * Discards the description index, so the next substring search rebuilds it from the database.
+     */
+    private void dropDescriptionIndex() {
+        indexLock.lock();
+        try {
+            descriptionIndexBuilt = false;
+            descriptionIndex.clear();
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the weight of a ToDo item in the entity cache: the length of its text.
+     *
+     * @param toDo The ToDo item
+     * @return The weight, at least 1
+     */
+    private static int weigh(ToDo toDo) {
+        return Math.max(1, toDo.getTaskDescription().length());
+    }
+
+    /**
+     * Writes pending write-behind changes to the repository, so that a following read sees them.
+     */
+    private void flushPendingWrites() {
+        if (writeBehind != null) {
+            writeBehind.flush();
+        }
+    }
+
+    /**
+     * Replaces the cache with the first {@code count} ToDo items in the current sort order.
+     *
+     * @param count The number of ToDo items to load
+     */
+    private void reloadPages(int count) {
+        watermark = repository.currentWatermark();
+        List<ToDo> page = repository.page(sortOption, null, count);
+        acceptPage(page, count);
+        replaceCache(page);
+    }
+
+    /**
+     * Records the paging state after a page was returned by the repository.
+     *
+     * @param page The rows returned
+     * @param requested The number of rows that were requested
+     */
+    private void acceptPage(List<ToDo> page, int requested) {
+        hasMore = page.size() == requested;
+        if (!page.isEmpty()) {
+            ToDo last = page.get(page.size() - 1);
+            pageCursor = new ToDo(last.getId(), last.getTaskDescription(), last.getEndDate(), last.isCompleted());
+        }
+    }
+
+    /**
+     * Updates an existing ToDo item in the database and in the in-memory cache.
+     * Only the changed row is written; the cache is updated in place instead of being reloaded.
      *
      * <p>Implementation Details:</p>
      * <ul>
      * <li>Updates the ToDo item in the database via the repository</li>
-     * <li>Refreshes the entire in-memory cache to ensure consistency</li>
+     * <li>Replaces the cached ToDo item with the same ID and moves it to its position in the current sort order</li>
+     * <li>The write only succeeds if the item was not changed elsewhere since it was loaded;
+     * otherwise the cache is re-synced and a {@link ConflictException} is thrown</li>
+     * <li>In write-behind mode, queues the write instead of executing it; conflicts found when
+     * the queue is flushed are corrected by the next {@link #refreshChanges()}</li>
+     * <li>Use {@link #refreshChanges()} to pick up changes made outside this service</li>
      * </ul>
      *
      * @param toDo The ToDo item to update, must not be null and must exist in the database
+     * @throws ConflictException if the item was changed or deleted elsewhere; nothing was written
      * @throws IllegalArgumentException if toDo is null (implied, not explicitly thrown)
      */
     @Override
     public void update(ToDo toDo) {
-        repository.update(toDo);
-        refresh();
+        reloadOnRollback();
+        if (writeBehind != null) {
+            writeBehind.update(toDo);
+        } else if (repository.update(toDo) != UpdateResult.UPDATED) {
+            rejectConflicts(List.of(toDo));
+            return;
+        }
+        cacheWritten(toDo);
+        updateDescriptionIndex(toDo);
+        lock.lock();
+        try {
+            reposition(toDo);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -180,8 +1015,26 @@ public class ToDoService implements Services<ToDo> {
      */
     @Override
     public void clear() {
+        reloadOnRollback();
+        if (writeBehind != null) {
+            writeBehind.discardPending();
+        }
         repository.clear();
-        toDoList.clear();
+        entities.invalidateAll();
+        indexLock.lock();
+        try {
+            descriptionIndex.clear();
+        } finally {
+            indexLock.unlock();
+        }
+        lock.lock();
+        try {
+            toDoList.clear();
+            byId.clear();
+            filedKeys.clear();
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -191,17 +1044,186 @@ public class ToDoService implements Services<ToDo> {
      * <p>Implementation Details:</p>
      * <ul>
      * <li>Updates the ToDo's completion status via its markAsCompleted() method</li>
-     * <li>Persists the updated ToDo to the database</li>
-     * <li>Refreshes the cache to ensure consistency</li>
+     * <li>Persists the updated ToDo through {@link #update(ToDo)}, so it is queued in write-behind mode</li>
      * </ul>
      *
      * @param task The ToDo item to mark as completed, must not be null
+     * @throws ConflictException if the item was changed or deleted elsewhere
      * @throws IllegalArgumentException if task is null (implied, not explicitly thrown)
      */
     public void markTaskAsCompleted(ToDo task) {
         task.markAsCompleted();
-        repository.update(task);
-        refresh();
+        update(task);
+    }
+
+    /**
+     * Searches all ToDo items in the database and returns the best matches first.
+     * The in-memory cache is not changed.
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>Delegates to the repository's ranked search, which uses FULLTEXT indexes on MySQL/MariaDB</li>
+     * <li>Searches the whole table, including rows on pages that have not been loaded yet</li>
+     * </ul>
+     *
+     * @param query The text to search for; a blank query matches nothing
+     * @param limit The maximum number of results, must be positive
+     * @return Up to {@code limit} matching ToDo items, most relevant first, never null
+     * @throws IllegalArgumentException if limit is not positive
+     * @throws RuntimeException if a database error occurs during the search
+     */
+    @Override
+    public List<ToDo> search(String query, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Search limit must be positive: " + limit);
+        }
+        flushPendingWrites();
+        return repository.search(query, limit);
+    }
+
+    /**
+     * Finds the ToDo items whose description contains a fragment, ignoring case.
+     * The in-memory cache is not changed.
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>Answered by an in-memory trigram index (see {@link ToDoTrigramIndex}): fragments of three
+     * or more characters intersect the postings of their trigrams and verify the candidates,
+     * shorter fragments scan the indexed descriptions</li>
+     * <li>The index is built from a stream of all ToDo items on the first call and after each full
+     * {@link #refresh()}, then kept up to date by this service's writes and delta refreshes</li>
+     * <li>With search.index.enabled=false, uses {@link ToDoDatabaseManagement#findToDoByDescription(String)}
+     * instead, a LIKE query that scans the table</li>
+     * <li>Searches the whole table, including rows on pages that have not been loaded yet</li>
+     * </ul>
+     *
+     * @param fragment The text to find, e.g. part of a word; an empty fragment matches nothing
+     * @param limit The maximum number of results, must be positive
+     * @return Up to {@code limit} matching ToDo items, never null
+     * @throws IllegalArgumentException if limit is not positive
+     * @throws RuntimeException if a database error occurs while building the index or searching
+     */
+    public List<ToDo> findByDescription(String fragment, int limit) {
+        checkLimit(limit);
+        if (fragment == null || fragment.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (!indexedSearch) {
+            flushPendingWrites();
+            List<ToDo> matches = repository.findToDoByDescription(fragment);
+            return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+        }
+        indexLock.lock();
+        try {
+            if (!descriptionIndexBuilt) {
+                flushPendingWrites();
+                descriptionIndex.clear();
+                try (Stream<ToDo> all = repository.stream()) {
+                    all.forEach(descriptionIndex::index);
+                }
+                descriptionIndexBuilt = true;
+            }
+            return descriptionIndex.find(fragment, limit);
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves the incomplete ToDo items due soonest, from today on.
+     * The in-memory cache is not changed.
+     *
+     * @param limit The maximum number of results, must be positive
+     * @return Up to {@code limit} incomplete ToDo items due today or later, soonest first, never null
+     * @throws IllegalArgumentException if limit is not positive
+     * @throws RuntimeException if a database error occurs
+     * @see ToDoDatabaseManagement#findUpcoming(LocalDate, int)
+     */
+    public List<ToDo> getUpcoming(int limit) {
+        checkLimit(limit);
+        flushPendingWrites();
+        return repository.findUpcoming(LocalDate.now(), limit);
+    }
+
+    /**
+     * Retrieves the incomplete ToDo items whose end date is before today.
+     * The in-memory cache is not changed.
+     *
+     * @param limit The maximum number of results, must be positive
+     * @return Up to {@code limit} overdue ToDo items, oldest due date first, never null
+     * @throws IllegalArgumentException if limit is not positive
+     * @throws RuntimeException if a database error occurs
+     * @see ToDoDatabaseManagement#findOverdue(LocalDate, int)
+     */
+    public List<ToDo> getOverdue(int limit) {
+        checkLimit(limit);
+        flushPendingWrites();
+        return repository.findOverdue(LocalDate.now(), limit);
+    }
+
+    /**
+     * Retrieves the ToDo items, completed or not, due within a date range.
+     * The in-memory cache is not changed.
+     *
+     * @param from The first due date to include
+     * @param to The last due date to include
+     * @param limit The maximum number of results, must be positive
+     * @return Up to {@code limit} ToDo items due between {@code from} and {@code to}, soonest first, never null
+     * @throws IllegalArgumentException if limit is not positive or {@code to} is before {@code from}
+     * @throws RuntimeException if a database error occurs
+     * @see ToDoDatabaseManagement#findDueBetween(LocalDate, LocalDate, int)
+     */
+    public List<ToDo> getDueBetween(LocalDate from, LocalDate to, int limit) {
+        checkLimit(limit);
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Range end " + to + " is before its start " + from);
+        }
+        flushPendingWrites();
+        return repository.findDueBetween(from, to, limit);
+    }
+
+    private static void checkLimit(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive: " + limit);
+        }
+    }
+
+    /**
+     * Returns the ToDo item with the given ID, from the entity cache if possible.
+     * The list returned by {@link #getAll()} is not changed.
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>Served from the bounded entity cache when the ToDo item was read or written recently</li>
+     * <li>Otherwise loaded with {@link ToDoDatabaseManagement#findById(int)} and cached</li>
+     * <li>Works for ToDo items on pages that have not been loaded yet</li>
+     * </ul>
+     *
+     * @param id The ID of the ToDo item
+     * @return The ToDo item, or null if it does not exist; callers must not modify it without updating it
+     * @throws RuntimeException if a database error occurs while loading it
+     */
+    @Override
+    public ToDo findById(int id) {
+        return entities.get(id);
+    }
+
+    /**
+     * Returns the statistics of the entity cache, such as its hit ratio, evictions and load latency.
+     *
+     * @return The cache statistics
+     */
+    public EntityCacheStats getEntityCacheStats() {
+        return entities.stats();
+    }
+
+    /**
+     * Returns the statistics of the write-behind queue, such as its depth and flush latency.
+     *
+     * @return The queue statistics, or null if this service writes through to the repository
+     */
+    public WriteBehindStats getWriteBehindStats() {
+        return writeBehind == null ? null : writeBehind.stats();
     }
 
     /**
@@ -221,11 +1243,16 @@ public class ToDoService implements Services<ToDo> {
      * @return List of formatted ToDo summary strings in the same order as the cache, never null
      */
     public List<String> getSummary() {
-        List<String> summaries = new ArrayList<>();
-        for (ToDo task : toDoList) {
-            summaries.add(task.getTaskDescription() + " - Date: " + task.getEndDate() + " - " + (task.isCompleted() ? "(Completed)" : "(Not yet completed)"));
+        lock.lock();
+        try {
+            List<String> summaries = new ArrayList<>();
+            for (ToDo task : toDoList) {
+                summaries.add(task.getTaskDescription() + " - Date: " + task.getEndDate() + " - " + (task.isCompleted() ? "(Completed)" : "(Not yet completed)"));
+            }
+            return summaries;
+        } finally {
+            lock.unlock();
         }
-        return summaries;
     }
 
     /**
@@ -245,11 +1272,16 @@ public class ToDoService implements Services<ToDo> {
      */
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder();
-        for (ToDo task : toDoList) {
-            sb.append(task.getTaskDescription()).append(" (").append(task.getEndDate()).append(")\n");
+        lock.lock();
+        try {
+            StringBuilder sb = new StringBuilder();
+            for (ToDo task : toDoList) {
+                sb.append(task.getTaskDescription()).append(" (").append(task.getEndDate()).append(")\n");
+            }
+            return sb.toString();
+        } finally {
+            lock.unlock();
         }
-        return sb.toString();
     }
 
     /**
@@ -258,23 +1290,43 @@ public class ToDoService implements Services<ToDo> {
      *
      * <p>Implementation Details:</p>
      * <ul>
-     * <li>If options is null, refreshes from database in default order</li>
-     * <li>For "Description" option, requests description-sorted list from repository</li>
-     * <li>For "Date" option, requests date-sorted list from repository</li>
-     * <li>For any other option, refreshes from database in default order</li>
+     * <li>Remembers the option so that paging and refreshes keep the same order</li>
+     * <li>When the whole table is loaded, re-sorts the list cache in memory without a query,
+     * in O(n log n) time; descriptions are then ordered case-insensitively, which may differ slightly
+     * from the database collation</li>
+     * <li>In paged mode, reloads the first page in the new order instead of the whole table</li>
+     * <li>Before the first full load, requests the list from the repository: sorted by description
+     * for "Description", by date for "Date", in default order otherwise</li>
      * </ul>
      *
      * @param options The sort option to apply ("Description", "Date", or null for default order)
      */
     public void sort(String options) {
-        if(options == null) {
-            toDoList = repository.refresh();
-            return;
+        lock.lock();
+        try {
+            sortOption = options;
+            sortKey = sortKeyFor(options);
+            order = orderFor(options);
+            refileKeys();
+            if (pageSize == 0 && watermark != null) {
+                List<ToDo> sorted = new ArrayList<>(toDoList);
+                sorted.sort(order);
+                toDoList = sorted;
+                return;
+            }
+        } finally {
+            lock.unlock();
         }
-        switch(options) {
-            case "Description" -> toDoList = repository.getSortedByDescription();
-            case "Date" -> toDoList = repository.getSortedByDate();
-            default -> toDoList = repository.refresh();
+        flushPendingWrites();
+        lock.lock();
+        try {
+            if (pageSize > 0) {
+                reloadPages(pageSize);
+                return;
+            }
+            loadAllInOrder();
+        } finally {
+            lock.unlock();
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,241 @@
+package todo.impl;
+
+import common.IntIdMap;
+import common.PostingList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import todo.ToDo;
+
+/**
+ * In-memory trigram index answering case-insensitive substring queries over ToDo descriptions.
+ *
+ * <p>Implementation Details:</p>
+ * <ul>
+ * <li>Every sequence of three characters of a lower-cased description is a trigram; each trigram
+ * has a {@link PostingList} of the ordinals of the items containing it</li>
+ * <li>A query of at least three characters is split into its trigrams; the items containing all
+ * of them are found by intersecting their postings, starting from the shortest list, so the
+ * work depends on the rarest trigram rather than on the number of items</li>
+ * <li>Every candidate is verified against its description, so trigrams that occur in the wrong
+ * order or hash collisions between trigrams never produce false matches</li>
+ * <li>Shorter queries have no trigram and are answered by scanning the descriptions</li>
+ * <li>Every (re)indexed item gets a new ordinal, so the lists stay append-only; dead ordinals
+ * are skipped and the lists are compacted once more than half of the ordinals are dead</li>
+ * </ul>
+ *
+ * <p>The index is not thread-safe; {@link ToDoService} guards it with its own lock.</p>
+ *
+ * @see ToDoService#findByDescription(String, int)
+ */
+final class ToDoTrigramIndex {
+    /** Dead ordinals tolerated before compaction is considered. */
+    private static final int MIN_DEAD_TO_COMPACT = 1024;
+
+    private IntIdMap<PostingList> postings = new IntIdMap<>();
+    private final IntIdMap<Doc> byId = new IntIdMap<>();
+    /** The indexed item of each ordinal, or null if the ordinal is dead. */
+    private Doc[] docs = new Doc[64];
+    private int nextOrdinal;
+    private int deadOrdinals;
+
+    /**
+     * Adds an item to the index, replacing its previous version.
+     *
+     * @param toDo The item in its current state
+     */
+    void index(ToDo toDo) {
+        remove(toDo.getId());
+        String text = normalize(toDo.getTaskDescription());
+        if (nextOrdinal == docs.length) {
+            docs = Arrays.copyOf(docs, docs.length * 2);
+        }
+        int ordinal = nextOrdinal++;
+        for (int key : trigrams(text)) {
+            PostingList list = postings.get(key);
+            if (list == null) {
+                list = new PostingList(false);
+                postings.put(key, list);
+            }
+            list.add(ordinal);
+        }
+        Doc doc = new Doc(toDo, text);
+        doc.ordinal = ordinal;
+        docs[ordinal] = doc;
+        byId.put(toDo.getId(), doc);
+    }
+
+    /**
+     * Removes an item from the index.
+     *
+     * @param id The item's ID
+     */
+    void remove(int id) {
+        Doc doc = byId.remove(id);
+        if (doc == null) {
+            return;
+        }
+        docs[doc.ordinal] = null;
+        deadOrdinals++;
+        if (deadOrdinals >= MIN_DEAD_TO_COMPACT && deadOrdinals > byId.size()) {
+            compact();
+        }
+    }
+
+    /**
+     * Removes every item.
+     */
+    void clear() {
+        postings = new IntIdMap<>();
+        byId.clear();
+        docs = new Doc[64];
+        nextOrdinal = 0;
+        deadOrdinals = 0;
+    }
+
+    /**
+     * @return The number of items in the index
+     */
+    int size() {
+        return byId.size();
+    }
+
+    /**
+     * Returns the items whose description contains a fragment, ignoring case.
+     *
+     * @param fragment The text to find; an empty fragment matches nothing
+     * @param limit The maximum number of items to return, must be positive
+     * @return Up to {@code limit} matching items, least recently indexed first, never null
+     */
+    List<ToDo> find(String fragment, int limit) {
+        List<ToDo> results = new ArrayList<>();
+        String query = normalize(fragment);
+        if (query.isEmpty()) {
+            return results;
+        }
+        if (query.length() < 3) {
+            for (int ordinal = 0; ordinal < nextOrdinal && results.size() < limit; ordinal++) {
+                collect(docs[ordinal], query, results);
+            }
+            return results;
+        }
+        int[] keys = trigrams(query);
+        PostingList[] lists = new PostingList[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            lists[i] = postings.get(keys[i]);
+            if (lists[i] == null) {
+                return results;
+            }
+        }
+        Arrays.sort(lists, Comparator.comparingInt(PostingList::size));
+        PostingList.Cursor[] cursors = new PostingList.Cursor[lists.length];
+        for (int i = 0; i < lists.length; i++) {
+            cursors[i] = lists[i].cursor();
+        }
+        PostingList.Cursor lead = cursors[0];
+        candidates:
+        while (results.size() < limit && lead.next()) {
+            int ordinal = lead.ordinal();
+            for (int i = 1; i < cursors.length; i++) {
+                if (!cursors[i].advance(ordinal)) {
+                    break candidates;
+                }
+                if (cursors[i].ordinal() != ordinal) {
+                    // Skip the lead ahead to the next ordinal this list can match.
+                    if (!lead.advance(cursors[i].ordinal())) {
+                        break candidates;
+                    }
+                    ordinal = lead.ordinal();
+                    i = 0;
+                }
+            }
+            collect(docs[ordinal], query, results);
+        }
+        return results;
+    }
+
+    /**
+     * Adds an item to the results if it is still live and its description contains the query.
+     */
+    private static void collect(Doc doc, String query, List<ToDo> results) {
+        if (doc != null && doc.text.contains(query)) {
+            results.add(doc.toDo);
+        }
+    }
+
+    /**
+     * Lower-cases a description or query the same way for both.
+     */
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the distinct trigram keys of a normalized text.
+     */
+    private static int[] trigrams(String text) {
+        if (text.length() < 3) {
+            return new int[0];
+        }
+        int[] keys = new int[text.length() - 2];
+        for (int i = 0; i < keys.length; i++) {
+            long packed = (long) text.charAt(i) << 32 | (long) text.charAt(i + 1) << 16 | text.charAt(i + 2);
+            keys[i] = (int) (packed * 0x9E3779B97F4A7C15L >>> 32);
+        }
+        Arrays.sort(keys);
+        int distinct = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (i == 0 || keys[i] != keys[i - 1]) {
+                keys[distinct++] = keys[i];
+            }
+        }
+        return Arrays.copyOf(keys, distinct);
+    }
+
+    /**
+     * Renumbers the live items consecutively and rewrites every posting list without the
+     * dead ordinals, dropping trigrams no longer used.
+     */
+    private void compact() {
+        int[] remap = new int[nextOrdinal];
+        Doc[] live = new Doc[Math.max(64, byId.size() * 2)];
+        int next = 0;
+        for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+            Doc doc = docs[ordinal];
+            if (doc == null) {
+                remap[ordinal] = -1;
+            } else {
+                remap[ordinal] = next;
+                doc.ordinal = next;
+                live[next++] = doc;
+            }
+        }
+        IntIdMap<PostingList> compacted = new IntIdMap<>(postings.size());
+        postings.forEach((list, key) -> {
+            PostingList kept = list.compact(remap);
+            if (kept.size() > 0) {
+                compacted.put(key, kept);
+            }
+        });
+        postings = compacted;
+        docs = live;
+        nextOrdinal = next;
+        deadOrdinals = 0;
+    }
+
+    /**
+     * An indexed item and the normalized description its trigrams were taken from.
+     */
+    private static final class Doc {
+        final ToDo toDo;
+        final String text;
+        int ordinal;
+
+        Doc(ToDo toDo, String text) {
+            this.toDo = toDo;
+            this.text = text;
+        }
+    }
+}
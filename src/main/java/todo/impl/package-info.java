@@ -13,6 +13,8 @@
  *       like marking items as complete and filtering by priority or due date</li>
  *   <li>{@link todo.impl.ToDoDatabaseManager} - Data access component that implements
  *       {@link todo.interfaces.ToDoDatabaseManagement}, handling the persistence of todo items</li>
+ *   <li>{@code ToDoTrigramIndex} - Package-private in-memory trigram index over todo descriptions,
+ *       maintained by {@link todo.impl.ToDoService} for substring searches</li>
  * </ul>
  *
  * <p>Architectural role:</p>
@@ -2,6 +2,7 @@ package todo.interfaces;
 
 import todo.ToDo;
 import common.interfaces.DatabaseManagement;
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -14,6 +15,7 @@ import java.util.List;
  * <li>Description-based search functionality</li>
  * <li>ToDo sorting by description</li>
  * <li>ToDo sorting by due date</li>
+ * <li>Limited, indexed due date queries: upcoming, overdue and due within a range</li>
  * <li>Extends generic DatabaseManagement interface for standard operations</li>
  * </ul>
  *
@@ -55,6 +57,7 @@ public interface ToDoDatabaseManagement extends DatabaseManagement<ToDo> {
      * @param taskDescription The text to search for within task descriptions, may be partial
      * @return List of ToDo items with matching descriptions, empty list if none found, never null
      * @throws RuntimeException if a database error occurs during the search
+     * @see #search(String, int)
      */
     List<ToDo> findToDoByDescription(String taskDescription);
 
@@ -89,4 +92,54 @@ public interface ToDoDatabaseManagement extends DatabaseManagement<ToDo> {
      * @throws RuntimeException if a database error occurs during retrieval
      */
     List<ToDo> getSortedByDate();
+
+    /**
+     * Retrieves the incomplete ToDo items due soonest, starting at a given date.
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>Should filter and order in the database using an index on completion status and end date</li>
+     * <li>Should order by end date, then ID, and stop after {@code limit} rows</li>
+     * <li>Should skip tasks without an end date</li>
+     * </ul>
+     *
+     * @param from The first due date to include, usually today
+     * @param limit The maximum number of ToDo items to return, must be positive
+     * @return Up to {@code limit} incomplete ToDo items due on or after {@code from}, soonest first, never null
+     * @throws RuntimeException if a database error occurs during retrieval
+     */
+    List<ToDo> findUpcoming(LocalDate from, int limit);
+
+    /**
+     * Retrieves the incomplete ToDo items whose end date has passed.
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>Should filter and order in the database using an index on completion status and end date</li>
+     * <li>Should order by end date, then ID, so the longest overdue come first</li>
+     * </ul>
+     *
+     * @param today The current date; tasks due before it are overdue
+     * @param limit The maximum number of ToDo items to return, must be positive
+     * @return Up to {@code limit} overdue incomplete ToDo items, oldest due date first, never null
+     * @throws RuntimeException if a database error occurs during retrieval
+     */
+    List<ToDo> findOverdue(LocalDate today, int limit);
+
+    /**
+     * Retrieves the ToDo items, completed or not, due within a date range.
+     *
+     * <p>Implementation Details:</p>
+     * <ul>
+     * <li>Should filter and order in the database using the index on end date</li>
+     * <li>Should order by end date, then ID, and stop after {@code limit} rows</li>
+     * </ul>
+     *
+     * @param from The first due date to include
+     * @param to The last due date to include
+     * @param limit The maximum number of ToDo items to return, must be positive
+     * @return Up to {@code limit} ToDo items due between {@code from} and {@code to} inclusive, never null
+     * @throws RuntimeException if a database error occurs during retrieval
+     */
+    List<ToDo> findDueBetween(LocalDate from, LocalDate to, int limit);
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+-- Same tables as the MySQL baseline; H2 runs in MySQL compatibility mode.
+CREATE TABLE IF NOT EXISTS notes (
+    id INT PRIMARY KEY AUTO_INCREMENT,
+    title VARCHAR(255) NOT NULL,
+    content TEXT
+);
+
+CREATE TABLE IF NOT EXISTS todos (
+    id INT PRIMARY KEY AUTO_INCREMENT,
+    description VARCHAR(255) NOT NULL,
+    end_date VARCHAR(255),
+    completed BOOLEAN NOT NULL DEFAULT FALSE
+);
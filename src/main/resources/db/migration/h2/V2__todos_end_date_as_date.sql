@@ -0,0 +1,7 @@
+-- Store end dates as DATE; values that are not yyyy-MM-dd dates are cleared first.
+UPDATE todos
+SET end_date = NULL
+WHERE end_date IS NOT NULL
+  AND NOT REGEXP_LIKE(end_date, '^[0-9]{4}-(0[1-9]|1[0-2])-(0[1-9]|[12][0-9]|3[01])$');
+
+ALTER TABLE todos ALTER COLUMN end_date SET DATA TYPE DATE;
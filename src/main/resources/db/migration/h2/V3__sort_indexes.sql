@@ -0,0 +1,6 @@
+-- Indexes backing the sort orders and keyset pages.
+CREATE INDEX idx_notes_title ON notes (title, id);
+
+CREATE INDEX idx_todos_description ON todos (description, id);
+
+CREATE INDEX idx_todos_end_date ON todos (end_date, id);
@@ -0,0 +1,3 @@
+-- H2 has no MySQL-compatible FULLTEXT index; the DAOs search the embedded database with
+-- LIKE instead (see database.FullTextSearch). This version is kept so that both
+-- directories stay numbered alike.
@@ -0,0 +1,14 @@
+-- Tables as created by releases before schema versioning was introduced.
+-- IF NOT EXISTS keeps this a no-op on existing installations.
+CREATE TABLE IF NOT EXISTS notes (
+    id INT PRIMARY KEY AUTO_INCREMENT,
+    title VARCHAR(255) NOT NULL,
+    content TEXT
+);
+
+CREATE TABLE IF NOT EXISTS todos (
+    id INT PRIMARY KEY AUTO_INCREMENT,
+    description VARCHAR(255) NOT NULL,
+    end_date VARCHAR(255),
+    completed BOOLEAN NOT NULL DEFAULT 0
+);
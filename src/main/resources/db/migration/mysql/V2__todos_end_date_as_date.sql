@@ -0,0 +1,8 @@
+-- Store end dates as DATE so that date ordering and range filters are real date comparisons
+-- and can use an index. Values that are not yyyy-MM-dd dates cannot be converted and are cleared.
+UPDATE todos
+SET end_date = NULL
+WHERE end_date IS NOT NULL
+  AND end_date NOT REGEXP '^[0-9]{4}-(0[1-9]|1[0-2])-(0[1-9]|[12][0-9]|3[01])$';
+
+ALTER TABLE todos MODIFY end_date DATE;
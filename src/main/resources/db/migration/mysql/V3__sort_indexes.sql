@@ -0,0 +1,7 @@
+-- Indexes backing the sort orders and keyset pages (InnoDB appends the primary key,
+-- so each index also covers the id tie-break).
+CREATE INDEX idx_notes_title ON notes (title);
+
+CREATE INDEX idx_todos_description ON todos (description);
+
+CREATE INDEX idx_todos_end_date ON todos (end_date);
@@ -0,0 +1,5 @@
+-- FULLTEXT indexes backing the ranked search on notes and todos.
+-- Requires InnoDB full-text support (MySQL 5.6+ / MariaDB 10.0.5+).
+ALTER TABLE notes ADD FULLTEXT INDEX ft_notes_title_content (title, content);
+
+ALTER TABLE todos ADD FULLTEXT INDEX ft_todos_description (description);
@@ -0,0 +1,20 @@
+-- Change tracking for delta refreshes: every write bumps a row's version and updated_at,
+-- and deletes leave a tombstone, so clients can ask for what changed since a point in time.
+ALTER TABLE notes
+    ADD COLUMN version INT NOT NULL DEFAULT 0,
+    ADD COLUMN updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3);
+
+ALTER TABLE todos
+    ADD COLUMN version INT NOT NULL DEFAULT 0,
+    ADD COLUMN updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3);
+
+CREATE INDEX idx_notes_updated_at ON notes (updated_at);
+
+CREATE INDEX idx_todos_updated_at ON todos (updated_at);
+
+CREATE TABLE IF NOT EXISTS row_tombstones (
+    table_name VARCHAR(32) NOT NULL,
+    row_id INT NOT NULL,
+    deleted_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    INDEX idx_row_tombstones_deleted_at (table_name, deleted_at)
+);
@@ -0,0 +1,3 @@
+-- Index backing the upcoming and overdue task queries, which filter incomplete tasks and
+-- read them in end date order (InnoDB appends the primary key for the id tie-break).
+CREATE INDEX idx_todos_completed_end_date ON todos (completed, end_date);
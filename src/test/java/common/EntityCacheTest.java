@@ -0,0 +1,199 @@
+package common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class EntityCacheTest {
+    /** Stands in for the repository: rows by ID, and the IDs loaded so far. */
+    private static final class Table {
+        final Map<Integer, String> rows = new HashMap<>();
+        final List<Integer> loads = new ArrayList<>();
+        Runnable duringLoad = () -> { };
+
+        /** Reads the row, then runs {@link #duringLoad} before the cache gets it back. */
+        String load(int id) {
+            loads.add(id);
+            String row = rows.get(id);
+            duringLoad.run();
+            return row;
+        }
+    }
+
+    private static Table table(int rows) {
+        Table table = new Table();
+        for (int id = 1; id <= rows; id++) {
+            table.rows.put(id, "row" + id);
+        }
+        return table;
+    }
+
+    private static EntityCache<String> cache(Table table, int maxEntries, long maxWeight) {
+        return new EntityCache<>(table::load, String::length, maxEntries, maxWeight);
+    }
+
+    @Test
+    void missLoadsOnceThenHits() {
+        Table table = table(3);
+        EntityCache<String> cache = cache(table, 10, 1000);
+        assertEquals("row1", cache.get(1));
+        assertEquals("row1", cache.get(1));
+        assertNull(cache.get(42));
+        assertNull(cache.get(42));
+        assertEquals(List.of(1, 42, 42), table.loads);
+
+        EntityCacheStats stats = cache.stats();
+        assertEquals(1, stats.getSize());
+        assertEquals(4L, stats.getWeight());
+        assertEquals(1L, stats.getHitCount());
+        assertEquals(3L, stats.getMissCount());
+    }
+
+    @Test
+    void entriesHitTwiceSurviveAScanOfEntriesHitOnce() {
+        Table table = table(100);
+        EntityCache<String> cache = cache(table, 5, 1000);
+        cache.get(1);
+        cache.get(1);
+        cache.get(2);
+        cache.get(2);
+        for (int id = 10; id < 100; id++) {
+            cache.get(id);
+        }
+        table.loads.clear();
+        cache.get(1);
+        cache.get(2);
+        assertEquals(List.of(), table.loads);
+        assertEquals(5, cache.stats().getSize());
+    }
+
+    @Test
+    void protectedOverflowIsDemotedToProbation() {
+        Table table = table(10);
+        // Up to 4 of the 5 entries are protected.
+        EntityCache<String> cache = cache(table, 5, 1000);
+        for (int id = 1; id <= 5; id++) {
+            cache.get(id);
+        }
+        for (int id = 1; id <= 5; id++) {
+            cache.get(id);
+        }
+        // Promoting 5 demoted 1, the least recently used protected entry, so 1 is the
+        // eldest probationary entry and the next load evicts it rather than 2.
+        cache.get(6);
+        table.loads.clear();
+        cache.get(2);
+        cache.get(6);
+        assertEquals(List.of(), table.loads);
+        cache.get(1);
+        assertEquals(List.of(1), table.loads);
+        assertEquals(2L, cache.stats().getEvictionCount());
+    }
+
+    @Test
+    void weightBoundEvictsLeastRecentlyUsed() {
+        Table table = new Table();
+        table.rows.put(1, "aaaa");
+        table.rows.put(2, "bbbb");
+        table.rows.put(3, "cccc");
+        table.rows.put(4, "an entity heavier than the whole cache");
+        EntityCache<String> cache = cache(table, 100, 10);
+        cache.get(1);
+        cache.get(2);
+        cache.get(3);
+        EntityCacheStats stats = cache.stats();
+        assertEquals(2, stats.getSize());
+        assertEquals(8L, stats.getWeight());
+        assertEquals(1L, stats.getEvictionCount());
+
+        // Too heavy to cache at all; it must not push out the others.
+        assertEquals("an entity heavier than the whole cache", cache.get(4));
+        assertEquals(2, cache.stats().getSize());
+        table.loads.clear();
+        cache.get(2);
+        cache.get(3);
+        cache.get(1);
+        assertEquals(List.of(1), table.loads);
+    }
+
+    @Test
+    void putKeepsSegmentAndReweighs() {
+        Table table = table(10);
+        EntityCache<String> cache = cache(table, 5, 1000);
+        cache.get(1);
+        cache.get(1);
+        cache.put(1, "updated row 1");
+        assertEquals(13L, cache.stats().getWeight());
+        // Still protected: a scan of new entries does not evict it.
+        for (int id = 2; id <= 10; id++) {
+            cache.get(id);
+        }
+        table.loads.clear();
+        assertEquals("updated row 1", cache.get(1));
+        assertEquals(List.of(), table.loads);
+    }
+
+    @Test
+    void loadOverlappingAWriteIsNotCached() {
+        Table table = table(3);
+        EntityCache<String> cache = cache(table, 10, 1000);
+
+        // An update lands after the old row was read.
+        table.duringLoad = () -> {
+            table.duringLoad = () -> { };
+            cache.put(1, "written");
+        };
+        assertEquals("row1", cache.get(1));
+        assertEquals("written", cache.get(1));
+
+        // A delete lands after the row was read.
+        table.duringLoad = () -> {
+            table.duringLoad = () -> { };
+            table.rows.remove(2);
+            cache.invalidate(2);
+        };
+        assertEquals("row2", cache.get(2));
+        assertNull(cache.get(2));
+
+        table.duringLoad = () -> {
+            table.duringLoad = () -> { };
+            cache.invalidateAll();
+        };
+        cache.get(3);
+        table.loads.clear();
+        cache.get(3);
+        assertEquals(List.of(3), table.loads);
+    }
+
+    @Test
+    void failedLoadsAreCountedAndNotCached() {
+        Table table = table(1);
+        table.duringLoad = () -> {
+            throw new RuntimeException("Error finding row: connection lost");
+        };
+        EntityCache<String> cache = cache(table, 10, 1000);
+        assertThrows(RuntimeException.class, () -> cache.get(1));
+        assertEquals(1L, cache.stats().getLoadFailureCount());
+
+        table.duringLoad = () -> { };
+        assertEquals("row1", cache.get(1));
+        assertEquals(1, cache.stats().getSize());
+    }
+
+    @Test
+    void zeroEntriesDisablesCaching() {
+        Table table = table(1);
+        EntityCache<String> cache = cache(table, 0, 1000);
+        cache.get(1);
+        cache.put(1, "written");
+        cache.get(1);
+        assertEquals(List.of(1, 1), table.loads);
+        assertEquals(0, cache.stats().getSize());
+    }
+}
@@ -0,0 +1,140 @@
+package common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class IntIdMapTest {
+    /** Table length of {@code new IntIdMap<>(0)}; it grows once it holds half as many entries. */
+    private static final int SMALL_TABLE = 16;
+
+    @Test
+    void putGetAndReplace() {
+        IntIdMap<String> map = new IntIdMap<>();
+        assertNull(map.put(7, "a"));
+        assertNull(map.put(-3, "b"));
+        assertNull(map.put(0, "c"));
+        assertEquals("a", map.put(7, "d"));
+        assertEquals(3, map.size());
+        assertEquals("d", map.get(7));
+        assertEquals("b", map.get(-3));
+        assertEquals("c", map.get(0));
+        assertNull(map.get(8));
+        assertTrue(map.containsKey(0));
+        assertFalse(map.containsKey(1));
+    }
+
+    @Test
+    void rejectsNullValues() {
+        IntIdMap<String> map = new IntIdMap<>();
+        assertThrows(NullPointerException.class, () -> map.put(1, null));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    void removeKeepsRestOfProbeRunReachable() {
+        IntIdMap<String> map = new IntIdMap<>(0);
+        List<Integer> ids = idsWithHome(3, 4);
+        ids.forEach(id -> map.put(id, "v" + id));
+
+        // Removing from the front, the middle and the end of the run must not hide the others.
+        for (int removed : List.of(ids.get(0), ids.get(2), ids.get(3))) {
+            assertEquals("v" + removed, map.remove(removed));
+            assertNull(map.get(removed));
+        }
+        assertEquals("v" + ids.get(1), map.get(ids.get(1)));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void removeWithProbeRunWrappingAroundTheTable() {
+        IntIdMap<String> map = new IntIdMap<>(0);
+        // One entry homed in the second-to-last slot, four homed in the last slot, which
+        // wrap around into the first three slots, and one homed in slot 1, pushed behind them.
+        int beforeLast = idsWithHome(SMALL_TABLE - 2, 1).get(0);
+        List<Integer> wrapping = idsWithHome(SMALL_TABLE - 1, 4);
+        int homedInOne = idsWithHome(1, 1).get(0);
+        map.put(beforeLast, "before");
+        wrapping.forEach(id -> map.put(id, "v" + id));
+        map.put(homedInOne, "one");
+
+        // The entries behind the gap are all homed after it, so none of them may move into it.
+        assertEquals("before", map.remove(beforeLast));
+        for (int id : wrapping) {
+            assertEquals("v" + id, map.get(id));
+        }
+        assertEquals("one", map.get(homedInOne));
+
+        assertEquals("v" + wrapping.get(0), map.remove(wrapping.get(0)));
+        for (int id : wrapping.subList(1, 4)) {
+            assertEquals("v" + id, map.get(id));
+        }
+        assertEquals("one", map.get(homedInOne));
+
+        assertEquals("v" + wrapping.get(2), map.remove(wrapping.get(2)));
+        assertEquals("v" + wrapping.get(1), map.get(wrapping.get(1)));
+        assertEquals("v" + wrapping.get(3), map.get(wrapping.get(3)));
+        assertEquals("one", map.get(homedInOne));
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    void clearAndForEach() {
+        IntIdMap<String> map = new IntIdMap<>();
+        for (int id = 1; id <= 100; id++) {
+            map.put(id, "v" + id);
+        }
+        Map<Integer, String> seen = new HashMap<>();
+        map.forEach((value, id) -> seen.put(id, value));
+        assertEquals(100, seen.size());
+        assertEquals("v50", seen.get(50));
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(50));
+        map.put(50, "again");
+        assertEquals("again", map.get(50));
+    }
+
+    @Test
+    void matchesHashMapUnderRandomOperations() {
+        IntIdMap<Integer> map = new IntIdMap<>(0);
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int step = 0; step < 200_000; step++) {
+            // A small key range makes most operations hit present keys, so many removals shift entries.
+            int id = random.nextInt(300) - 50;
+            switch (random.nextInt(3)) {
+                case 0 -> assertEquals(expected.remove(id), map.remove(id));
+                case 1 -> assertEquals(expected.put(id, step), map.put(id, step));
+                default -> assertEquals(expected.get(id), map.get(id));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        expected.forEach((id, value) -> assertEquals(value, map.get(id)));
+    }
+
+    /**
+     * Returns IDs whose home slot in a table of {@link #SMALL_TABLE} slots is {@code slot},
+     * using the same Fibonacci hash as {@link IntIdMap}.
+     */
+    private static List<Integer> idsWithHome(int slot, int count) {
+        List<Integer> ids = new ArrayList<>();
+        for (int id = 1; ids.size() < count; id++) {
+            int hash = id * 0x9E3779B9;
+            if (((hash ^ (hash >>> 16)) & (SMALL_TABLE - 1)) == slot) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+}
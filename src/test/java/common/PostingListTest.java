@@ -0,0 +1,133 @@
+package common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class PostingListTest {
+    private static List<Integer> ordinals(PostingList list) {
+        List<Integer> ordinals = new ArrayList<>();
+        PostingList.Cursor cursor = list.cursor();
+        while (cursor.next()) {
+            ordinals.add(cursor.ordinal());
+        }
+        return ordinals;
+    }
+
+    @Test
+    void roundTripsGapsOfEveryVarIntLength() {
+        // Gaps of 1, 2, 3, 4 and 5 bytes once encoded.
+        int[] values = { 0, 1, 200, 20_000, 3_000_000, 400_000_000, Integer.MAX_VALUE };
+        PostingList list = new PostingList(true);
+        for (int i = 0; i < values.length; i++) {
+            list.add(values[i], i + 1);
+        }
+        assertEquals(values.length, list.size());
+
+        PostingList.Cursor cursor = list.cursor();
+        for (int i = 0; i < values.length; i++) {
+            assertTrue(cursor.next());
+            assertEquals(values[i], cursor.ordinal());
+            assertEquals(i + 1, cursor.frequency());
+        }
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    void denseListsTakeAboutOneBytePerEntry() {
+        PostingList list = new PostingList(false);
+        for (int ordinal = 0; ordinal < 10_000; ordinal += 3) {
+            list.add(ordinal);
+        }
+        assertEquals(list.size(), list.byteSize());
+        PostingList.Cursor cursor = list.cursor();
+        assertTrue(cursor.next());
+        assertEquals(1, cursor.frequency());
+    }
+
+    @Test
+    void rejectsOrdinalsOutOfOrder() {
+        PostingList list = new PostingList(false);
+        list.add(5);
+        assertThrows(IllegalArgumentException.class, () -> list.add(5));
+        assertThrows(IllegalArgumentException.class, () -> list.add(4));
+        assertEquals(1, list.size());
+    }
+
+    @Test
+    void advanceSkipsToTheFirstOrdinalAtLeastTheTarget() {
+        PostingList list = new PostingList(false);
+        for (int ordinal : new int[] { 2, 5, 9, 14 }) {
+            list.add(ordinal);
+        }
+        PostingList.Cursor cursor = list.cursor();
+        assertTrue(cursor.advance(5));
+        assertEquals(5, cursor.ordinal());
+        assertTrue(cursor.advance(5));
+        assertEquals(5, cursor.ordinal());
+        assertTrue(cursor.advance(10));
+        assertEquals(14, cursor.ordinal());
+        assertFalse(cursor.advance(15));
+        // Once exhausted, the cursor stays exhausted even for targets it passed.
+        assertFalse(cursor.advance(0));
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    void cursorSeesEntriesAppendedAfterItWasCreated() {
+        PostingList list = new PostingList(false);
+        list.add(1);
+        PostingList.Cursor cursor = list.cursor();
+        assertTrue(cursor.next());
+        assertFalse(cursor.next());
+        list.add(8);
+        assertTrue(cursor.next());
+        assertEquals(8, cursor.ordinal());
+    }
+
+    @Test
+    void compactRenumbersAndDropsRemovedOrdinals() {
+        PostingList list = new PostingList(true);
+        list.add(0, 4);
+        list.add(3, 1);
+        list.add(4, 2);
+        list.add(1000, 7);
+        int[] remap = new int[1001];
+        Arrays.fill(remap, -1);
+        remap[0] = 0;
+        remap[4] = 1;
+        remap[1000] = 2;
+
+        PostingList compacted = list.compact(remap);
+        assertEquals(3, compacted.size());
+        PostingList.Cursor cursor = compacted.cursor();
+        int[][] expected = { { 0, 4 }, { 1, 2 }, { 2, 7 } };
+        for (int[] entry : expected) {
+            assertTrue(cursor.next());
+            assertEquals(entry[0], cursor.ordinal());
+            assertEquals(entry[1], cursor.frequency());
+        }
+        assertFalse(cursor.next());
+        // The original list is left unchanged.
+        assertEquals(List.of(0, 3, 4, 1000), ordinals(list));
+    }
+
+    @Test
+    void compactOfOnlyRemovedOrdinalsIsEmptyAndAppendable() {
+        PostingList list = new PostingList(false);
+        list.add(2);
+        list.add(6);
+        int[] remap = { -1, -1, -1, -1, -1, -1, -1 };
+        PostingList compacted = list.compact(remap);
+        assertEquals(0, compacted.size());
+        assertEquals(0, compacted.byteSize());
+        compacted.add(0);
+        assertEquals(List.of(0), ordinals(compacted));
+    }
+}
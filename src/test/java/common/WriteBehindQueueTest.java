@@ -0,0 +1,442 @@
+package common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import common.interfaces.DatabaseManagement;
+import common.interfaces.VersionedEntity;
+import java.sql.BatchUpdateException;
+import java.sql.SQLDataException;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLSyntaxErrorException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+class WriteBehindQueueTest {
+    /** A mutable entity, like the services' notes and ToDo items. */
+    private static final class Item implements VersionedEntity<Item> {
+        final int id;
+        String name;
+        int version;
+
+        Item(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        @Override
+        public int getId() {
+            return id;
+        }
+
+        @Override
+        public int getVersion() {
+            return version;
+        }
+
+        @Override
+        public void setVersion(int version) {
+            this.version = version;
+        }
+
+        @Override
+        public Item copy() {
+            Item copy = new Item(id, name);
+            copy.version = version;
+            return copy;
+        }
+    }
+
+    /**
+     * Repository that records the batches it is given and checks versions like the DAOs.
+     * A batch fails as a whole, before anything is written, if {@link #failure} returns an exception.
+     */
+    private static final class Repository implements DatabaseManagement<Item> {
+        final Map<Integer, Integer> versions = new HashMap<>();
+        final List<List<String>> updateCalls = new ArrayList<>();
+        final List<List<Integer>> deleteCalls = new ArrayList<>();
+        FailurePolicy failure = items -> null;
+        Runnable duringCall = () -> { };
+
+        @Override
+        public List<Item> updateAll(List<Item> items) {
+            List<String> names = new ArrayList<>();
+            items.forEach(item -> names.add(item.name));
+            updateCalls.add(names);
+            duringCall.run();
+            RuntimeException e = failure.apply(items);
+            if (e != null) {
+                throw e;
+            }
+            List<Item> rejected = new ArrayList<>();
+            for (Item item : items) {
+                int stored = versions.getOrDefault(item.id, 0);
+                if (stored == item.version) {
+                    versions.put(item.id, stored + 1);
+                    item.setVersion(stored + 1);
+                } else {
+                    rejected.add(item);
+                }
+            }
+            return rejected;
+        }
+
+        @Override
+        public void deleteAll(List<Item> items) {
+            List<Integer> ids = new ArrayList<>();
+            items.forEach(item -> ids.add(item.id));
+            deleteCalls.add(ids);
+            RuntimeException e = failure.apply(items);
+            if (e != null) {
+                throw e;
+            }
+            ids.forEach(versions::remove);
+        }
+
+        @Override
+        public void save(Item item) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void delete(Item item) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public UpdateResult update(Item item) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void saveAll(List<Item> items) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void clear() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Item findById(int id) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Item> refresh() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Item> sortedGet(String options) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Item> page(String sortOption, Item after, int limit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Stream<Item> stream() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Stream<Item> stream(int fetchSize) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Item> search(String query, int limit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Delta<Item> refreshSince(Instant watermark) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private interface FailurePolicy {
+        RuntimeException apply(List<Item> items);
+    }
+
+    /** Listener that applies written versions to the "cached" items, like the services. */
+    private static final class Recorder implements WriteBehindQueue.Listener<Item> {
+        final Map<Integer, Item> cached = new HashMap<>();
+        final List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+        final List<Integer> dropped = Collections.synchronizedList(new ArrayList<>());
+        /** Holds back {@link #written}, like a service waiting for its lock. */
+        volatile CountDownLatch release = new CountDownLatch(0);
+
+        Item cache(Item item) {
+            cached.put(item.id, item);
+            return item;
+        }
+
+        @Override
+        public void written(List<Item> updated) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            for (Item item : updated) {
+                written.add(item.id);
+                Item original = cached.get(item.id);
+                original.setVersion(Math.max(original.version, item.version));
+            }
+        }
+
+        @Override
+        public void dropped(List<Integer> ids) {
+            dropped.addAll(ids);
+        }
+    }
+
+    /** A queue that only flushes on demand. */
+    private static WriteBehindQueue<Item> queue(Repository repository, Recorder recorder) {
+        WriteBehindQueue<Item> queue = new WriteBehindQueue<>("test", repository, 1000, 3_600_000);
+        queue.setListener(recorder);
+        return queue;
+    }
+
+    private static RuntimeException wrapped(SQLException e) {
+        return new RuntimeException("Error updating items: " + e.getMessage(), e);
+    }
+
+    private static FailurePolicy failWhen(Predicate<Item> bad, SQLException error) {
+        return items -> items.stream().anyMatch(bad) ? wrapped(error) : null;
+    }
+
+    @Test
+    void coalescesUpdatesAndDeleteOverridesUpdate() {
+        Repository repository = new Repository();
+        Recorder recorder = new Recorder();
+        WriteBehindQueue<Item> queue = queue(repository, recorder);
+        Item first = recorder.cache(new Item(1, "a"));
+        Item second = recorder.cache(new Item(2, "b"));
+
+        queue.update(first);
+        first.name = "a2";
+        queue.update(first);
+        queue.update(second);
+        queue.delete(second);
+        // An update after a delete does not bring the entity back.
+        queue.update(second);
+        assertEquals(2, queue.getDepth());
+
+        queue.flush();
+        assertEquals(List.of(List.of("a2")), repository.updateCalls);
+        assertEquals(List.of(List.of(2)), repository.deleteCalls);
+        assertEquals(0, queue.getDepth());
+
+        WriteBehindStats stats = queue.stats();
+        assertEquals(5L, stats.getEnqueuedCount());
+        assertEquals(3L, stats.getCoalescedCount());
+        assertEquals(2L, stats.getWrittenCount());
+        queue.close();
+        assertEquals(List.of(1), recorder.written);
+        assertEquals(1, first.getVersion());
+    }
+
+    @Test
+    void writesTheStateAtTheTimeOfQueuing() {
+        Repository repository = new Repository();
+        Recorder recorder = new Recorder();
+        WriteBehindQueue<Item> queue = queue(repository, recorder);
+        Item item = recorder.cache(new Item(1, "queued"));
+
+        queue.update(item);
+        item.name = "edited after queuing";
+        queue.flush();
+        assertEquals(List.of(List.of("queued")), repository.updateCalls);
+        queue.close();
+    }
+
+    @Test
+    void successiveFlushesOfTheSameEntityDoNotConflict() {
+        Repository repository = new Repository();
+        Recorder recorder = new Recorder();
+        WriteBehindQueue<Item> queue = queue(repository, recorder);
+        Item item = recorder.cache(new Item(1, "v1"));
+
+        // The listener has not applied the first version when the second write is queued,
+        // so the queue must carry it over.
+        recorder.release = new CountDownLatch(1);
+        queue.update(item);
+        queue.flush();
+        item.name = "v2";
+        queue.update(item);
+        // Queued while the second write is in flight, then written by the next flush.
+        repository.duringCall = () -> {
+            repository.duringCall = () -> { };
+            item.name = "v3";
+            queue.update(item);
+        };
+        queue.flush();
+        assertEquals(1, queue.getDepth());
+        queue.flush();
+
+        assertEquals(0L, queue.stats().getConflictCount());
+        assertEquals(3, repository.versions.get(1).intValue());
+        assertEquals(0, item.getVersion());
+        recorder.release.countDown();
+        queue.close();
+        assertEquals(3, item.getVersion());
+        assertEquals(List.of(), recorder.dropped);
+    }
+
+    @Test
+    void transientFailureRequeuesInOrderAndKeepsNewerWrites() {
+        Repository repository = new Repository();
+        Recorder recorder = new Recorder();
+        WriteBehindQueue<Item> queue = queue(repository, recorder);
+        Item first = recorder.cache(new Item(1, "a"));
+        Item second = recorder.cache(new Item(2, "b"));
+        Item third = recorder.cache(new Item(3, "c"));
+        queue.update(first);
+        queue.update(second);
+
+        repository.failure = items -> wrapped(new SQLTransientConnectionException("connection lost", "08S01"));
+        repository.duringCall = () -> {
+            // Written while the failing flush is in progress.
+            first.name = "a2";
+            queue.update(first);
+            queue.update(third);
+        };
+        assertThrows(RuntimeException.class, queue::flush);
+        assertEquals(3, queue.getDepth());
+        assertEquals(1L, queue.stats().getFailedFlushCount());
+
+        repository.failure = items -> null;
+        repository.duringCall = () -> { };
+        queue.flush();
+        assertEquals(List.of("a2", "b", "c"), repository.updateCalls.get(1));
+        assertEquals(0, queue.getDepth());
+        queue.close();
+        assertEquals(List.of(), recorder.dropped);
+    }
+
+    @Test
+    void permanentFailureDropsOnlyTheBadRow() {
+        Repository repository = new Repository();
+        Recorder recorder = new Recorder();
+        WriteBehindQueue<Item> queue = queue(repository, recorder);
+        queue.update(recorder.cache(new Item(1, "a")));
+        queue.update(recorder.cache(new Item(2, "bad")));
+        queue.update(recorder.cache(new Item(3, "c")));
+        queue.delete(recorder.cache(new Item(4, "d")));
+        repository.failure = failWhen(item -> item.name.equals("bad"),
+                new SQLDataException("Data too long for column 'name'", "22001"));
+
+        queue.flush();
+        // The batch, then each row on its own; the delete was never part of the failed call.
+        assertEquals(List.of(List.of("a", "bad", "c"), List.of("a"), List.of("bad"), List.of("c")),
+                repository.updateCalls);
+        assertEquals(List.of(List.of(4)), repository.deleteCalls);
+        assertEquals(0, queue.getDepth());
+        WriteBehindStats stats = queue.stats();
+        assertEquals(1L, stats.getDroppedCount());
+        assertEquals(0L, stats.getFailedFlushCount());
+        assertEquals(3L, stats.getWrittenCount());
+
+        // Nothing is left to retry, so later flushes and the reads behind them do not fail.
+        queue.flush();
+        assertEquals(4, repository.updateCalls.size());
+        queue.close();
+        assertEquals(List.of(1, 3), recorder.written);
+        assertEquals(List.of(2), recorder.dropped);
+    }
+
+    @Test
+    void transientFailureDuringRetryRequeuesTheRest() {
+        Repository repository = new Repository();
+        Recorder recorder = new Recorder();
+        WriteBehindQueue<Item> queue = queue(repository, recorder);
+        queue.update(recorder.cache(new Item(1, "bad")));
+        queue.update(recorder.cache(new Item(2, "b")));
+        queue.update(recorder.cache(new Item(3, "c")));
+        FailurePolicy bad = failWhen(item -> item.name.equals("bad"),
+                new SQLIntegrityConstraintViolationException("Duplicate entry", "23000"));
+        repository.failure = items -> items.size() == 1 && items.get(0).id == 2
+                ? wrapped(new SQLTimeoutException("Lock wait timeout", "HYT00"))
+                : bad.apply(items);
+
+        assertThrows(RuntimeException.class, queue::flush);
+        assertEquals(2, queue.getDepth());
+        assertEquals(1L, queue.stats().getDroppedCount());
+        assertEquals(1L, queue.stats().getFailedFlushCount());
+
+        repository.failure = items -> null;
+        queue.flush();
+        assertEquals(List.of("b", "c"), repository.updateCalls.get(repository.updateCalls.size() - 1));
+        queue.close();
+        assertEquals(List.of(1), recorder.dropped);
+        assertEquals(List.of(2, 3), recorder.written);
+    }
+
+    @Test
+    void conflictsAreReportedUnlessANewerWriteIsPending() {
+        Repository repository = new Repository();
+        Recorder recorder = new Recorder();
+        WriteBehindQueue<Item> queue = queue(repository, recorder);
+        Item stale = recorder.cache(new Item(1, "a"));
+        Item superseded = recorder.cache(new Item(2, "b"));
+        repository.versions.put(1, 5);
+        repository.versions.put(2, 5);
+        queue.update(stale);
+        queue.update(superseded);
+        repository.duringCall = () -> {
+            repository.duringCall = () -> { };
+            superseded.setVersion(5);
+            queue.update(superseded);
+        };
+
+        queue.flush();
+        assertEquals(2L, queue.stats().getConflictCount());
+        assertEquals(1, queue.getDepth());
+        queue.flush();
+        queue.close();
+        assertEquals(List.of(1), recorder.dropped);
+        assertEquals(List.of(2), recorder.written);
+    }
+
+    @Test
+    void closeRejectsLaterWrites() {
+        Repository repository = new Repository();
+        WriteBehindQueue<Item> queue = queue(repository, new Recorder());
+        queue.close();
+        assertThrows(IllegalStateException.class, () -> queue.update(new Item(1, "a")));
+    }
+
+    @Test
+    void classifiesFailuresAsPermanentOrTransient() {
+        assertTrue(WriteBehindQueue.isPermanent(wrapped(new SQLDataException("too long", "22001"))));
+        assertTrue(WriteBehindQueue.isPermanent(wrapped(new SQLSyntaxErrorException("bad SQL", "42000"))));
+        assertTrue(WriteBehindQueue.isPermanent(
+                wrapped(new BatchUpdateException("batch", "23000", 1062, new int[0], null))));
+        assertTrue(WriteBehindQueue.isPermanent(new IllegalArgumentException("not from the database")));
+
+        assertFalse(WriteBehindQueue.isPermanent(wrapped(new SQLException("Connection pool is closed"))));
+        assertFalse(WriteBehindQueue.isPermanent(wrapped(new SQLTimeoutException("timed out"))));
+        assertFalse(WriteBehindQueue.isPermanent(wrapped(new SQLException("link failure", "08S01"))));
+        assertFalse(WriteBehindQueue.isPermanent(
+                wrapped(new SQLTransientConnectionException("connection lost", "08S01"))));
+    }
+}
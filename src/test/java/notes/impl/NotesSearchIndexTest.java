@@ -0,0 +1,120 @@
+package notes.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import notes.Notes;
+import org.junit.jupiter.api.Test;
+
+class NotesSearchIndexTest {
+    private static List<Integer> ids(List<Notes> notes) {
+        List<Integer> ids = new ArrayList<>();
+        notes.forEach(note -> ids.add(note.getId()));
+        return ids;
+    }
+
+    @Test
+    void tokenizeNormalizesCaseAndAccents() {
+        assertEquals(List.of("hello", "world", "naive", "test", "42", "cafe"),
+                NotesSearchIndex.tokenize("Héllo, WORLD! naïve_test 42 CAFÉ"));
+        assertEquals(List.of(), NotesSearchIndex.tokenize("  ,.; "));
+        assertEquals(List.of(), NotesSearchIndex.tokenize(null));
+    }
+
+    @Test
+    void titleMatchesRankAboveContentMatches() {
+        NotesSearchIndex index = new NotesSearchIndex();
+        index.index(new Notes(1, "Weekly list", "groceries for the week and more groceries"));
+        index.index(new Notes(2, "Groceries", "milk, eggs"));
+        index.index(new Notes(3, "Unrelated", "nothing to see"));
+
+        assertEquals(List.of(2, 1), ids(index.search("groceries", 10)));
+    }
+
+    @Test
+    void rareWordsAndMoreMatchedWordsScoreHigher() {
+        NotesSearchIndex index = new NotesSearchIndex();
+        for (int id = 1; id <= 20; id++) {
+            index.index(new Notes(id, "Note " + id, "apple pie recipe"));
+        }
+        // Same length, so only the matched words differ.
+        index.index(new Notes(21, "Note 21", "zebra and lion recipe"));
+        index.index(new Notes(22, "Note 22", "apple and zebra recipe"));
+
+        List<Integer> found = ids(index.search("apple zebra", 5));
+        assertEquals(5, found.size());
+        // Both words first, then the rare word alone, then notes with only the common word.
+        assertEquals(List.of(22, 21), found.subList(0, 2));
+        assertTrue(found.subList(2, 5).stream().allMatch(id -> id <= 20));
+    }
+
+    @Test
+    void resultsAreSummariesOfTheCurrentVersion() {
+        NotesSearchIndex index = new NotesSearchIndex();
+        Notes note = new Notes(7, "Café plans", "Meet at the café");
+        note.setVersion(3);
+        index.index(note);
+
+        List<Notes> found = index.search("CAFE", 10);
+        assertEquals(1, found.size());
+        assertEquals("Café plans", found.get(0).getTitle());
+        assertEquals(3, found.get(0).getVersion());
+        assertNull(found.get(0).getContent());
+    }
+
+    @Test
+    void reindexingAndRemovingReplaceOldText() {
+        NotesSearchIndex index = new NotesSearchIndex();
+        index.index(new Notes(1, "First", "alpha"));
+        index.index(new Notes(2, "Second", "alpha beta"));
+        index.index(new Notes(1, "First", "gamma"));
+
+        assertEquals(List.of(2), ids(index.search("alpha", 10)));
+        assertEquals(List.of(1), ids(index.search("gamma", 10)));
+
+        index.remove(2);
+        index.remove(99);
+        assertEquals(List.of(), ids(index.search("alpha", 10)));
+        assertEquals(1, index.size());
+
+        index.clear();
+        assertEquals(List.of(), ids(index.search("gamma", 10)));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void compactionKeepsRankingOfLiveNotes() {
+        Random random = new Random(7);
+        String[] words = { "red", "green", "blue", "cyan", "black", "white", "pink", "gold" };
+        List<Notes> live = new ArrayList<>();
+        NotesSearchIndex index = new NotesSearchIndex();
+        for (int id = 1; id <= 3000; id++) {
+            StringBuilder content = new StringBuilder();
+            int length = 1 + random.nextInt(12);
+            for (int i = 0; i < length; i++) {
+                content.append(words[random.nextInt(words.length)]).append(' ');
+            }
+            Notes note = new Notes(id, words[random.nextInt(words.length)], content.toString());
+            index.index(note);
+            // Removing five out of six leaves more dead ordinals than live ones, which compacts.
+            if (id % 6 == 0) {
+                live.add(note);
+            } else {
+                index.remove(id);
+            }
+        }
+        assertEquals(live.size(), index.size());
+
+        // A fresh index of the same notes in the same order must rank them identically.
+        NotesSearchIndex fresh = new NotesSearchIndex();
+        live.forEach(fresh::index);
+        for (String query : new String[] { "red", "green blue", "gold black pink", "white cyan red" }) {
+            assertEquals(ids(fresh.search(query, 50)), ids(index.search(query, 50)), query);
+        }
+        assertEquals(live.size(), index.search("red green blue cyan black white pink gold", 10_000).size());
+    }
+}
@@ -0,0 +1,156 @@
+package todo.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+import todo.ToDo;
+
+class ToDoTrigramIndexTest {
+    private static ToDo toDo(int id, String description) {
+        return new ToDo(id, description, "2025-01-01", false);
+    }
+
+    private static Set<Integer> ids(List<ToDo> toDos) {
+        Set<Integer> ids = new TreeSet<>();
+        toDos.forEach(toDo -> ids.add(toDo.getId()));
+        return ids;
+    }
+
+    private static Set<Integer> scan(Map<Integer, String> descriptions, String fragment) {
+        String query = fragment.toLowerCase(Locale.ROOT);
+        Set<Integer> ids = new TreeSet<>();
+        descriptions.forEach((id, text) -> {
+            if (text.toLowerCase(Locale.ROOT).contains(query)) {
+                ids.add(id);
+            }
+        });
+        return ids;
+    }
+
+    private static String randomText(Random random, String alphabet, int length) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+
+    @Test
+    void findsSubstringsIgnoringCase() {
+        ToDoTrigramIndex index = new ToDoTrigramIndex();
+        index.index(toDo(1, "Buy milk at the store"));
+        index.index(toDo(2, "Call the plumber"));
+        index.index(toDo(3, "Store receipts"));
+
+        assertEquals(Set.of(1, 3), ids(index.find("STORE", 10)));
+        assertEquals(Set.of(2), ids(index.find("umb", 10)));
+        assertEquals(Set.of(1, 2), ids(index.find("the ", 10)));
+        assertEquals(Set.of(), ids(index.find("milkshake", 10)));
+        assertEquals(Set.of(), ids(index.find("", 10)));
+    }
+
+    @Test
+    void rejectsCandidatesWhoseTrigramsAreOutOfOrder() {
+        ToDoTrigramIndex index = new ToDoTrigramIndex();
+        // Contains every trigram of "abcabd" ("abc", "bca", "cab", "abd") but not the string.
+        index.index(toDo(1, "abcab xabd"));
+        index.index(toDo(2, "zabcabdz"));
+
+        assertEquals(Set.of(2), ids(index.find("abcabd", 10)));
+    }
+
+    @Test
+    void shortFragmentsAndNullDescriptions() {
+        ToDoTrigramIndex index = new ToDoTrigramIndex();
+        index.index(toDo(1, "ab"));
+        index.index(toDo(2, null));
+        index.index(toDo(3, "xaby"));
+
+        assertEquals(Set.of(1, 3), ids(index.find("AB", 10)));
+        assertEquals(Set.of(3), ids(index.find("y", 10)));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void limitStopsAfterThatManyMatches() {
+        ToDoTrigramIndex index = new ToDoTrigramIndex();
+        for (int id = 1; id <= 100; id++) {
+            index.index(toDo(id, "task " + id));
+        }
+        assertEquals(5, index.find("task", 5).size());
+        assertEquals(5, index.find("ta", 5).size());
+        // Least recently indexed first.
+        assertEquals(Set.of(1, 10, 11, 12, 13), ids(index.find("task 1", 5)));
+    }
+
+    @Test
+    void reindexingAndRemovingReplaceOldText() {
+        ToDoTrigramIndex index = new ToDoTrigramIndex();
+        ToDo toDo = toDo(1, "water the plants");
+        index.index(toDo);
+        toDo.setTaskDescription("feed the cat");
+        index.index(toDo);
+
+        assertEquals(Set.of(), ids(index.find("plants", 10)));
+        assertEquals(Set.of(1), ids(index.find("cat", 10)));
+
+        index.remove(1);
+        index.remove(42);
+        assertEquals(Set.of(), ids(index.find("cat", 10)));
+        assertEquals(0, index.size());
+
+        index.index(toDo(2, "after clear"));
+        index.clear();
+        assertEquals(Set.of(), ids(index.find("clear", 10)));
+    }
+
+    @Test
+    void resultsAreTheIndexedInstances() {
+        ToDoTrigramIndex index = new ToDoTrigramIndex();
+        List<ToDo> toDos = new ArrayList<>();
+        for (int id = 1; id <= 3; id++) {
+            ToDo toDo = toDo(id, "shared words " + id);
+            toDos.add(toDo);
+            index.index(toDo);
+        }
+        assertEquals(toDos, index.find("shared", 10));
+    }
+
+    @Test
+    void matchesContainsScanUnderRandomChanges() {
+        ToDoTrigramIndex index = new ToDoTrigramIndex();
+        Map<Integer, String> descriptions = new HashMap<>();
+        Random random = new Random(5);
+        // A small alphabet, with mixed case and an accented letter, makes every trigram common,
+        // so the postings are long and many candidates fail verification.
+        String alphabet = "abcdeAB É";
+        for (int step = 0; step < 60_000; step++) {
+            int id = 1 + random.nextInt(3000);
+            if (random.nextInt(4) == 0) {
+                // Many removals and re-indexes, so dead ordinals pile up and the index compacts.
+                index.remove(id);
+                descriptions.remove(id);
+            } else {
+                String text = randomText(random, alphabet, random.nextInt(15));
+                index.index(toDo(id, text));
+                descriptions.put(id, text);
+            }
+            if (step % 500 == 0) {
+                for (int query = 0; query < 20; query++) {
+                    String fragment = randomText(random, alphabet, 1 + random.nextInt(5));
+                    assertEquals(scan(descriptions, fragment), ids(index.find(fragment, Integer.MAX_VALUE)),
+                            fragment);
+                }
+            }
+        }
+        assertEquals(descriptions.size(), index.size());
+    }
+}